@@ -0,0 +1,122 @@
+package checkers.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import checkers.model.Board;
+import checkers.model.CheckersException;
+import checkers.model.Game;
+import checkers.model.Move;
+import checkers.model.MoveGenerator;
+import checkers.model.Piece;
+import checkers.model.PieceColor;
+import checkers.model.Player;
+
+/**
+ * Throughput of the model operations the GUI, CLI and engine call most,
+ * on each of the {@link Positions}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ModelBenchmark {
+
+    @Param({"OPENING", "MIDGAME", "ENDGAME", "MULTI_JUMP"})
+    public Positions position;
+
+    private Game game;
+    private Board board;
+    private PieceColor side;
+    private List<Piece> pieces;
+    private Move move;
+    private final long[] moves = new long[MoveGenerator.MAX_MOVES];
+
+    @Setup(Level.Trial)
+    public void setUp() throws CheckersException {
+        game = new Game(new Player("Red", PieceColor.RED), new Player("Black", PieceColor.BLACK));
+        game.startGame(position.fen);
+        board = game.getBoard();
+        side = game.getCurrentPlayer().getColor();
+        pieces = board.getAllPieces(side);
+        move = game.getPossibleMoves().get(0);
+    }
+
+    @Benchmark
+    public List<Piece> boardGetAllPieces() {
+        return board.getAllPieces(side);
+    }
+
+    @Benchmark
+    public void pieceGetPossibleMoves(Blackhole bh) {
+        for (Piece piece : pieces) {
+            bh.consume(piece.getPossibleMoves(board));
+        }
+    }
+
+    @Benchmark
+    public void pieceGetPossibleJumps(Blackhole bh) {
+        for (Piece piece : pieces) {
+            bh.consume(piece.getPossibleJumps(board));
+        }
+    }
+
+    /**
+     * Moves of the player to move, answered from the cache Game keeps between moves.
+     */
+    @Benchmark
+    public List<Move> gameGetPossibleMoves() {
+        return game.getPossibleMoves();
+    }
+
+    /**
+     * Moves of the player to move after the cache has been invalidated, as on
+     * the first call after a move.
+     */
+    @Benchmark
+    public List<Move> gameGetPossibleMovesUncached() {
+        game.switchPlayer();
+        game.switchPlayer();
+        return game.getPossibleMoves();
+    }
+
+    /**
+     * Makes a move and takes it back. Game checks for the end of the game
+     * after every move, so this includes generating the opponent's moves.
+     */
+    @Benchmark
+    public boolean gameMakeMove() {
+        boolean made = game.makeMove(move);
+        game.undoMove();
+        return made;
+    }
+
+    @Benchmark
+    public boolean gameIsGameOver() {
+        return game.isGameOver();
+    }
+
+    /**
+     * The allocation-free generator underneath Game, for comparison.
+     */
+    @Benchmark
+    public int moveGeneratorGenerate() {
+        return MoveGenerator.generate(board, side, moves);
+    }
+}
@@ -0,0 +1,21 @@
+package checkers.benchmarks;
+
+/**
+ * Representative positions for the benchmarks, in {@link checkers.model.Fen} notation.
+ */
+public enum Positions {
+    /** The starting position. */
+    OPENING("W:W21,22,23,24,25,26,27,28,29,30,31,32:B1,2,3,4,5,6,7,8,9,10,11,12"),
+    /** Ten pieces a side with the centre contested and no capture available. */
+    MIDGAME("B:W17,21,22,23,24,26,27,28,30,31:B1,2,3,5,6,7,9,10,11,12"),
+    /** Three kings against two. */
+    ENDGAME("W:WK14,K19,K27:BK1,K5"),
+    /** A king with several multi-jump routes through scattered men. */
+    MULTI_JUMP("W:WK29,32:B9,10,11,17,18,25");
+
+    final String fen;
+
+    Positions(String fen) {
+        this.fen = fen;
+    }
+}
@@ -0,0 +1,181 @@
+package checkers.engine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import checkers.model.CheckersException;
+
+/**
+ * The weights of the terms of the {@link Evaluator}, in hundredths of a man.
+ * <p>
+ * Weights are kept in a text file of {@code name = value} lines, where
+ * blank lines and lines starting with {@code #} are ignored:
+ * <pre>
+ * man = 100
+ * king = 130
+ * back-rank = 8
+ * center = 4
+ * mobility = 0
+ * </pre>
+ * A term the file leaves out keeps its default, so the defaults play as the
+ * engine did before weights could be changed.
+ */
+public final class EvaluationWeights {
+
+    /**
+     * A term of the evaluation, named as in the weights file.
+     */
+    public enum Term {
+        /** Each man. */
+        MAN("man", 100),
+        /** Each king. */
+        KING("king", 130),
+        /** Each man still on its own back row, where it keeps the opponent from crowning. */
+        BACK_RANK("back-rank", 8),
+        /** Each piece on the eight central squares. */
+        CENTER("center", 4),
+        /** Each piece that has a non-capturing move, more than the opponent has. */
+        MOBILITY("mobility", 0);
+
+        private final String key;
+        private final int defaultValue;
+
+        Term(String key, int defaultValue) {
+            this.key = key;
+            this.defaultValue = defaultValue;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public int getDefault() {
+            return defaultValue;
+        }
+
+        static Term forKey(String key) {
+            for (Term term : values()) {
+                if (term.key.equals(key)) {
+                    return term;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final Term[] TERMS = Term.values();
+
+    private final int[] values;
+
+    /**
+     * Creates the default weights.
+     */
+    public EvaluationWeights() {
+        values = new int[TERMS.length];
+        for (Term term : TERMS) {
+            values[term.ordinal()] = term.getDefault();
+        }
+    }
+
+    /**
+     * @param values One weight per {@link Term}, in declaration order.
+     */
+    public EvaluationWeights(int[] values) {
+        if (values.length != TERMS.length) {
+            throw new IllegalArgumentException("Expected " + TERMS.length + " weights, got " + values.length);
+        }
+        this.values = values.clone();
+    }
+
+    public int get(Term term) {
+        return values[term.ordinal()];
+    }
+
+    /**
+     * @return A copy of these weights with one of them changed.
+     */
+    public EvaluationWeights with(Term term, int value) {
+        int[] copy = values.clone();
+        copy[term.ordinal()] = value;
+        return new EvaluationWeights(copy);
+    }
+
+    /**
+     * @return The weights in {@link Term} declaration order.
+     */
+    public int[] toArray() {
+        return values.clone();
+    }
+
+    /**
+     * Reads a weights file.
+     * @throws CheckersException if a line is not a known term and a whole number.
+     */
+    public static EvaluationWeights load(Path path) throws IOException, CheckersException {
+        int[] values = new EvaluationWeights().values;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            int lineNumber = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int equals = line.indexOf('=');
+                Term term = equals < 0 ? null : Term.forKey(line.substring(0, equals).trim());
+                if (term == null) {
+                    throw new CheckersException("Line " + lineNumber + " of " + path + " is not a known weight: "
+                            + line);
+                }
+                try {
+                    values[term.ordinal()] = Integer.parseInt(line.substring(equals + 1).trim());
+                } catch (NumberFormatException e) {
+                    throw new CheckersException("Line " + lineNumber + " of " + path + " has no whole number: "
+                            + line);
+                }
+            }
+        }
+        return new EvaluationWeights(values);
+    }
+
+    /**
+     * Writes the weights in the form {@link #load(Path)} reads.
+     */
+    public void save(Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("# Evaluation weights, in hundredths of a man");
+            writer.newLine();
+            for (Term term : TERMS) {
+                writer.write(term.getKey() + " = " + values[term.ordinal()]);
+                writer.newLine();
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof EvaluationWeights weights && Arrays.equals(values, weights.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Term term : TERMS) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(term.getKey()).append('=').append(values[term.ordinal()]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,119 @@
+package checkers.engine;
+
+import checkers.model.Bitboards;
+import checkers.model.PackedMove;
+
+/**
+ * Static evaluation of a position from the point of view of the side to move.
+ * Scores are in hundredths of a man, with terms weighted by
+ * {@link EvaluationWeights}.
+ * <p>
+ * Everything but mobility depends only on which piece stands on which
+ * square, so it is kept in a table of piece values by square. The search
+ * carries that part of the score along, changing it by
+ * {@link #materialDelta} for each move as it changes the Zobrist key, and a
+ * leaf only adds the mobility term.
+ */
+public class Evaluator {
+
+    private static final int CENTER_SQUARES = 0x00666600;
+
+    // Value of a piece on each square, at (type << 5) + square: red man, red king, black man, black king
+    private static final int RED_MAN = 0;
+    private static final int RED_KING = 1 << 5;
+    private static final int BLACK_MAN = 2 << 5;
+    private static final int BLACK_KING = 3 << 5;
+
+    private final EvaluationWeights weights;
+    private final int[] values = new int[4 << 5];
+    private final int mobility;
+
+    public Evaluator() {
+        this(new EvaluationWeights());
+    }
+
+    public Evaluator(EvaluationWeights weights) {
+        this.weights = weights;
+        this.mobility = weights.get(EvaluationWeights.Term.MOBILITY);
+        int man = weights.get(EvaluationWeights.Term.MAN);
+        int king = weights.get(EvaluationWeights.Term.KING);
+        int backRank = weights.get(EvaluationWeights.Term.BACK_RANK);
+        int center = weights.get(EvaluationWeights.Term.CENTER);
+        for (int sq = 0; sq < 32; sq++) {
+            int bit = 1 << sq;
+            int centerBonus = (CENTER_SQUARES & bit) != 0 ? center : 0;
+            values[RED_MAN + sq] = man + centerBonus + ((Bitboards.BOTTOM_ROW & bit) != 0 ? backRank : 0);
+            values[BLACK_MAN + sq] = man + centerBonus + ((Bitboards.TOP_ROW & bit) != 0 ? backRank : 0);
+            values[RED_KING + sq] = king + centerBonus;
+            values[BLACK_KING + sq] = king + centerBonus;
+        }
+    }
+
+    public EvaluationWeights getWeights() {
+        return weights;
+    }
+
+    /**
+     * Evaluates a position.
+     * @param own The side to move's pieces.
+     * @param opponent The opponent's pieces.
+     * @param kings All kings on the board.
+     * @param red True if the side to move is red.
+     * @return The score for the side to move.
+     */
+    public int evaluate(int own, int opponent, int kings, boolean red) {
+        return evaluate(own, opponent, kings, red, material(own, opponent, kings, red));
+    }
+
+    /**
+     * Evaluates a position whose {@link #material} is already known.
+     */
+    public int evaluate(int own, int opponent, int kings, boolean red, int material) {
+        if (mobility == 0) {
+            return material;
+        }
+        int empty = ~(own | opponent);
+        return material + mobility * (Integer.bitCount(Bitboards.movers(own, kings, empty, red))
+                - Integer.bitCount(Bitboards.movers(opponent, kings, empty, !red)));
+    }
+
+    /**
+     * @return The terms that depend only on where the pieces stand, for the
+     *         side to move less the opponent's.
+     */
+    public int material(int own, int opponent, int kings, boolean red) {
+        return sum(own, kings, red) - sum(opponent, kings, !red);
+    }
+
+    /**
+     * @return How much a move changes {@link #material} for the side making it.
+     *         The opponent's material after the move is the negation of the
+     *         mover's material plus this.
+     */
+    public int materialDelta(long move, int kings, boolean red) {
+        int from = PackedMove.from(move);
+        int side = red ? RED_MAN : BLACK_MAN;
+        int before = side | (kings >>> from & 1) << 5;
+        int after = PackedMove.isPromotion(move) ? side | RED_KING : before;
+        int delta = values[after + PackedMove.to(move)] - values[before + from];
+        int captured = PackedMove.captured(move);
+        if (captured != 0) {
+            int other = red ? BLACK_MAN : RED_MAN;
+            for (; captured != 0; captured &= captured - 1) {
+                int sq = Integer.numberOfTrailingZeros(captured);
+                delta += values[(other | (kings >>> sq & 1) << 5) + sq];
+            }
+        }
+        return delta;
+    }
+
+    private int sum(int pieces, int kings, boolean red) {
+        int side = red ? RED_MAN : BLACK_MAN;
+        int total = 0;
+        for (int mask = pieces; mask != 0; mask &= mask - 1) {
+            int sq = Integer.numberOfTrailingZeros(mask);
+            total += values[(side | (kings >>> sq & 1) << 5) + sq];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,21 @@
+package checkers.engine;
+
+import checkers.model.Game;
+import checkers.model.Move;
+
+/**
+ * Chooses moves for a computer player.
+ * <p>
+ * A strategy may keep state between moves and need not be thread-safe; give
+ * each concurrently played game its own instance.
+ */
+@FunctionalInterface
+public interface MoveStrategy {
+
+    /**
+     * Chooses a move for the current player. The game is not modified.
+     * @param game A game in progress.
+     * @return One of the current player's legal moves.
+     */
+    Move chooseMove(Game game);
+}
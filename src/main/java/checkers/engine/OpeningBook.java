@@ -0,0 +1,171 @@
+package checkers.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import checkers.model.Board;
+import checkers.model.CheckersException;
+import checkers.model.Game;
+import checkers.model.Move;
+import checkers.model.MoveGenerator;
+import checkers.model.PackedMove;
+import checkers.model.PieceColor;
+import checkers.model.Zobrist;
+
+/**
+ * Moves to play in known positions, read from a file made by
+ * {@link OpeningBookBuilder}.
+ * <p>
+ * The file is a header followed by fixed-size records sorted by position key,
+ * so a position's moves are found by binary search in the memory-mapped file
+ * and one of them is picked at random in proportion to its weight. Layout, all
+ * numbers little-endian:
+ * <pre>
+ *  header  (16 bytes)  magic "CKOB", version (short), reserved (short), record count (long)
+ *  records (16 bytes)  position key (long), captured squares (int),
+ *                      from square (byte), to square (byte), weight (unsigned short)
+ * </pre>
+ * Keys are {@link Zobrist} keys with {@link Zobrist#SIDE} XORed in when black
+ * is to move. A chosen move is matched against the legal moves, so a key
+ * collision can never produce an illegal move. A book may be shared between
+ * threads.
+ */
+public class OpeningBook implements Closeable {
+
+    static final int MAGIC = 'C' | 'K' << 8 | 'O' << 16 | 'B' << 24;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 16;
+    static final int MAX_WEIGHT = 0xFFFF;
+
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private final Arena arena;
+    private final MemorySegment records;
+    private final long recordCount;
+
+    private OpeningBook(Arena arena, MemorySegment file) throws CheckersException {
+        this.arena = arena;
+        if (file.byteSize() < HEADER_SIZE || file.get(INT, 0) != MAGIC || file.get(SHORT, 4) != VERSION) {
+            throw new CheckersException("Not an opening book");
+        }
+        this.recordCount = file.get(LONG, 8);
+        if (recordCount < 0 || file.byteSize() != HEADER_SIZE + recordCount * RECORD_SIZE) {
+            throw new CheckersException("Opening book has the wrong size");
+        }
+        this.records = file.asSlice(HEADER_SIZE);
+    }
+
+    /**
+     * Maps a book file.
+     * @throws CheckersException if the file is not an opening book.
+     */
+    public static OpeningBook open(Path path) throws IOException, CheckersException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new OpeningBook(arena, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+        } catch (IOException | CheckersException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The number of (position, move) records in the book.
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Picks a book move for the current player of a game.
+     * @return A legal move, or null if the position is not in the book.
+     */
+    public Move choose(Game game, Random random) {
+        long move = choose(game.getBoard(), game.getCurrentPlayer().getColor(), random);
+        return move == 0 ? null : PackedMove.toMove(move);
+    }
+
+    /**
+     * Picks a book move in a position.
+     * @return A legal move in {@link PackedMove} form, or 0 if the position is
+     *         not in the book.
+     */
+    public long choose(Board board, PieceColor sideToMove, Random random) {
+        boolean red = sideToMove == PieceColor.RED;
+        long key = red ? board.getKey() : board.getKey() ^ Zobrist.SIDE;
+        long first = find(key);
+        long end = first;
+        int total = 0;
+        while (end < recordCount && key(end) == key) {
+            total += weight(end);
+            end++;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long chosen = first;
+        for (int pick = random.nextInt(total); pick >= weight(chosen); chosen++) {
+            pick -= weight(chosen);
+        }
+        long at = chosen * RECORD_SIZE;
+        int captured = records.get(INT, at + 8);
+        int from = records.get(ValueLayout.JAVA_BYTE, at + 12);
+        int to = records.get(ValueLayout.JAVA_BYTE, at + 13);
+
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(board.getPieces(sideToMove), board.getPieces(sideToMove.opposite()),
+                board.getKings(), red, moves);
+        for (int i = 0; i < count; i++) {
+            if (PackedMove.from(moves[i]) == from && PackedMove.to(moves[i]) == to
+                    && PackedMove.captured(moves[i]) == captured) {
+                return moves[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return The first record with a key not less than the given one.
+     */
+    private long find(long key) {
+        long low = 0;
+        long high = recordCount;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (key(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long key(long record) {
+        return records.get(LONG, record * RECORD_SIZE);
+    }
+
+    private int weight(long record) {
+        return records.get(SHORT, record * RECORD_SIZE + 14) & MAX_WEIGHT;
+    }
+
+    /**
+     * Unmaps the file. The book must not be probed afterwards.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
@@ -0,0 +1,133 @@
+package checkers.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import checkers.model.Bitboards;
+import checkers.model.CheckersException;
+import checkers.model.Game;
+import checkers.model.GameState;
+import checkers.model.Move;
+import checkers.model.PieceColor;
+import checkers.model.Player;
+import checkers.model.Zobrist;
+
+/**
+ * Collects the opening moves of many games and writes them as an
+ * {@link OpeningBook}.
+ * <p>
+ * Every move of the first plies of each game adds to the weight of its
+ * (position, move) pair: {@value #WIN_WEIGHT} if the side that played it went
+ * on to win, {@value #DRAW_WEIGHT} for a draw or an unknown result and nothing
+ * for a loss. Moves seen often in good games thus end up chosen most often.
+ */
+public class OpeningBookBuilder {
+
+    static final int WIN_WEIGHT = 2;
+    static final int DRAW_WEIGHT = 1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final int maxPlies;
+    private final Game scratch = new Game(new Player("Red", PieceColor.RED), new Player("Black", PieceColor.BLACK));
+    private final Map<Line, Integer> weights = new HashMap<>();
+
+    /**
+     * @param maxPlies The number of plies of each game to take into the book.
+     */
+    public OpeningBookBuilder(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * @return The number of distinct (position, move) pairs seen so far.
+     */
+    public int getLineCount() {
+        return weights.size();
+    }
+
+    /**
+     * Adds the opening moves of a game.
+     * @param game A game; only its start position and moves are used.
+     * @param result How the game ended, or {@link GameState#IN_PROGRESS} if unknown.
+     */
+    public void add(Game game, GameState result) {
+        try {
+            scratch.startGame(game.getStartPosition());
+        } catch (CheckersException e) {
+            // The game's own start position is always valid
+            throw new IllegalStateException(e);
+        }
+        int ply = 0;
+        for (Move move : game.getMoveHistory()) {
+            if (ply++ == maxPlies) {
+                break;
+            }
+            PieceColor mover = scratch.getCurrentPlayer().getColor();
+            int weight = result == GameState.DRAW || result == GameState.IN_PROGRESS ? DRAW_WEIGHT
+                    : (result == GameState.RED_WINS) == (mover == PieceColor.RED) ? WIN_WEIGHT : 0;
+            if (weight > 0) {
+                long key = scratch.getBoard().getKey();
+                if (mover == PieceColor.BLACK) {
+                    key ^= Zobrist.SIDE;
+                }
+                weights.merge(new Line(key, Bitboards.square(move.getFrom()), Bitboards.square(move.getTo()),
+                        move.getCapturedMask()), weight, Integer::sum);
+            }
+            scratch.makeMove(move, false);
+        }
+    }
+
+    /**
+     * Writes the book, leaving out moves whose total weight is below a minimum.
+     * @param minWeight The least weight a move needs to be kept; at least 1.
+     * @return The number of records written.
+     */
+    public long write(Path path, int minWeight) throws IOException {
+        List<Map.Entry<Line, Integer>> lines = new ArrayList<>(weights.size());
+        for (Map.Entry<Line, Integer> line : weights.entrySet()) {
+            if (line.getValue() >= Math.max(minWeight, 1)) {
+                lines.add(line);
+            }
+        }
+        lines.sort(Comparator.comparingLong((Map.Entry<Line, Integer> line) -> line.getKey().key())
+                .thenComparing(Map.Entry.comparingByValue(Comparator.reverseOrder())));
+
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(OpeningBook.MAGIC).putShort(OpeningBook.VERSION).putShort((short) 0).putLong(lines.size());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Map.Entry<Line, Integer> entry : lines) {
+                if (buffer.remaining() < OpeningBook.RECORD_SIZE) {
+                    drain(buffer, channel);
+                }
+                Line line = entry.getKey();
+                buffer.putLong(line.key()).putInt(line.captured()).put((byte) line.from()).put((byte) line.to())
+                        .putShort((short) Math.min(entry.getValue(), OpeningBook.MAX_WEIGHT));
+            }
+            drain(buffer, channel);
+        }
+        return lines.size();
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /** A move in a position, the side to move included in the key. */
+    private record Line(long key, int from, int to, int captured) {
+    }
+}
@@ -0,0 +1,29 @@
+package checkers.engine;
+
+import java.util.List;
+import java.util.Random;
+
+import checkers.model.Game;
+import checkers.model.Move;
+
+/**
+ * Plays a uniformly random legal move.
+ */
+public class RandomStrategy implements MoveStrategy {
+
+    private final Random random;
+
+    public RandomStrategy(Random random) {
+        this.random = random;
+    }
+
+    public RandomStrategy(long seed) {
+        this(new Random(seed));
+    }
+
+    @Override
+    public Move chooseMove(Game game) {
+        List<Move> moves = game.getPossibleMoves();
+        return moves.get(random.nextInt(moves.size()));
+    }
+}
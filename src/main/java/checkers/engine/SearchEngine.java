@@ -0,0 +1,440 @@
+package checkers.engine;
+
+import checkers.metrics.Metrics;
+import checkers.metrics.SearchIterationEvent;
+import checkers.model.Bitboards;
+import checkers.model.Board;
+import checkers.model.Game;
+import checkers.model.MoveGenerator;
+import checkers.model.PackedMove;
+import checkers.model.PieceColor;
+import checkers.model.Zobrist;
+
+/**
+ * A computer opponent: negamax alpha-beta search with iterative deepening,
+ * aspiration windows and a hard time limit per move.
+ * <p>
+ * The search runs on the board masks and {@link PackedMove} values, so it does
+ * not allocate while searching. Like the Zobrist key, the part of the
+ * evaluation that depends only on where the pieces stand is updated move by
+ * move rather than recomputed at each leaf. An engine keeps per-ply move buffers and is not
+ * thread-safe; use one engine per searching thread. Engines may share one
+ * {@link TranspositionTable}.
+ * <p>
+ * A position that repeats one since the last capture or move of a man, in
+ * the search or in the game before it, is scored as a draw, so the engine
+ * neither shuffles its kings in a won position nor misses a drawing
+ * repetition when it is losing.
+ */
+public class SearchEngine {
+
+    /** Score of a won position, less the number of plies needed to win. */
+    public static final int WIN = 100_000;
+
+    static final int INFINITY = 1_000_000;
+    static final int MAX_PLY = 128;
+    /** Score of a tablebase win, less the plies to its next capture or crowning; below any found win. */
+    static final int TABLEBASE_WIN = WIN - 2 * MAX_PLY;
+
+    private static final long[] NO_HISTORY = {};
+    private static final int ASPIRATION_WINDOW = 50;
+    private static final int TIME_CHECK_INTERVAL = 1023;
+    private static final int DEFAULT_TABLE_MB = 16;
+    /** How deep a forced move is searched, to give it a score without spending the time limit. */
+    static final int FORCED_MOVE_DEPTH = 6;
+
+    private final Evaluator evaluator;
+    private final TranspositionTable table;
+    private final long[][] moveBuffers = new long[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final long[][] killers = new long[MAX_PLY][2];
+    // The keys of the game's positions before the root, then of the search's down to the current ply
+    private long[] keyStack = new long[MAX_PLY];
+    private int historyLength;
+    // The plies since the last capture or move of a man, by ply
+    private final int[] reversiblePlies = new int[MAX_PLY];
+
+    private SearchListener listener;
+    private Tablebase tablebase;
+    private volatile boolean stopped;
+    private long deadline;
+    private long nodes;
+
+    public SearchEngine() {
+        this(new Evaluator());
+    }
+
+    public SearchEngine(Evaluator evaluator) {
+        this(evaluator, new TranspositionTable(DEFAULT_TABLE_MB));
+    }
+
+    public SearchEngine(Evaluator evaluator, TranspositionTable table) {
+        this.evaluator = evaluator;
+        this.table = table;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    /**
+     * Sets a listener to be told about each completed iteration, or null for none.
+     */
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets an endgame tablebase to look up positions with few pieces in, or
+     * null for none. The tablebase may be shared between engines.
+     */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * @return The plies to the end of the forced win (positive) or loss
+     *         (negative) that a score announces, or 0 if it announces none.
+     */
+    public static int pliesToEnd(int score) {
+        if (Math.abs(score) < WIN - MAX_PLY) {
+            return 0;
+        }
+        return score > 0 ? WIN - score : -(WIN + score);
+    }
+
+    /**
+     * Asks a running search to return as soon as possible with the best move found so far.
+     * Safe to call from any thread.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Chooses a move for the current player of a game.
+     * @param game The game to move in.
+     * @param timeLimitMillis The hard time budget for this move.
+     * @return The chosen move and search statistics.
+     */
+    public SearchResult search(Game game, long timeLimitMillis) {
+        return search(game.getBoard(), game.getCurrentPlayer().getColor(), game.getRepetitionKeys(), MAX_PLY - 1,
+                timeLimitMillis);
+    }
+
+    /**
+     * Searches a position until the depth or time limit is reached, whichever comes first.
+     * The board is not modified.
+     * @param board The position to search.
+     * @param sideToMove The side to find a move for.
+     * @param maxDepth The deepest iteration to run.
+     * @param timeLimitMillis The hard time budget.
+     * @return The best move from the deepest completed iteration.
+     */
+    public SearchResult search(Board board, PieceColor sideToMove, int maxDepth, long timeLimitMillis) {
+        return search(board, sideToMove, NO_HISTORY, maxDepth, timeLimitMillis);
+    }
+
+    /**
+     * Searches a position reached in a game, scoring a return to one of the
+     * game's earlier positions as a draw.
+     * @param history The keys of the positions since the last capture or move
+     *                of a man, as from {@link Game#getRepetitionKeys()}.
+     * @see #search(Board, PieceColor, int, long)
+     */
+    public SearchResult search(Board board, PieceColor sideToMove, long[] history, int maxDepth,
+                               long timeLimitMillis) {
+        stopped = false;
+        return search(board, sideToMove, history, maxDepth, timeLimitMillis, 0);
+    }
+
+    /**
+     * Clears a pending stop request before the engine is handed to another thread.
+     */
+    void reset() {
+        stopped = false;
+    }
+
+    /**
+     * Runs a search without clearing a pending stop request.
+     * @param helper 0 for a standalone search, -1 for the main thread of a
+     *               parallel search whose caller has already started a new table
+     *               generation, or else the index of a helper thread. Helpers
+     *               do not start a new table generation, search every other
+     *               iteration one ply deeper and rotate the root moves, so the
+     *               threads spread over different parts of the tree.
+     */
+    SearchResult search(Board board, PieceColor sideToMove, long[] history, int maxDepth, long timeLimitMillis,
+                        int helper) {
+        long timer = Metrics.start();
+        SearchResult result = iterate(board, sideToMove, history, maxDepth, timeLimitMillis, helper);
+        Metrics.SEARCH.stop(timer);
+        if (timer != 0) {
+            Metrics.SEARCH_NODES.add(result.getNodes());
+        }
+        return result;
+    }
+
+    private SearchResult iterate(Board board, PieceColor sideToMove, long[] history, int maxDepth,
+                                 long timeLimitMillis, int helper) {
+        long start = System.nanoTime();
+        deadline = start + timeLimitMillis * 1_000_000L;
+        nodes = 0;
+
+        int own = board.getPieces(sideToMove);
+        int opponent = board.getPieces(sideToMove.opposite());
+        int kings = board.getKings();
+        boolean red = sideToMove == PieceColor.RED;
+        long key = red ? board.getKey() : board.getKey() ^ Zobrist.SIDE;
+        int material = evaluator.material(own, opponent, kings, red);
+        if (keyStack.length < history.length + MAX_PLY) {
+            keyStack = new long[history.length + MAX_PLY];
+        }
+        System.arraycopy(history, 0, keyStack, 0, history.length);
+        historyLength = history.length;
+        keyStack[historyLength] = key;
+        reversiblePlies[0] = history.length;
+        if (helper == 0) {
+            table.newSearch();
+        }
+
+        long[] rootMoves = new long[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(own, opponent, kings, red, rootMoves);
+        if (count == 0) {
+            return new SearchResult(0, -WIN, 0, 0, System.nanoTime() - start);
+        }
+
+        if (helper > 0) {
+            rotate(rootMoves, count, helper % count);
+        }
+
+        long bestMove = rootMoves[0];
+        int bestScore = 0;
+        int completedDepth = 0;
+        // A forced move needs no choosing, only a score
+        maxDepth = Math.min(maxDepth, count == 1 ? FORCED_MOVE_DEPTH : MAX_PLY - 1);
+        for (int iteration = 1; iteration <= maxDepth; iteration++) {
+            int depth = helper > 0 ? Math.min(iteration + (helper & 1), maxDepth) : iteration;
+            SearchIterationEvent event = new SearchIterationEvent();
+            event.begin();
+            int alpha = -INFINITY;
+            int beta = INFINITY;
+            if (depth >= 3) {
+                alpha = bestScore - ASPIRATION_WINDOW;
+                beta = bestScore + ASPIRATION_WINDOW;
+            }
+            int score;
+            while (true) {
+                score = searchRoot(rootMoves, count, own, opponent, kings, red, key, material, depth, alpha, beta);
+                if (stopped) {
+                    break;
+                }
+                // Fell outside the aspiration window: widen and search again
+                if (score <= alpha) {
+                    alpha = -INFINITY;
+                } else if (score >= beta) {
+                    beta = INFINITY;
+                } else {
+                    break;
+                }
+            }
+            if (stopped) {
+                break;
+            }
+            bestMove = rootMoves[0];
+            bestScore = score;
+            completedDepth = depth;
+            event.end();
+            if (event.shouldCommit()) {
+                event.depth = depth;
+                event.score = bestScore;
+                event.nodes = nodes;
+                event.helper = Math.max(helper, 0);
+                event.commit();
+            }
+            table.store(key, bestMove, TranspositionTable.scoreToTable(bestScore, 0), depth,
+                    TranspositionTable.EXACT);
+            if (listener != null) {
+                listener.iterationComplete(new SearchResult(bestMove, bestScore, depth, nodes,
+                        System.nanoTime() - start));
+            }
+            if (Math.abs(bestScore) >= WIN - MAX_PLY) {
+                break; // Forced win or loss found; deeper search will not change it
+            }
+        }
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Searches every root move and moves the best one to the front of the list,
+     * so the next iteration tries it first.
+     */
+    private int searchRoot(long[] moves, int count, int own, int opponent, int kings, boolean red, long key,
+                           int material, int depth, int alpha, int beta) {
+        int bestScore = -INFINITY;
+        for (int i = 0; i < count; i++) {
+            long move = moves[i];
+            int score = -searchChild(move, own, opponent, kings, red, key, material, depth - 1, -beta, -alpha, 1);
+            if (stopped) {
+                return bestScore;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    private int searchChild(long move, int own, int opponent, int kings, boolean red, long key, int material,
+                            int depth, int alpha, int beta, int ply) {
+        int from = 1 << PackedMove.from(move);
+        int to = 1 << PackedMove.to(move);
+        int captured = PackedMove.captured(move);
+        int newKings = kings & ~captured & ~from;
+        if ((kings & from) != 0 || PackedMove.isPromotion(move)) {
+            newKings |= to;
+        }
+        reversiblePlies[ply] = captured == 0 && (kings & from) != 0 ? reversiblePlies[ply - 1] + 1 : 0;
+        return negamax(opponent & ~captured, (own & ~from) | to, newKings, !red,
+                Zobrist.update(key, move, red, kings), -(material + evaluator.materialDelta(move, kings, red)),
+                depth, alpha, beta, ply);
+    }
+
+    private int negamax(int own, int opponent, int kings, boolean red, long key, int material, int depth,
+                        int alpha, int beta, int ply) {
+        if ((++nodes & TIME_CHECK_INTERVAL) == 0 && System.nanoTime() > deadline) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+        keyStack[historyLength + ply] = key;
+        // Only the same side can be to move, and two plies move a piece of each side
+        for (int back = 4; back <= reversiblePlies[ply]; back += 2) {
+            if (keyStack[historyLength + ply - back] == key) {
+                return 0;
+            }
+        }
+        if (tablebase != null && Integer.bitCount(own | opponent) <= tablebase.getMaxPieces()) {
+            int value = tablebase.probe(own, opponent, kings, red);
+            if (Tablebase.isWin(value)) {
+                return TABLEBASE_WIN - Tablebase.distance(value);
+            } else if (Tablebase.isLoss(value)) {
+                return -TABLEBASE_WIN + Tablebase.distance(value);
+            } else if (value == Tablebase.DRAW) {
+                return 0;
+            }
+        }
+
+        long[] moves = moveBuffers[ply];
+        long entry = 0;
+        int count;
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            // Captures are forced, so keep searching until the position is quiet
+            count = ply >= MAX_PLY - 1 ? 0 : MoveGenerator.generateJumps(own, opponent, kings, red, moves);
+            if (count == 0) {
+                if (Bitboards.movers(own, kings, ~(own | opponent), red) == 0) {
+                    return -WIN + ply;
+                }
+                return evaluator.evaluate(own, opponent, kings, red, material);
+            }
+        } else {
+            entry = table.probe(key);
+            if (entry != 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = TranspositionTable.scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+            count = MoveGenerator.generate(own, opponent, kings, red, moves);
+            if (count == 0) {
+                return -WIN + ply;
+            }
+            orderKillers(moves, count, ply);
+            if (entry != 0) {
+                orderTableMove(moves, count, entry);
+            }
+        }
+
+        int originalAlpha = alpha;
+        long bestMove = 0;
+        int bestScore = -INFINITY;
+        for (int i = 0; i < count; i++) {
+            long move = moves[i];
+            int score = -searchChild(move, own, opponent, kings, red, key, material, depth - 1, -beta, -alpha,
+                    ply + 1);
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        if (!PackedMove.isJump(move)) {
+                            storeKiller(move, ply);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        if (depth > 0) {
+            int bound = bestScore >= beta ? TranspositionTable.LOWER
+                    : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+            table.store(key, bestMove, TranspositionTable.scoreToTable(bestScore, ply), depth, bound);
+        }
+        return bestScore;
+    }
+
+    private static void rotate(long[] moves, int count, int distance) {
+        long[] copy = new long[count];
+        for (int i = 0; i < count; i++) {
+            copy[i] = moves[(i + distance) % count];
+        }
+        System.arraycopy(copy, 0, moves, 0, count);
+    }
+
+    private static void orderTableMove(long[] moves, int count, long entry) {
+        for (int i = 0; i < count; i++) {
+            if (TranspositionTable.sameMove(entry, moves[i])) {
+                long move = moves[i];
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+
+    private void orderKillers(long[] moves, int count, int ply) {
+        int next = 0;
+        for (long killer : killers[ply]) {
+            for (int i = next; i < count; i++) {
+                if (moves[i] == killer) {
+                    moves[i] = moves[next];
+                    moves[next++] = killer;
+                    break;
+                }
+            }
+        }
+    }
+
+    private void storeKiller(long move, int ply) {
+        long[] slots = killers[ply];
+        if (slots[0] != move) {
+            slots[1] = slots[0];
+            slots[0] = move;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package checkers.engine;
+
+/**
+ * Receives progress reports from a running search.
+ */
+@FunctionalInterface
+public interface SearchListener {
+
+    /**
+     * Called on the searching thread after each completed iteration.
+     * @param result The best move and statistics so far.
+     */
+    void iterationComplete(SearchResult result);
+}
@@ -0,0 +1,77 @@
+package checkers.engine;
+
+import checkers.model.Move;
+import checkers.model.PackedMove;
+
+/**
+ * The outcome of a search: the chosen move and statistics about the search
+ * that produced it.
+ */
+public class SearchResult {
+    private final long bestMove;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long elapsedNanos;
+
+    public SearchResult(long bestMove, int score, int depth, long nodes, long elapsedNanos) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return The best move as a {@link PackedMove} value, or 0 if there was no legal move.
+     */
+    public long getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * @return The best move as a {@link Move}, or null if there was no legal move.
+     */
+    public Move getMove() {
+        return bestMove == 0 ? null : PackedMove.toMove(bestMove);
+    }
+
+    /**
+     * @return The score in hundredths of a man, from the point of view of the side to move.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return The deepest fully completed iteration, or 0 if none completed
+     *         because there was no legal move or the time ran out first; the
+     *         score is then not the result of a search. A single legal move
+     *         is searched to a shallow depth to give it a score.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return Nodes searched per second.
+     */
+    public long getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "depth " + depth + " score " + score + " nodes " + nodes
+                + " time " + elapsedNanos / 1_000_000 + "ms nps " + getNodesPerSecond()
+                + " move " + PackedMove.toString(bestMove);
+    }
+}
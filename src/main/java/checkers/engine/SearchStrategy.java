@@ -0,0 +1,70 @@
+package checkers.engine;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import checkers.model.Game;
+import checkers.model.Move;
+
+/**
+ * Plays the best move found by a {@link SearchEngine} within a depth or time limit,
+ * or a move from an {@link OpeningBook} while the game is still in the book.
+ */
+public class SearchStrategy implements MoveStrategy {
+
+    /** Time limit used when only the depth is limited. */
+    private static final long NO_TIME_LIMIT = TimeUnit.DAYS.toMillis(1);
+
+    private final SearchEngine engine;
+    private final int maxDepth;
+    private final long timeLimitMillis;
+    private OpeningBook book;
+    private Random random;
+
+    /**
+     * @param engine The engine to search with; it is used only by this strategy.
+     * @param maxDepth The deepest iteration to run.
+     * @param timeLimitMillis The time budget per move.
+     */
+    public SearchStrategy(SearchEngine engine, int maxDepth, long timeLimitMillis) {
+        this.engine = engine;
+        this.maxDepth = maxDepth;
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    /**
+     * Creates a strategy that searches to a fixed depth, which makes its play
+     * independent of machine speed and load.
+     */
+    public static SearchStrategy fixedDepth(SearchEngine engine, int depth) {
+        return new SearchStrategy(engine, depth, NO_TIME_LIMIT);
+    }
+
+    /**
+     * Creates a strategy that searches as deep as it can in a fixed time per move.
+     */
+    public static SearchStrategy fixedTime(SearchEngine engine, long timeLimitMillis) {
+        return new SearchStrategy(engine, SearchEngine.MAX_PLY - 1, timeLimitMillis);
+    }
+
+    /**
+     * Sets a book to play from before searching, or null for none.
+     * @param random Picks among the book moves of a position.
+     */
+    public void setOpeningBook(OpeningBook book, Random random) {
+        this.book = book;
+        this.random = random;
+    }
+
+    @Override
+    public Move chooseMove(Game game) {
+        if (book != null) {
+            Move move = book.choose(game, random);
+            if (move != null) {
+                return move;
+            }
+        }
+        return engine.search(game.getBoard(), game.getCurrentPlayer().getColor(), game.getRepetitionKeys(), maxDepth,
+                timeLimitMillis).getMove();
+    }
+}
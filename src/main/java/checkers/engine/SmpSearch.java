@@ -0,0 +1,169 @@
+package checkers.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import checkers.model.Board;
+import checkers.model.Game;
+import checkers.model.PieceColor;
+
+/**
+ * Lazy SMP: several threads search the same root position at once, sharing
+ * one {@link TranspositionTable}.
+ * <p>
+ * The calling thread runs the main search and its result is the one returned.
+ * Helper threads search with slightly different depths and move orders; they
+ * only contribute by filling the shared table, which lets the main search cut
+ * off earlier. When the main search finishes the helpers are stopped.
+ */
+public class SmpSearch implements AutoCloseable {
+
+    private final SearchEngine[] engines;
+    private final ExecutorService helpers;
+    private final long[] threadNodes;
+
+    /**
+     * Creates a parallel search.
+     * @param threads The total number of searching threads, including the caller's.
+     * @param tableMegabytes The size of the shared transposition table.
+     */
+    public SmpSearch(int threads, int tableMegabytes) {
+        this(threads, new Evaluator(), new TranspositionTable(tableMegabytes));
+    }
+
+    public SmpSearch(int threads, Evaluator evaluator, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one search thread is required.");
+        }
+        engines = new SearchEngine[threads];
+        for (int i = 0; i < threads; i++) {
+            engines[i] = new SearchEngine(evaluator, table);
+        }
+        threadNodes = new long[threads];
+        helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "smp-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getThreadCount() {
+        return engines.length;
+    }
+
+    /**
+     * Sets a listener for the main search's iterations, or null for none.
+     */
+    public void setListener(SearchListener listener) {
+        engines[0].setListener(listener);
+    }
+
+    /**
+     * Sets an endgame tablebase for every thread, or null for none.
+     */
+    public void setTablebase(Tablebase tablebase) {
+        for (SearchEngine engine : engines) {
+            engine.setTablebase(tablebase);
+        }
+    }
+
+    /**
+     * Stops every thread of a running search. Safe to call from any thread.
+     */
+    public void stop() {
+        for (SearchEngine engine : engines) {
+            engine.stop();
+        }
+    }
+
+    /**
+     * Chooses a move for the current player of a game.
+     */
+    public SearchResult search(Game game, long timeLimitMillis) {
+        return search(game.getBoard(), game.getCurrentPlayer().getColor(), game.getRepetitionKeys(),
+                SearchEngine.MAX_PLY - 1, timeLimitMillis);
+    }
+
+    /**
+     * Searches a position on all threads. The board must not change until the search returns.
+     * @return The main thread's result, with the node count summed over all threads.
+     */
+    public SearchResult search(Board board, PieceColor sideToMove, int maxDepth, long timeLimitMillis) {
+        return search(board, sideToMove, new long[0], maxDepth, timeLimitMillis);
+    }
+
+    /**
+     * Searches a position reached in a game on all threads, scoring a return
+     * to one of the game's earlier positions as a draw.
+     * @param history The keys of the positions since the last capture or move
+     *                of a man, as from {@link Game#getRepetitionKeys()}.
+     * @see #search(Board, PieceColor, int, long)
+     */
+    public SearchResult search(Board board, PieceColor sideToMove, long[] history, int maxDepth,
+                               long timeLimitMillis) {
+        long start = System.nanoTime();
+        List<Future<SearchResult>> futures = new ArrayList<>(engines.length - 1);
+        for (SearchEngine engine : engines) {
+            engine.reset();
+        }
+        // Start the main search's table generation before the helpers write to it
+        engines[0].getTranspositionTable().newSearch();
+        for (int i = 1; i < engines.length; i++) {
+            SearchEngine engine = engines[i];
+            int helper = i;
+            futures.add(helpers.submit(() -> engine.search(board, sideToMove, history, maxDepth,
+                    timeLimitMillis, helper)));
+        }
+
+        SearchResult main = engines[0].search(board, sideToMove, history, maxDepth, timeLimitMillis, -1);
+        threadNodes[0] = main.getNodes();
+        long nodes = main.getNodes();
+        for (int i = 1; i < engines.length; i++) {
+            engines[i].stop();
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                threadNodes[i + 1] = futures.get(i).get().getNodes();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                threadNodes[i + 1] = 0;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Helper search failed", e.getCause());
+            }
+            nodes += threadNodes[i + 1];
+        }
+        return new SearchResult(main.getBestMove(), main.getScore(), main.getDepth(), nodes,
+                System.nanoTime() - start);
+    }
+
+    /**
+     * @return The nodes searched by each thread in the last search; index 0 is the main thread.
+     */
+    public long[] getThreadNodes() {
+        return threadNodes.clone();
+    }
+
+    /**
+     * Measures how well the last search scaled.
+     * @param singleThreadNps The nodes per second of a single-threaded search of the same position.
+     * @return The last search's nodes per second per thread, as a fraction of {@code singleThreadNps}.
+     */
+    public double getScalingEfficiency(SearchResult last, long singleThreadNps) {
+        if (singleThreadNps == 0) {
+            return 0;
+        }
+        return (double) last.getNodesPerSecond() / engines.length / singleThreadNps;
+    }
+
+    @Override
+    public void close() {
+        stop();
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package checkers.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import checkers.model.Bitboards;
+import checkers.model.CheckersException;
+
+/**
+ * Exact win/loss/draw results, with the distance to the next capture or
+ * crowning, for positions with few pieces, read from files made by
+ * {@link TablebaseGenerator}.
+ * <p>
+ * There is one file per material signature: the numbers of red men, red kings,
+ * black men and black kings, with red to move. Positions with black to move are
+ * looked up with the board turned around and the colors swapped. Within a file
+ * each position has one byte, at an index computed from the squares of each
+ * kind of piece (see {@link #index}), so a probe is a few arithmetic operations
+ * and one read from a memory-mapped file.
+ * <p>
+ * Values follow the engine's rules: captures are mandatory, a man that is
+ * crowned ends its move, and a side with no moves loses. Distances are in plies
+ * to the next capture or crowning that keeps the result (or to the end of the
+ * game), so the winning side makes progress by always lowering the distance.
+ */
+public class Tablebase implements Closeable {
+
+    /** The position is not in the tablebase. */
+    public static final int UNKNOWN = 0;
+    /** The position is drawn with best play. */
+    public static final int DRAW = 1;
+
+    /** The longest distance that fits in a value. */
+    static final int MAX_DISTANCE = 126;
+
+    static final int MAGIC = 'C' | 'K' << 8 | 'T' << 16 | 'B' << 24;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final String SUFFIX = ".cktb";
+
+    /** Squares a man of the side to move can stand on (a man in row 0 would be a king). */
+    static final int MEN_SQUARES = 28;
+    static final int KING_SQUARES = 32;
+
+    static final long[][] BINOMIAL = new long[33][13];
+
+    static {
+        for (int n = 0; n <= 32; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, 12); k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+            }
+        }
+    }
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private final Arena arena;
+    private final MemorySegment[] tables = new MemorySegment[1 << 16];
+    private int maxPieces;
+
+    private Tablebase(Arena arena) {
+        this.arena = arena;
+    }
+
+    /**
+     * Maps every table file in a directory.
+     * @throws CheckersException if a file is not a valid table.
+     */
+    public static Tablebase open(Path directory) throws IOException, CheckersException {
+        Tablebase tablebase = new Tablebase(Arena.ofShared());
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                tablebase.map(file);
+            }
+        } catch (IOException | CheckersException | RuntimeException e) {
+            tablebase.close();
+            throw e;
+        }
+        return tablebase;
+    }
+
+    private void map(Path file) throws IOException, CheckersException {
+        MemorySegment table;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            table = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+        }
+        if (table.byteSize() < HEADER_SIZE || table.get(INT, 0) != MAGIC || table.get(SHORT, 4) != VERSION) {
+            throw new CheckersException("Not a tablebase file: " + file);
+        }
+        int redMen = table.get(ValueLayout.JAVA_BYTE, 8);
+        int redKings = table.get(ValueLayout.JAVA_BYTE, 9);
+        int blackMen = table.get(ValueLayout.JAVA_BYTE, 10);
+        int blackKings = table.get(ValueLayout.JAVA_BYTE, 11);
+        if (table.byteSize() != HEADER_SIZE + size(redMen, redKings, blackMen, blackKings)) {
+            throw new CheckersException("Tablebase file has the wrong size: " + file);
+        }
+        tables[signature(redMen, redKings, blackMen, blackKings)] = table.asSlice(HEADER_SIZE);
+        maxPieces = Math.max(maxPieces, redMen + redKings + blackMen + blackKings);
+    }
+
+    /**
+     * @return The most pieces of any position in the tablebase.
+     */
+    public int getMaxPieces() {
+        return maxPieces;
+    }
+
+    /**
+     * Looks up a position.
+     * @param own The pieces of the side to move.
+     * @param opponent The other side's pieces.
+     * @param kings All kings on the board.
+     * @param red True if the side to move is red.
+     * @return {@link #UNKNOWN}, {@link #DRAW} or a win or loss for the side to move;
+     *         see {@link #isWin}, {@link #isLoss} and {@link #distance}.
+     */
+    public int probe(int own, int opponent, int kings, boolean red) {
+        if (!red) {
+            own = Integer.reverse(own);
+            opponent = Integer.reverse(opponent);
+            kings = Integer.reverse(kings);
+        }
+        if (own == 0) {
+            return loss(0);
+        }
+        int redMen = own & ~kings;
+        int redKings = own & kings;
+        int blackMen = opponent & ~kings;
+        int blackKings = opponent & kings;
+        if (opponent == 0 || (redMen & Bitboards.TOP_ROW) != 0 || (blackMen & Bitboards.BOTTOM_ROW) != 0) {
+            return UNKNOWN;
+        }
+        MemorySegment table = tables[signature(Integer.bitCount(redMen), Integer.bitCount(redKings),
+                Integer.bitCount(blackMen), Integer.bitCount(blackKings))];
+        if (table == null) {
+            return UNKNOWN;
+        }
+        return table.get(ValueLayout.JAVA_BYTE, index(redMen, redKings, blackMen, blackKings)) & 0xFF;
+    }
+
+    public static boolean isWin(int value) {
+        return value > DRAW && (value & 1) == 0;
+    }
+
+    public static boolean isLoss(int value) {
+        return value > DRAW && (value & 1) != 0;
+    }
+
+    /**
+     * @return The number of plies to the next capture or crowning, or to the
+     *         end of the game, for a win or a loss.
+     */
+    public static int distance(int value) {
+        return (value - 2) >> 1;
+    }
+
+    static int win(int distance) {
+        return 2 + 2 * distance;
+    }
+
+    static int loss(int distance) {
+        return 3 + 2 * distance;
+    }
+
+    /**
+     * @return The key of a material signature in the table array.
+     */
+    static int signature(int redMen, int redKings, int blackMen, int blackKings) {
+        return redMen << 12 | redKings << 8 | blackMen << 4 | blackKings;
+    }
+
+    /**
+     * @return The number of positions in a signature's table, including
+     *         placements where pieces overlap, which are never probed.
+     */
+    static long size(int redMen, int redKings, int blackMen, int blackKings) {
+        return BINOMIAL[MEN_SQUARES][redMen] * BINOMIAL[KING_SQUARES][redKings]
+                * BINOMIAL[MEN_SQUARES][blackMen] * BINOMIAL[KING_SQUARES][blackKings];
+    }
+
+    /**
+     * Ranks each kind of piece among the squares it can stand on and combines
+     * the ranks into one index, red to move. Red men never stand in row 0 and
+     * black men never in row 7, so both are ranked among 28 squares.
+     */
+    static long index(int redMen, int redKings, int blackMen, int blackKings) {
+        long index = rank(redMen >>> 4);
+        index = index * BINOMIAL[KING_SQUARES][Integer.bitCount(redKings)] + rank(redKings);
+        index = index * BINOMIAL[MEN_SQUARES][Integer.bitCount(blackMen)] + rank(blackMen);
+        return index * BINOMIAL[KING_SQUARES][Integer.bitCount(blackKings)] + rank(blackKings);
+    }
+
+    /**
+     * @return The position of a set of squares among all sets of the same
+     *         size, in colexicographic order.
+     */
+    static long rank(int squares) {
+        long rank = 0;
+        int k = 1;
+        for (int mask = squares; mask != 0; mask &= mask - 1) {
+            rank += BINOMIAL[Integer.numberOfTrailingZeros(mask)][k++];
+        }
+        return rank;
+    }
+
+    /**
+     * Unmaps the files. The tablebase must not be probed afterwards.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
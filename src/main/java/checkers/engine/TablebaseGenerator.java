@@ -0,0 +1,315 @@
+package checkers.engine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import checkers.model.MoveGenerator;
+import checkers.model.PackedMove;
+
+/**
+ * Builds the {@link Tablebase} files for every position with up to a given
+ * number of pieces.
+ * <p>
+ * Material signatures are solved in order of the number of pieces and then
+ * the number of men, because a move either keeps the material (a signature and
+ * its color-swapped twin, solved together), crowns a man or captures. Every
+ * signature a move can lead to is therefore finished before it is needed, and
+ * the signatures of one step run in parallel.
+ * <p>
+ * Within a signature the results are found one distance at a time, counting
+ * plies to the next capture or crowning: in pass {@code d} a position becomes
+ * a win in {@code d} if some move leads to a loss in {@code d - 1}, and a loss
+ * in {@code d} if every move leads to a win and the longest of those is
+ * {@code d - 1}. A capture or crowning counts as a move to distance 0, whatever
+ * its result's own distance, since its table is already finished. Positions
+ * still open when a pass settles nothing are draws. The finished tables stay
+ * in memory until the run ends, since larger signatures look them up.
+ */
+public class TablebaseGenerator {
+
+    /**
+     * Each table is one array indexed by an int; from seven pieces the
+     * largest signatures have more positions than that can address.
+     */
+    public static final int MAX_PIECES = 6;
+
+    private final int maxPieces;
+    private final int threads;
+    private final byte[][] tables = new byte[1 << 16][];
+    private Consumer<String> log = message -> { };
+
+    /**
+     * @param maxPieces The most pieces, of both sides together, to solve.
+     * @param threads The number of signatures to solve at once.
+     */
+    public TablebaseGenerator(int maxPieces, int threads) {
+        if (maxPieces < 2 || maxPieces > MAX_PIECES) {
+            throw new IllegalArgumentException("Pieces must be between 2 and " + MAX_PIECES + ": " + maxPieces);
+        }
+        this.maxPieces = maxPieces;
+        this.threads = threads;
+    }
+
+    /**
+     * Sets where to report each finished signature.
+     */
+    public void setLog(Consumer<String> log) {
+        this.log = log;
+    }
+
+    /**
+     * Solves every signature and writes one file per signature.
+     * @param directory The directory to write to; it is created if needed.
+     */
+    public void generate(Path directory) throws IOException, InterruptedException {
+        Files.createDirectories(directory);
+        // Steps in solving order: pieces * 16 + men
+        TreeMap<Integer, List<int[]>> steps = new TreeMap<>();
+        for (int redMen = 0; redMen <= maxPieces; redMen++) {
+            for (int redKings = 0; redMen + redKings <= maxPieces; redKings++) {
+                for (int blackMen = 0; redMen + redKings + blackMen <= maxPieces; blackMen++) {
+                    for (int blackKings = 0; redMen + redKings + blackMen + blackKings <= maxPieces; blackKings++) {
+                        if (redMen + redKings == 0 || blackMen + blackKings == 0
+                                || Tablebase.signature(redMen, redKings, blackMen, blackKings)
+                                > Tablebase.signature(blackMen, blackKings, redMen, redKings)) {
+                            continue; // Solved with its twin
+                        }
+                        int pieces = redMen + redKings + blackMen + blackKings;
+                        steps.computeIfAbsent(pieces * 16 + redMen + blackMen, step -> new ArrayList<>())
+                                .add(new int[] {redMen, redKings, blackMen, blackKings});
+                    }
+                }
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (List<int[]> step : steps.values()) {
+                pool.submit(() -> step.parallelStream().forEach(signature -> {
+                    try {
+                        solve(signature[0], signature[1], signature[2], signature[3], directory);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })).get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Solves a signature together with its color-swapped twin and writes both.
+     */
+    private void solve(int redMen, int redKings, int blackMen, int blackKings, Path directory) throws IOException {
+        long start = System.nanoTime();
+        int first = Tablebase.signature(redMen, redKings, blackMen, blackKings);
+        int twin = Tablebase.signature(blackMen, blackKings, redMen, redKings);
+        tables[first] = newTable(Tablebase.size(redMen, redKings, blackMen, blackKings));
+        tables[twin] = first == twin ? tables[first] : newTable(Tablebase.size(blackMen, blackKings, redMen,
+                redKings));
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+
+        int distance = 0;
+        int changed;
+        do {
+            if (distance > Tablebase.MAX_DISTANCE) {
+                throw new IllegalStateException("Distances longer than " + Tablebase.MAX_DISTANCE + " plies");
+            }
+            changed = pass(distance, redMen, redKings, blackMen, blackKings, moves);
+            if (first != twin) {
+                changed += pass(distance, blackMen, blackKings, redMen, redKings, moves);
+            }
+            distance++;
+            // Pass 1 settles the captures and crownings even if pass 0 settled nothing
+        } while (changed > 0 || distance == 1);
+        int longest = finish(tables[first]);
+        if (first != twin) {
+            longest = Math.max(longest, finish(tables[twin]));
+        }
+
+        write(directory, redMen, redKings, blackMen, blackKings, longest);
+        if (first != twin) {
+            write(directory, blackMen, blackKings, redMen, redKings, longest);
+        }
+        log.accept(String.format("%s%s  %,d positions  longest %d plies  %.1f s", name(redMen, redKings, blackMen,
+                blackKings), first != twin ? " + " + name(blackMen, blackKings, redMen, redKings) : "",
+                tables[first].length + (first != twin ? tables[twin].length : 0), longest,
+                (System.nanoTime() - start) / 1e9));
+    }
+
+    /**
+     * Visits every open position of a signature and settles those decided at
+     * the given distance. Pass 0 finds the positions with no moves.
+     * @return The number of positions settled.
+     */
+    private int pass(int distance, int redMen, int redKings, int blackMen, int blackKings, long[] moves) {
+        byte[] table = tables[Tablebase.signature(redMen, redKings, blackMen, blackKings)];
+        int pieces = redMen + redKings + blackMen + blackKings;
+        int[] redMenSquares = combinations(Tablebase.MEN_SQUARES, redMen);
+        int[] redKingSquares = combinations(Tablebase.KING_SQUARES, redKings);
+        int[] blackMenSquares = combinations(Tablebase.MEN_SQUARES, blackMen);
+        int[] blackKingSquares = combinations(Tablebase.KING_SQUARES, blackKings);
+        int settled = 0;
+        // The loops run in index order, see Tablebase.index
+        int index = 0;
+        for (int rm : redMenSquares) {
+            for (int rk : redKingSquares) {
+                int red = rm << 4 | rk;
+                for (int bm : blackMenSquares) {
+                    for (int bk : blackKingSquares) {
+                        int black = bm | bk;
+                        if (table[index] == 0 && Integer.bitCount(red | black) == pieces) {
+                            int value = evaluate(red, black, rk | bk, distance, moves);
+                            if (value != 0) {
+                                table[index] = (byte) value;
+                                settled++;
+                            }
+                        }
+                        index++;
+                    }
+                }
+            }
+        }
+        return settled;
+    }
+
+    /**
+     * @return Every set of k of the lowest n squares, in the colexicographic
+     *         order of {@link Tablebase#rank}.
+     */
+    static int[] combinations(int n, int k) {
+        int[] sets = new int[(int) Tablebase.BINOMIAL[n][k]];
+        if (k == 0) {
+            return sets;
+        }
+        long set = (1L << k) - 1;
+        for (int i = 0; i < sets.length; i++) {
+            sets[i] = (int) set;
+            // Next larger number with the same number of bits set
+            long lowest = set & -set;
+            long ripple = set + lowest;
+            set = (((ripple ^ set) >>> 2) / lowest) | ripple;
+        }
+        return sets;
+    }
+
+    /**
+     * @return The value of a position, red to move, if it is decided at the
+     *         given distance, or else 0.
+     */
+    private int evaluate(int red, int black, int kings, int distance, long[] moves) {
+        int count = MoveGenerator.generate(red, black, kings, true, moves);
+        if (distance == 0) {
+            return count == 0 ? Tablebase.loss(0) : 0;
+        }
+        int shortestLoss = Integer.MAX_VALUE;
+        int longestWin = -1;
+        boolean allWin = true;
+        for (int i = 0; i < count; i++) {
+            long move = moves[i];
+            int from = 1 << PackedMove.from(move);
+            int to = 1 << PackedMove.to(move);
+            int captured = PackedMove.captured(move);
+            int newKings = kings & ~captured & ~from;
+            if ((kings & from) != 0 || PackedMove.isPromotion(move)) {
+                newKings |= to;
+            }
+            // Black to move: turn the board around so black plays as red
+            int value = lookup(Integer.reverse(black & ~captured), Integer.reverse((red & ~from) | to),
+                    Integer.reverse(newKings));
+            boolean conversion = captured != 0 || PackedMove.isPromotion(move);
+            if (Tablebase.isLoss(value)) {
+                shortestLoss = Math.min(shortestLoss, conversion ? 0 : Tablebase.distance(value));
+            } else if (Tablebase.isWin(value)) {
+                longestWin = Math.max(longestWin, conversion ? 0 : Tablebase.distance(value));
+            } else {
+                allWin = false;
+            }
+        }
+        if (shortestLoss + 1 == distance) {
+            return Tablebase.win(distance);
+        }
+        if (shortestLoss == Integer.MAX_VALUE && allWin && longestWin + 1 == distance) {
+            return Tablebase.loss(distance);
+        }
+        return 0;
+    }
+
+    /**
+     * @return The current value of a position with red to move; 0 if it is still open.
+     */
+    private int lookup(int red, int black, int kings) {
+        if (red == 0) {
+            return Tablebase.loss(0);
+        }
+        int redMen = red & ~kings;
+        int redKings = red & kings;
+        int blackMen = black & ~kings;
+        int blackKings = black & kings;
+        byte[] table = tables[Tablebase.signature(Integer.bitCount(redMen), Integer.bitCount(redKings),
+                Integer.bitCount(blackMen), Integer.bitCount(blackKings))];
+        return table[(int) Tablebase.index(redMen, redKings, blackMen, blackKings)] & 0xFF;
+    }
+
+    private static byte[] newTable(long size) {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("A table of " + size + " positions does not fit in an array");
+        }
+        return new byte[(int) size];
+    }
+
+    /**
+     * Marks the positions that are still open as draws.
+     * @return The longest distance in the table.
+     */
+    private static int finish(byte[] table) {
+        int longest = 0;
+        for (int i = 0; i < table.length; i++) {
+            int value = table[i] & 0xFF;
+            if (value == 0) {
+                table[i] = Tablebase.DRAW;
+            } else {
+                longest = Math.max(longest, Tablebase.distance(value));
+            }
+        }
+        return longest;
+    }
+
+    private void write(Path directory, int redMen, int redKings, int blackMen, int blackKings, int longest)
+            throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(Tablebase.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(Tablebase.MAGIC).putShort(Tablebase.VERSION).putShort((short) longest)
+                .put((byte) redMen).put((byte) redKings).put((byte) blackMen).put((byte) blackKings)
+                .putInt(0).flip();
+        ByteBuffer data = ByteBuffer.wrap(tables[Tablebase.signature(redMen, redKings, blackMen, blackKings)]);
+        Path file = directory.resolve(name(redMen, redKings, blackMen, blackKings) + Tablebase.SUFFIX);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining() || data.hasRemaining()) {
+                channel.write(new ByteBuffer[] {header, data});
+            }
+        }
+    }
+
+    private static String name(int redMen, int redKings, int blackMen, int blackKings) {
+        return "" + redMen + redKings + blackMen + blackKings;
+    }
+}
@@ -0,0 +1,156 @@
+package checkers.engine;
+
+import java.util.Arrays;
+
+import checkers.model.PackedMove;
+
+/**
+ * A fixed-size hash table of search results keyed by Zobrist key, safe to
+ * share between search threads without locking.
+ * <p>
+ * Each entry is two {@code long}s in one flat array: the key XORed with the
+ * data, then the data. A reader recomputes {@code stored ^ data} and only
+ * trusts the entry if that equals its key, so an entry torn by a concurrent
+ * write is simply treated as a miss. Data layout:
+ * <pre>
+ *  bits  0-14  move origin, destination and first hop (low bits of a {@link PackedMove})
+ *  bits 15-16  bound type
+ *  bits 17-23  depth
+ *  bits 24-31  search generation
+ *  bits 32-63  score
+ * </pre>
+ * A slot is overwritten when the new result is at least as deep as the one
+ * stored there, or when the stored one is left over from an earlier search.
+ */
+public class TranspositionTable {
+
+    /** The score is exact. */
+    public static final int EXACT = 1;
+    /** The score is a lower bound (the search failed high). */
+    public static final int LOWER = 2;
+    /** The score is an upper bound (the search failed low). */
+    public static final int UPPER = 3;
+
+    private static final int MOVE_BITS = 0x7FFF;
+
+    private final long[] table;
+    private final int mask;
+    private volatile int generation;
+
+    /**
+     * Creates a table using roughly the given amount of memory,
+     * rounded down to a power-of-two number of entries.
+     */
+    public TranspositionTable(int megabytes) {
+        long entries = Long.highestOneBit(Math.max(1L, (long) megabytes << 20) / 16);
+        if (entries > 1 << 29) {
+            entries = 1 << 29;
+        }
+        this.table = new long[(int) entries * 2];
+        this.mask = (int) entries - 1;
+    }
+
+    /**
+     * Marks the start of a new search, so entries from earlier searches can be replaced.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+    }
+
+    /**
+     * Looks up a position.
+     * @return the entry's data, or 0 if the position is not stored.
+     */
+    public long probe(long key) {
+        int index = ((int) key & mask) << 1;
+        long data = table[index + 1];
+        if ((table[index] ^ data) != key || data == 0) {
+            return 0;
+        }
+        return data;
+    }
+
+    /**
+     * Stores a search result.
+     * @param key The position's key.
+     * @param move The best move found, or 0.
+     * @param score The score, already adjusted with {@link #scoreToTable}.
+     * @param depth The remaining depth the score was searched to.
+     * @param bound {@link #EXACT}, {@link #LOWER} or {@link #UPPER}.
+     */
+    public void store(long key, long move, int score, int depth, int bound) {
+        int index = ((int) key & mask) << 1;
+        long old = table[index + 1];
+        if (old != 0 && (table[index] ^ old) != key
+                && generation(old) == generation && depth(old) > depth) {
+            return; // Keep the deeper result from this search
+        }
+        long data = (move & MOVE_BITS)
+                | ((long) bound << 15)
+                | ((long) Math.min(depth, 127) << 17)
+                | ((long) generation << 24)
+                | ((long) score << 32);
+        table[index] = key ^ data;
+        table[index + 1] = data;
+    }
+
+    // --- Entry accessors ---
+
+    /**
+     * @return the low bits of the stored move; compare with {@link #sameMove}.
+     */
+    public static int move(long data) {
+        return (int) data & MOVE_BITS;
+    }
+
+    public static boolean sameMove(long data, long packedMove) {
+        return move(data) != 0 && move(data) == ((int) packedMove & MOVE_BITS);
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> 15) & 3;
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> 17) & 0x7F;
+    }
+
+    public static int score(long data) {
+        return (int) (data >>> 32);
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> 24) & 0xFF;
+    }
+
+    /**
+     * Converts a win or loss score from "plies from the root" to "plies from this node"
+     * before storing it, so it stays correct when reached at a different ply.
+     */
+    public static int scoreToTable(int score, int ply) {
+        if (score >= SearchEngine.WIN - SearchEngine.MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -SearchEngine.WIN + SearchEngine.MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * Reverses {@link #scoreToTable} for a node at the given ply.
+     */
+    public static int scoreFromTable(int score, int ply) {
+        if (score >= SearchEngine.WIN - SearchEngine.MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -SearchEngine.WIN + SearchEngine.MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+}
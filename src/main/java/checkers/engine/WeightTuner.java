@@ -0,0 +1,272 @@
+package checkers.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import checkers.model.Bitboards;
+import checkers.model.CheckersException;
+import checkers.model.Game;
+import checkers.model.GameState;
+import checkers.model.Move;
+import checkers.model.PieceColor;
+import checkers.model.Player;
+
+/**
+ * Tunes {@link EvaluationWeights} against the results of recorded games, in
+ * the manner of the Texel method.
+ * <p>
+ * Every quiet position of the games is kept with the result of its game for
+ * the side to move: a win, draw or loss. The static evaluation, scaled by a
+ * constant and put through the logistic function, is read as the chance of
+ * winning, and the tuner looks for the weights that minimise the log loss of
+ * those chances against the results. The evaluation is the engine's own, so
+ * the weights found are the ones the engine should play with.
+ * <p>
+ * A position takes 13 bytes, held in parallel arrays of masks; the loss is
+ * summed over chunks of them as fork-join tasks. The man's weight is the unit
+ * of the scores and is left as it is.
+ */
+public class WeightTuner {
+
+    /** Positions evaluated by one task before it stops splitting. */
+    static final int CHUNK = 8192;
+
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    // The result for the side to move, in half points, is kept above the side bit
+    private static final int RED_TO_MOVE = 1;
+    private static final double EPSILON = 1e-12;
+
+    /**
+     * Receives progress reports from {@link #tune}.
+     */
+    @FunctionalInterface
+    public interface TuneListener {
+
+        /**
+         * Called after each pass over the weights.
+         * @param pass The number of passes done, from 1.
+         * @param loss The mean loss with the best weights so far.
+         * @param weights The best weights so far.
+         */
+        void passComplete(int pass, double loss, EvaluationWeights weights);
+    }
+
+    private final int skipPlies;
+    private final Game scratch = new Game(new Player("Red", PieceColor.RED), new Player("Black", PieceColor.BLACK));
+    private int[] own = new int[INITIAL_CAPACITY];
+    private int[] opponent = new int[INITIAL_CAPACITY];
+    private int[] kings = new int[INITIAL_CAPACITY];
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    private int size;
+    private long evaluations;
+
+    /**
+     * @param skipPlies The number of opening plies of each game to leave out,
+     *                  since their positions say little about the result.
+     */
+    public WeightTuner(int skipPlies) {
+        this.skipPlies = skipPlies;
+    }
+
+    /**
+     * @return The number of positions collected.
+     */
+    public int getPositionCount() {
+        return size;
+    }
+
+    /**
+     * @return The number of times the loss has been computed over all positions.
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Adds the quiet positions of a game: those where the side to move has no
+     * capture, so the static evaluation stands without a search.
+     * @param game A game; only its start position and moves are used.
+     * @param result How the game ended.
+     * @return false if the result is not known and the game was left out.
+     */
+    public boolean add(Game game, GameState result) {
+        if (result != GameState.RED_WINS && result != GameState.BLACK_WINS && result != GameState.DRAW) {
+            return false;
+        }
+        try {
+            scratch.startGame(game.getStartPosition());
+        } catch (CheckersException e) {
+            // The game's own start position is always valid
+            throw new IllegalStateException(e);
+        }
+        int ply = 0;
+        for (Move move : game.getMoveHistory()) {
+            if (ply++ >= skipPlies) {
+                PieceColor mover = scratch.getCurrentPlayer().getColor();
+                boolean red = mover == PieceColor.RED;
+                int ownPieces = scratch.getBoard().getPieces(mover);
+                int opponentPieces = scratch.getBoard().getPieces(mover.opposite());
+                int kingMask = scratch.getBoard().getKings();
+                if (Bitboards.jumpers(ownPieces, opponentPieces, kingMask, ~(ownPieces | opponentPieces), red) == 0) {
+                    int points = result == GameState.DRAW ? 1 : (result == GameState.RED_WINS) == red ? 2 : 0;
+                    addPosition(ownPieces, opponentPieces, kingMask, points << 1 | (red ? RED_TO_MOVE : 0));
+                }
+            }
+            scratch.makeMove(move, false);
+        }
+        return true;
+    }
+
+    private void addPosition(int ownPieces, int opponentPieces, int kingMask, int flag) {
+        if (size == own.length) {
+            int capacity = size * 2;
+            own = Arrays.copyOf(own, capacity);
+            opponent = Arrays.copyOf(opponent, capacity);
+            kings = Arrays.copyOf(kings, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+        own[size] = ownPieces;
+        opponent[size] = opponentPieces;
+        kings[size] = kingMask;
+        flags[size] = (byte) flag;
+        size++;
+    }
+
+    /**
+     * Computes the mean log loss of the positions' results.
+     * @param scale The factor from evaluation score to the logistic function's argument.
+     */
+    public double loss(EvaluationWeights weights, double scale, ForkJoinPool pool) {
+        if (size == 0) {
+            return 0;
+        }
+        evaluations++;
+        return pool.invoke(new LossTask(new Evaluator(weights), scale, 0, size)) / size;
+    }
+
+    /**
+     * Finds the scale that fits the given weights best, by golden-section
+     * search on its logarithm. The tuner then keeps the scale fixed, so the
+     * weights cannot lower the loss just by growing or shrinking together.
+     */
+    public double fitScale(EvaluationWeights weights, ForkJoinPool pool) {
+        final double ratio = (Math.sqrt(5) - 1) / 2;
+        double low = Math.log(1e-4);
+        double high = Math.log(1e-1);
+        double a = high - ratio * (high - low);
+        double b = low + ratio * (high - low);
+        double lossA = loss(weights, Math.exp(a), pool);
+        double lossB = loss(weights, Math.exp(b), pool);
+        while (high - low > 1e-3) {
+            if (lossA < lossB) {
+                high = b;
+                b = a;
+                lossB = lossA;
+                a = high - ratio * (high - low);
+                lossA = loss(weights, Math.exp(a), pool);
+            } else {
+                low = a;
+                a = b;
+                lossA = lossB;
+                b = low + ratio * (high - low);
+                lossB = loss(weights, Math.exp(b), pool);
+            }
+        }
+        return Math.exp((low + high) / 2);
+    }
+
+    /**
+     * Improves the weights by coordinate descent: each weight but the man's
+     * is moved by the step while that lowers the loss, and the step is halved
+     * when a whole pass changes nothing.
+     * @param start The weights to start from.
+     * @param scale The scale from {@link #fitScale}.
+     * @param step The first step, in hundredths of a man.
+     * @param maxPasses The most passes over the weights to make.
+     * @param listener Told about each pass, or null.
+     * @return The best weights found.
+     */
+    public EvaluationWeights tune(EvaluationWeights start, double scale, int step, int maxPasses,
+                                  ForkJoinPool pool, TuneListener listener) {
+        EvaluationWeights best = start;
+        double bestLoss = loss(best, scale, pool);
+        step = Math.max(step, 1);
+        for (int pass = 1; pass <= maxPasses; pass++) {
+            boolean improved = false;
+            for (EvaluationWeights.Term term : EvaluationWeights.Term.values()) {
+                if (term == EvaluationWeights.Term.MAN) {
+                    continue;
+                }
+                for (int direction : new int[] {step, -step}) {
+                    boolean moved = false;
+                    while (true) {
+                        EvaluationWeights candidate = best.with(term, best.get(term) + direction);
+                        double candidateLoss = loss(candidate, scale, pool);
+                        if (candidateLoss >= bestLoss) {
+                            break;
+                        }
+                        best = candidate;
+                        bestLoss = candidateLoss;
+                        moved = true;
+                    }
+                    if (moved) {
+                        improved = true;
+                        break; // No use trying the other way
+                    }
+                }
+            }
+            if (listener != null) {
+                listener.passComplete(pass, bestLoss, best);
+            }
+            if (!improved) {
+                if (step == 1) {
+                    break;
+                }
+                step /= 2;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Sums the loss over a range of positions, splitting it in two while it
+     * is larger than {@value #CHUNK}.
+     */
+    private final class LossTask extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Evaluator evaluator;
+        private final double scale;
+        private final int from;
+        private final int to;
+
+        LossTask(Evaluator evaluator, double scale, int from, int to) {
+            this.evaluator = evaluator;
+            this.scale = scale;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from > CHUNK) {
+                int middle = (from + to) >>> 1;
+                LossTask upper = new LossTask(evaluator, scale, middle, to);
+                upper.fork();
+                double lower = new LossTask(evaluator, scale, from, middle).compute();
+                return lower + upper.join();
+            }
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                int flag = flags[i];
+                int score = evaluator.evaluate(own[i], opponent[i], kings[i], (flag & RED_TO_MOVE) != 0);
+                double chance = 1 / (1 + Math.exp(-scale * score));
+                chance = Math.min(Math.max(chance, EPSILON), 1 - EPSILON);
+                double result = (flag >>> 1) / 2.0;
+                sum -= result * Math.log(chance) + (1 - result) * Math.log(1 - chance);
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package checkers.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import checkers.model.CheckersException;
+import checkers.model.Game;
+import checkers.model.GameState;
+import checkers.model.MoveGenerator;
+import checkers.model.PackedMove;
+
+/**
+ * Random access to the games of an archive written by {@link ArchiveWriter}.
+ * <p>
+ * The whole file is memory-mapped when it is opened, so finding game N is an
+ * index lookup and only the pages of the games actually replayed are read.
+ * A reader may be shared between threads; each thread replays into its own
+ * {@link Game}.
+ */
+public class ArchiveReader implements Closeable {
+
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private final Arena arena;
+    private final MemorySegment file;
+    private final long gameCount;
+    private final long indexOffset;
+
+    private ArchiveReader(Arena arena, MemorySegment file) throws CheckersException {
+        this.arena = arena;
+        this.file = file;
+        if (file.byteSize() < ArchiveWriter.HEADER_SIZE || file.get(INT, 0) != ArchiveWriter.MAGIC) {
+            throw new CheckersException("Not a game archive");
+        }
+        if (file.get(SHORT, 4) != ArchiveWriter.VERSION) {
+            throw new CheckersException("Unsupported archive version " + file.get(SHORT, 4));
+        }
+        this.gameCount = file.get(LONG, 8);
+        this.indexOffset = file.get(LONG, 16);
+        if (gameCount < 0 || indexOffset < ArchiveWriter.HEADER_SIZE
+                || indexOffset + (gameCount + 1) * Long.BYTES > file.byteSize()) {
+            throw new CheckersException("Archive is truncated or was not closed");
+        }
+    }
+
+    /**
+     * Maps an archive file.
+     * @throws CheckersException if the file is not a complete archive.
+     */
+    public static ArchiveReader open(Path path) throws IOException, CheckersException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new ArchiveReader(arena, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+        } catch (IOException | CheckersException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    /**
+     * @return The recorded result of game n; {@link GameState#IN_PROGRESS} if
+     *         it was unfinished or unknown.
+     */
+    public GameState getResult(long n) {
+        switch (file.get(ValueLayout.JAVA_BYTE, offset(n) + 1)) {
+            case ArchiveWriter.RESULT_RED_WINS:
+                return GameState.RED_WINS;
+            case ArchiveWriter.RESULT_BLACK_WINS:
+                return GameState.BLACK_WINS;
+            case ArchiveWriter.RESULT_DRAW:
+                return GameState.DRAW;
+            default:
+                return GameState.IN_PROGRESS;
+        }
+    }
+
+    /**
+     * @return The number of moves in game n.
+     */
+    public int getMoveCount(long n) {
+        return (int) readVarint(offset(n) + 2);
+    }
+
+    /**
+     * Plays game n into a game, which is restarted first.
+     * @throws CheckersException if the record is damaged.
+     */
+    public void replay(long n, Game game) throws CheckersException {
+        long at = offset(n);
+        long end = file.get(LONG, indexOffset + (n + 1) * Long.BYTES);
+        int flags = file.get(ValueLayout.JAVA_BYTE, at);
+        long value = readVarint(at + 2);
+        int moveCount = (int) value;
+        at += 2 + (value >>> 32);
+        if ((flags & ArchiveWriter.FLAG_FEN) != 0) {
+            value = readVarint(at);
+            at += value >>> 32;
+            byte[] text = file.asSlice(at, (int) value).toArray(ValueLayout.JAVA_BYTE);
+            at += (int) value;
+            game.startGame(new String(text, StandardCharsets.ISO_8859_1));
+        } else if ((flags & ArchiveWriter.FLAG_BLACK_FIRST) != 0) {
+            game.startGame(PdnGame.STANDARD_START);
+        } else {
+            game.startGame();
+        }
+        if (at + moveCount != end) {
+            throw new CheckersException("Game " + n + " is damaged");
+        }
+
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        for (int i = 0; i < moveCount; i++) {
+            int index = file.get(ValueLayout.JAVA_BYTE, at + i) & 0xFF;
+            int count = game.getPossibleMoves(moves);
+            if (index >= count || !game.makeMove(PackedMove.toMove(moves[index]))) {
+                throw new CheckersException("Game " + n + " is damaged at move " + (i + 1));
+            }
+        }
+    }
+
+    private long offset(long n) {
+        if (n < 0 || n >= gameCount) {
+            throw new IndexOutOfBoundsException("Game " + n + " of " + gameCount);
+        }
+        return file.get(LONG, indexOffset + n * Long.BYTES);
+    }
+
+    /**
+     * @return The value in the low 32 bits and the number of bytes it took in the high 32 bits.
+     */
+    private long readVarint(long at) {
+        long value = 0;
+        int length = 0;
+        int b;
+        do {
+            b = file.get(ValueLayout.JAVA_BYTE, at + length);
+            value |= (long) (b & 0x7F) << (7 * length);
+            length++;
+        } while ((b & 0x80) != 0 && length < 5);
+        return (value & 0xFFFFFFFFL) | (long) length << 32;
+    }
+
+    /**
+     * Unmaps the file. Games must not be read afterwards.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
@@ -0,0 +1,231 @@
+package checkers.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import checkers.model.Bitboards;
+import checkers.model.Board;
+import checkers.model.CheckersException;
+import checkers.model.Fen;
+import checkers.model.Game;
+import checkers.model.GameState;
+import checkers.model.Move;
+import checkers.model.MoveGenerator;
+import checkers.model.PackedMove;
+import checkers.model.PieceColor;
+import checkers.model.Player;
+
+/**
+ * Writes games to a binary archive that {@link ArchiveReader} can open.
+ * <p>
+ * Layout, all numbers little-endian:
+ * <pre>
+ *  header  (32 bytes)  magic "CKRA", version (short), reserved (short),
+ *                      game count (long), index offset (long), reserved (long)
+ *  games               one record per game, back to back
+ *  index               game count + 1 offsets (long); game n spans index[n] to index[n + 1]
+ * </pre>
+ * A game record is a flags byte (bit 0: a FEN start position follows; bit 1:
+ * the game starts from the opening with black to move, as in PDN), a result
+ * byte, the move count as a varint, the FEN if any (length as a varint,
+ * then ISO-8859-1 text) and then one byte per move: its index among the legal
+ * moves, in {@link MoveGenerator} order. A game without a FEN starts from the
+ * opening with red to move, as {@link Game#startGame()} does.
+ * <p>
+ * The header is completed and the index written when the writer is closed.
+ */
+public class ArchiveWriter implements Closeable {
+
+    static final int MAGIC = 'C' | 'K' << 8 | 'R' << 16 | 'A' << 24;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int FLAG_FEN = 1;
+    static final int FLAG_BLACK_FIRST = 2;
+
+    static final int RESULT_UNKNOWN = 0;
+    static final int RESULT_RED_WINS = 1;
+    static final int RESULT_BLACK_WINS = 2;
+    static final int RESULT_DRAW = 3;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final Game scratch = new Game(new Player("Red", PieceColor.RED), new Player("Black", PieceColor.BLACK));
+    private final long[] legalMoves = new long[MoveGenerator.MAX_MOVES];
+    private final String opening;
+    private long[] offsets = new long[1024];
+    private long gameCount;
+    private long position = HEADER_SIZE;
+
+    public ArchiveWriter(FileChannel channel) throws IOException {
+        this.channel = channel;
+        Board board = new Board();
+        board.initializeBoard();
+        this.opening = Fen.format(board, PieceColor.RED);
+        channel.truncate(0);
+        channel.position(HEADER_SIZE);
+    }
+
+    /**
+     * Creates or replaces an archive file.
+     */
+    public static ArchiveWriter create(Path path) throws IOException {
+        return new ArchiveWriter(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    /**
+     * @return The number of games written so far.
+     */
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    /**
+     * Appends the moves of a game so far, with its result if it is over.
+     */
+    public void write(Game game) throws IOException {
+        try {
+            append(game.getStartPosition(), game.getMoveHistory(), resultCode(game.getGameState()));
+        } catch (CheckersException e) {
+            // The game's own start position and moves are always valid
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Appends a PDN game, replaying it to check its moves.
+     * @throws CheckersException if the game does not replay.
+     */
+    public void write(PdnGame game) throws IOException, CheckersException {
+        game.replay(scratch, true);
+        append(scratch.getStartPosition(), scratch.getMoveHistory(), resultCode(game.getGameState()));
+    }
+
+    private void append(String start, List<Move> moves, int result) throws IOException, CheckersException {
+        scratch.startGame(start);
+        boolean blackFirst = start.equals(PdnGame.STANDARD_START);
+        boolean fen = !blackFirst && !start.equals(opening);
+
+        recordOffset();
+        put((byte) (fen ? FLAG_FEN : blackFirst ? FLAG_BLACK_FIRST : 0));
+        put((byte) result);
+        putVarint(moves.size());
+        if (fen) {
+            byte[] text = start.getBytes(StandardCharsets.ISO_8859_1);
+            putVarint(text.length);
+            for (byte b : text) {
+                put(b);
+            }
+        }
+        for (Move move : moves) {
+            int count = scratch.getPossibleMoves(legalMoves);
+            int index = indexOf(move, count);
+            if (index < 0 || !scratch.makeMove(move)) {
+                throw new CheckersException("Illegal move " + move + " in game " + gameCount);
+            }
+            put((byte) index);
+        }
+        gameCount++;
+    }
+
+    private int indexOf(Move move, int count) {
+        int from = Bitboards.square(move.getFrom());
+        int to = Bitboards.square(move.getTo());
+        int match = -1;
+        for (int i = 0; i < count; i++) {
+            long legal = legalMoves[i];
+            if (PackedMove.from(legal) == from && PackedMove.to(legal) == to) {
+                if (PackedMove.captured(legal) == move.getCapturedMask()) {
+                    return i;
+                }
+                if (match < 0) {
+                    match = i;
+                }
+            }
+        }
+        return match;
+    }
+
+    private static int resultCode(GameState state) {
+        switch (state) {
+            case RED_WINS:
+                return RESULT_RED_WINS;
+            case BLACK_WINS:
+                return RESULT_BLACK_WINS;
+            case DRAW:
+                return RESULT_DRAW;
+            default:
+                return RESULT_UNKNOWN;
+        }
+    }
+
+    private void recordOffset() {
+        if (gameCount + 1 >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[(int) gameCount] = position;
+    }
+
+    private void putVarint(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        put((byte) value);
+    }
+
+    private void put(byte b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put(b);
+        position++;
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes the index and header and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            long indexOffset = position;
+            offsets[(int) gameCount] = position;
+            for (int i = 0; i <= gameCount; i++) {
+                if (buffer.remaining() < Long.BYTES) {
+                    drain();
+                }
+                buffer.putLong(offsets[i]);
+            }
+            drain();
+
+            buffer.putInt(MAGIC).putShort(VERSION).putShort((short) 0)
+                    .putLong(gameCount).putLong(indexOffset).putLong(0);
+            buffer.flip();
+            long at = 0;
+            while (buffer.hasRemaining()) {
+                at += channel.write(buffer, at);
+            }
+            buffer.clear();
+        } finally {
+            channel.close();
+        }
+    }
+}
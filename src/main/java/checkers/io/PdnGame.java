@@ -0,0 +1,357 @@
+package checkers.io;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import checkers.model.Bitboards;
+import checkers.model.CheckersException;
+import checkers.model.Game;
+import checkers.model.GameState;
+import checkers.model.Move;
+import checkers.model.PackedMove;
+import checkers.model.Position;
+
+/**
+ * One game of a PDN file: its tags, its moves and its result.
+ * <p>
+ * Each move is kept as the squares it names, in {@link PackedMove} path form
+ * with the origin as the first entry (squares are 0-based here and numbered
+ * from 1 in the text). A jump may be written in full, {@code 9x18x27}, or by
+ * its ends only, {@code 9x27}; the short form is resolved against the legal
+ * moves when the game is replayed.
+ * <p>
+ * A game without a {@code FEN} tag starts from the PDN standard position, in
+ * which Black (squares 1-12) moves first. PDN White is {@link checkers.model.PieceColor#RED},
+ * as in {@link checkers.model.Fen}, and a result of {@code 1-0} is a win for White.
+ */
+public class PdnGame {
+
+    /** The starting position of a game without a {@code FEN} tag. */
+    public static final String STANDARD_START =
+            "B:W21,22,23,24,25,26,27,28,29,30,31,32:B1,2,3,4,5,6,7,8,9,10,11,12";
+
+    /** The most squares one move can name. */
+    static final int MAX_SQUARES = 12;
+
+    private static final String RESULT_TAG = "Result";
+
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private long[] moves = new long[128];
+    private int moveCount;
+    private String result = "*";
+
+    /**
+     * Creates a record of a game's moves so far. The {@code Result} tag is set
+     * if the game is over, and a {@code FEN} tag if it did not start from the
+     * standard position.
+     */
+    public static PdnGame of(Game game) {
+        PdnGame pdn = new PdnGame();
+        String start = game.getStartPosition();
+        if (!start.equals(STANDARD_START)) {
+            pdn.setTag("FEN", start);
+        }
+        for (Move move : game.getMoveHistory()) {
+            pdn.addMove(toPath(move));
+        }
+        pdn.setResult(resultText(game.getGameState()));
+        return pdn;
+    }
+
+    /**
+     * @return A game's state as a PDN result: {@code 1-0}, {@code 0-1},
+     *         {@code 1/2-1/2}, or {@code *} for a game still going.
+     */
+    public static String resultText(GameState state) {
+        switch (state) {
+            case RED_WINS:
+                return "1-0";
+            case BLACK_WINS:
+                return "0-1";
+            case DRAW:
+                return "1/2-1/2";
+            default:
+                return "*";
+        }
+    }
+
+    /**
+     * Empties the record so it can be filled again.
+     */
+    public void clear() {
+        tags.clear();
+        moveCount = 0;
+        result = "*";
+    }
+
+    public String getTag(String name) {
+        return RESULT_TAG.equals(name) ? result : tags.get(name);
+    }
+
+    /**
+     * Sets a tag; the {@code Result} tag sets the result.
+     */
+    public void setTag(String name, String value) {
+        if (RESULT_TAG.equals(name)) {
+            result = value;
+        } else {
+            tags.put(name, value);
+        }
+    }
+
+    /**
+     * @return The tags in the order they were read or set; the result is kept
+     *         separately, see {@link #getResult()}.
+     */
+    public Map<String, String> getTags() {
+        return Collections.unmodifiableMap(tags);
+    }
+
+    /**
+     * @return The result, e.g. {@code 1-0}, {@code 0-1}, {@code 1/2-1/2}, or {@code *} if unknown.
+     */
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    /**
+     * @return The result as a game state; {@link GameState#IN_PROGRESS} if it is unknown.
+     */
+    public GameState getGameState() {
+        switch (result) {
+            case "1-0":
+            case "2-0":
+                return GameState.RED_WINS;
+            case "0-1":
+            case "0-2":
+                return GameState.BLACK_WINS;
+            case "1/2-1/2":
+            case "1-1":
+                return GameState.DRAW;
+            default:
+                return GameState.IN_PROGRESS;
+        }
+    }
+
+    /**
+     * @return The starting position in {@link checkers.model.Fen} notation.
+     */
+    public String getStartPosition() {
+        String fen = tags.get("FEN");
+        if (fen == null) {
+            return STANDARD_START;
+        }
+        // Some archives end the FEN with a full stop
+        return fen.endsWith(".") ? fen.substring(0, fen.length() - 1) : fen;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * @return The squares of the i-th move in {@link PackedMove} path form, origin first.
+     */
+    public long getMove(int i) {
+        return moves[i];
+    }
+
+    /**
+     * @return The i-th move as written in PDN, e.g. {@code 11-15} or {@code 9x18x27}.
+     */
+    public String getMoveText(int i) {
+        return toText(moves[i]);
+    }
+
+    /**
+     * @return A move as written in PDN, with every landing square of a jump.
+     */
+    public static String toText(Move move) {
+        return toText(toPath(move));
+    }
+
+    /**
+     * Reads a move written in PDN, e.g. {@code 11-15}, {@code 9x18x27} or {@code 9x27}.
+     * @return The squares it names in {@link PackedMove} path form, origin first.
+     * @throws CheckersException if the text is not a move.
+     */
+    public static long parseMove(String text) throws CheckersException {
+        String[] squares = text.split("[-x]", -1);
+        if (squares.length < 2 || squares.length > MAX_SQUARES) {
+            throw new CheckersException("Bad move " + text);
+        }
+        long path = 0;
+        for (String square : squares) {
+            int sq;
+            try {
+                sq = Integer.parseInt(square) - 1;
+            } catch (NumberFormatException e) {
+                throw new CheckersException("Bad move " + text);
+            }
+            if (sq < 0 || sq >= Bitboards.SQUARES) {
+                throw new CheckersException("Bad move " + text);
+            }
+            path = PackedMove.appendPath(path, sq);
+        }
+        return path;
+    }
+
+    /**
+     * Finds the legal move of a game's current position with the given squares.
+     * @param path The squares in {@link PackedMove} path form, origin first;
+     *             a jump may give its ends only.
+     * @return The move, or null if there is none.
+     * @throws CheckersException if more than one legal move matches.
+     */
+    public static Move findLegalMove(Game game, long path) throws CheckersException {
+        int length = PackedMove.pathLength(path);
+        Position from = Bitboards.position(PackedMove.pathSquare(path, 0));
+        Position to = Bitboards.position(PackedMove.pathSquare(path, length - 1));
+        Move found = null;
+        for (Move move : game.getPossibleMoves()) {
+            if (!move.getFrom().equals(from) || !move.getTo().equals(to) || !matchesPath(move.getPath(), path)) {
+                continue;
+            }
+            if (found != null) {
+                throw new CheckersException("Ambiguous move " + toText(path));
+            }
+            found = move;
+        }
+        return found;
+    }
+
+    private static long toPath(Move move) {
+        long path = PackedMove.appendPath(0, Bitboards.square(move.getFrom()));
+        for (Position landing : move.getPath()) {
+            path = PackedMove.appendPath(path, Bitboards.square(landing));
+        }
+        return path;
+    }
+
+    private static String toText(long path) {
+        char separator = isJump(path) ? 'x' : '-';
+        StringBuilder text = new StringBuilder();
+        for (int j = 0; j < PackedMove.pathLength(path); j++) {
+            if (j > 0) {
+                text.append(separator);
+            }
+            text.append(PackedMove.pathSquare(path, j) + 1);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Adds a move given as its squares in {@link PackedMove} path form, origin first.
+     */
+    public void addMove(long path) {
+        if (moveCount == moves.length) {
+            moves = Arrays.copyOf(moves, moveCount * 2);
+        }
+        moves[moveCount++] = path;
+    }
+
+    /**
+     * Plays the game from its starting position.
+     * @param game The game to play the moves in; it is restarted first.
+     * @param validate Whether to check each move against the legal moves.
+     *                 Without validation, moves are only checked enough to be made.
+     * @throws CheckersException if the starting position is invalid, or a move
+     *         is illegal, ambiguous or, without validation, cannot be made.
+     */
+    public void replay(Game game, boolean validate) throws CheckersException {
+        game.startGame(getStartPosition());
+        for (int i = 0; i < moveCount; i++) {
+            Move move = validate ? findLegalMove(game, moves[i], i) : toMove(moves[i]);
+            if (move == null) {
+                move = findLegalMove(game, moves[i], i);
+            }
+            if (move == null || !game.makeMove(move, validate)) {
+                throw new CheckersException("Illegal move " + describe(i));
+            }
+        }
+    }
+
+    /**
+     * Builds a move from its squares alone.
+     * @return The move, or null if it is a jump written by its ends only.
+     */
+    private static Move toMove(long path) {
+        int length = PackedMove.pathLength(path);
+        int from = PackedMove.pathSquare(path, 0);
+        int to = PackedMove.pathSquare(path, length - 1);
+        long landings = 0;
+        int captured = 0;
+        int at = from;
+        for (int j = 1; j < length; j++) {
+            int next = PackedMove.pathSquare(path, j);
+            int rows = Math.abs(Bitboards.row(next) - Bitboards.row(at));
+            if (rows != Math.abs(Bitboards.col(next) - Bitboards.col(at))) {
+                return null;
+            }
+            if (rows == 2) {
+                captured |= 1 << Bitboards.square((Bitboards.row(at) + Bitboards.row(next)) / 2,
+                        (Bitboards.col(at) + Bitboards.col(next)) / 2);
+            } else if (rows != 1 || length > 2) {
+                return null;
+            }
+            landings = PackedMove.appendPath(landings, next);
+            at = next;
+        }
+        return PackedMove.toMove(PackedMove.of(from, to, PackedMove.pathSquare(landings, 0), captured, false),
+                landings);
+    }
+
+    /**
+     * Finds the legal move with the given squares of the index-th move.
+     * @return The move, or null if there is none.
+     * @throws CheckersException if more than one legal move matches.
+     */
+    private Move findLegalMove(Game game, long path, int index) throws CheckersException {
+        try {
+            return findLegalMove(game, path);
+        } catch (CheckersException e) {
+            throw new CheckersException("Ambiguous move " + describe(index));
+        }
+    }
+
+    /**
+     * @return true if the landing squares match, or only the ends were given.
+     */
+    private static boolean matchesPath(List<Position> landings, long path) {
+        int length = PackedMove.pathLength(path);
+        if (length == 2) {
+            return true;
+        }
+        if (landings.size() != length - 1) {
+            return false;
+        }
+        for (int j = 1; j < length; j++) {
+            if (Bitboards.square(landings.get(j - 1)) != PackedMove.pathSquare(path, j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isJump(long path) {
+        int from = PackedMove.pathSquare(path, 0);
+        int next = PackedMove.pathSquare(path, 1);
+        return PackedMove.pathLength(path) > 2 || Math.abs(Bitboards.row(next) - Bitboards.row(from)) != 1;
+    }
+
+    private String describe(int index) {
+        return (index / 2 + 1) + (index % 2 == 0 ? ". " : "... ") + getMoveText(index);
+    }
+
+    @Override
+    public String toString() {
+        return "PdnGame{" + "tags=" + tags + ", moves=" + moveCount + ", result=" + result + '}';
+    }
+}
@@ -0,0 +1,312 @@
+package checkers.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import checkers.model.CheckersException;
+import checkers.model.PackedMove;
+
+/**
+ * Reads games one at a time from a PDN file or stream.
+ * <p>
+ * The input is scanned byte by byte through a fixed buffer, so memory use does
+ * not depend on the size of the file, and moves are decoded straight into
+ * {@link PdnGame} without creating strings. Tag values are read as ISO-8859-1.
+ * Comments, variations, numeric annotations and move strength marks are
+ * skipped. Only numeric square notation is understood.
+ */
+public class PdnReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int EOF = -1;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] bytes = buffer.array();
+    private final StringBuilder text = new StringBuilder();
+    private int position;
+    private int limit;
+    private int line = 1;
+
+    public PdnReader(ReadableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a PDN file for reading.
+     */
+    public static PdnReader open(Path path) throws IOException {
+        return new PdnReader(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    /**
+     * Reads the next game.
+     * @return The game, or null at the end of the input.
+     * @throws CheckersException if the game is not valid PDN.
+     */
+    public PdnGame readGame() throws IOException, CheckersException {
+        PdnGame game = new PdnGame();
+        return readGame(game) ? game : null;
+    }
+
+    /**
+     * Reads the next game into an existing record, replacing its contents.
+     * Reusing one record avoids allocating for every game.
+     * @return false at the end of the input.
+     * @throws CheckersException if the game is not valid PDN.
+     */
+    public boolean readGame(PdnGame game) throws IOException, CheckersException {
+        game.clear();
+        boolean started = false;
+        boolean inMoves = false;
+        while (true) {
+            int c = peek();
+            switch (c) {
+                case EOF:
+                    return started;
+                case '\n':
+                    line++;
+                    position++;
+                    break;
+                case ' ':
+                case '\t':
+                case '\r':
+                case '!':
+                case '?':
+                    position++;
+                    break;
+                case '[':
+                    if (inMoves) {
+                        // The previous game ended without a result
+                        return true;
+                    }
+                    readTag(game);
+                    started = true;
+                    break;
+                case '{':
+                    skipPast('}');
+                    break;
+                case ';':
+                    skipPast('\n');
+                    line++;
+                    break;
+                case '(':
+                    skipVariation();
+                    break;
+                case '$':
+                    position++;
+                    while (isDigit(peek())) {
+                        position++;
+                    }
+                    break;
+                case '*':
+                    position++;
+                    game.setResult("*");
+                    return true;
+                default:
+                    if (!isDigit(c)) {
+                        throw error("Unexpected '" + (char) c + "'");
+                    }
+                    started = true;
+                    inMoves = true;
+                    if (readNumberToken(game)) {
+                        return true;
+                    }
+            }
+        }
+    }
+
+    /**
+     * Reads a move number, a move or a result.
+     * @return true if it was a result, which ends the game.
+     */
+    private boolean readNumberToken(PdnGame game) throws IOException, CheckersException {
+        int first = readNumber();
+        int c = peek();
+        if (c == '.') {
+            while (peek() == '.') {
+                position++;
+            }
+            return false;
+        }
+        if (c != '-' && c != 'x' && c != '/') {
+            throw error("Expected a move after " + first);
+        }
+        long path = 0;
+        int count = 0;
+        boolean result = false;
+        int square = first;
+        while (true) {
+            if (square == 0) {
+                result = true;
+            } else if (square > 32) {
+                throw error("No such square: " + square);
+            } else if (count < PdnGame.MAX_SQUARES) {
+                path = PackedMove.appendPath(path, square - 1);
+            }
+            count++;
+            c = peek();
+            if (c == '/') {
+                result = true;
+            } else if (c != '-' && c != 'x') {
+                break;
+            }
+            position++;
+            if (!isDigit(peek())) {
+                throw error("Expected a square after '" + (char) c + "'");
+            }
+            square = readNumber();
+        }
+        if (result || (count == 2 && first == 1 && square == 1)) {
+            // 1-0, 0-1, 2-0, 0-2, 1-1 or 1/2-1/2
+            game.setResult(first == 1 && square == 2 ? "1/2-1/2" : first + "-" + square);
+            return true;
+        }
+        if (count > PdnGame.MAX_SQUARES) {
+            throw error("Too many squares in one move");
+        }
+        game.addMove(path);
+        return false;
+    }
+
+    private int readNumber() throws IOException {
+        int value = 0;
+        for (int c = peek(); isDigit(c); c = peek()) {
+            value = value * 10 + (c - '0');
+            position++;
+            if (value > 1000) {
+                // Too large for a square; keep it from overflowing
+                value = 1000;
+            }
+        }
+        return value;
+    }
+
+    private void readTag(PdnGame game) throws IOException, CheckersException {
+        position++;
+        skipSpaces();
+        text.setLength(0);
+        for (int c = peek(); c != EOF && c != '"' && c != ']' && !Character.isWhitespace(c); c = peek()) {
+            text.append((char) c);
+            position++;
+        }
+        String name = text.toString();
+        skipSpaces();
+        if (peek() != '"') {
+            throw error("Expected the value of tag " + name);
+        }
+        position++;
+        text.setLength(0);
+        for (int c = peek(); c != '"'; c = peek()) {
+            if (c == '\\') {
+                position++;
+                c = peek();
+            }
+            if (c == EOF) {
+                throw error("Unterminated value of tag " + name);
+            }
+            if (c == '\n') {
+                line++;
+            }
+            text.append((char) c);
+            position++;
+        }
+        position++;
+        skipSpaces();
+        if (peek() != ']') {
+            throw error("Expected ']' after tag " + name);
+        }
+        position++;
+        game.setTag(name, text.toString());
+    }
+
+    private void skipSpaces() throws IOException {
+        for (int c = peek(); c == ' ' || c == '\t' || c == '\r' || c == '\n'; c = peek()) {
+            if (c == '\n') {
+                line++;
+            }
+            position++;
+        }
+    }
+
+    private void skipPast(int end) throws IOException, CheckersException {
+        position++;
+        for (int c = peek(); c != end; c = peek()) {
+            if (c == EOF) {
+                if (end == '\n') {
+                    return;
+                }
+                throw error("Missing '" + (char) end + "'");
+            }
+            if (c == '\n') {
+                line++;
+            }
+            position++;
+        }
+        position++;
+    }
+
+    private void skipVariation() throws IOException, CheckersException {
+        int depth = 0;
+        do {
+            int c = peek();
+            if (c == EOF) {
+                throw error("Unterminated variation");
+            }
+            if (c == '{') {
+                skipPast('}');
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '\n') {
+                line++;
+            }
+            position++;
+        } while (depth > 0);
+    }
+
+    /**
+     * @return The next byte without consuming it, or {@link #EOF}.
+     */
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+        return bytes[position] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        if (read < 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private CheckersException error(String message) {
+        return new CheckersException("Line " + line + ": " + message);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,95 @@
+package checkers.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import checkers.model.Game;
+
+/**
+ * Writes games in PDN, one after another.
+ * <p>
+ * Moves are numbered in pairs and jumps are written with every landing
+ * square, so they read back without ambiguity. Lines are wrapped at
+ * {@value #LINE_WIDTH} characters. Text is written as ISO-8859-1.
+ */
+public class PdnWriter implements Closeable, Flushable {
+
+    private static final int LINE_WIDTH = 80;
+
+    private final Writer out;
+    private int column;
+
+    public PdnWriter(WritableByteChannel channel) {
+        this.out = Channels.newWriter(channel, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Creates or replaces a PDN file for writing.
+     */
+    public static PdnWriter create(Path path) throws IOException {
+        return new PdnWriter(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    /**
+     * Writes the moves of a game so far.
+     * @see PdnGame#of(Game)
+     */
+    public void write(Game game) throws IOException {
+        write(PdnGame.of(game));
+    }
+
+    public void write(PdnGame game) throws IOException {
+        for (Map.Entry<String, String> tag : game.getTags().entrySet()) {
+            out.write('[');
+            out.write(tag.getKey());
+            out.write(" \"");
+            out.write(tag.getValue().replace("\\", "\\\\").replace("\"", "\\\""));
+            out.write("\"]\n");
+        }
+        out.write("[Result \"");
+        out.write(game.getResult());
+        out.write("\"]\n\n");
+
+        column = 0;
+        for (int i = 0; i < game.getMoveCount(); i++) {
+            if (i % 2 == 0) {
+                writeToken((i / 2 + 1) + ".");
+            }
+            writeToken(game.getMoveText(i));
+        }
+        writeToken(game.getResult());
+        out.write("\n\n");
+    }
+
+    private void writeToken(String token) throws IOException {
+        if (column > 0 && column + 1 + token.length() > LINE_WIDTH) {
+            out.write('\n');
+            column = 0;
+        } else if (column > 0) {
+            out.write(' ');
+            column++;
+        }
+        out.write(token);
+        column += token.length();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
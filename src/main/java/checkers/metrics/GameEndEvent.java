@@ -0,0 +1,23 @@
+package checkers.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A game reaching a result.
+ */
+@Name("checkers.GameEnd")
+@Label("Game End")
+@Category("Checkers")
+@StackTrace(false)
+public final class GameEndEvent extends Event {
+
+    @Label("Result")
+    public String result;
+
+    @Label("Moves")
+    public int moves;
+}
@@ -0,0 +1,124 @@
+package checkers.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters and timers for the model and the engine, shared by every game in
+ * the process.
+ * <p>
+ * Metrics are off unless the system property {@value #PROPERTY} is
+ * {@code true} or {@link #setEnabled(boolean)} turns them on, for instance
+ * over JMX once {@link #registerMBean()} has been called. While they are off,
+ * each timed call costs one volatile read. The Flight Recorder events in this
+ * package are controlled by the recording's settings instead, and cost
+ * nothing while no recording asks for them.
+ */
+public final class Metrics {
+
+    /** The system property that turns metrics on at startup. */
+    public static final String PROPERTY = "checkers.metrics";
+    /** The name the MBean is registered under. */
+    public static final String OBJECT_NAME = "checkers:type=Metrics";
+
+    /** {@code Game.getPossibleMoves}, as called from outside the game. */
+    public static final OperationTimer POSSIBLE_MOVES = new OperationTimer("possibleMoves");
+    /** {@code Game.isGameOver}, including the move generation it may need. */
+    public static final OperationTimer GAME_OVER_CHECK = new OperationTimer("isGameOver");
+    /** {@code Game.makeMove}, checked or not. */
+    public static final OperationTimer MAKE_MOVE = new OperationTimer("makeMove");
+    /** Generating the legal moves of a game's current player. */
+    public static final OperationTimer MOVE_GENERATION = new OperationTimer("moveGeneration");
+    /** One engine search, over all of its iterations. */
+    public static final OperationTimer SEARCH = new OperationTimer("search");
+
+    /** Games that reached a result. */
+    public static final LongAdder GAMES_ENDED = new LongAdder();
+    /** Moves rejected by a checked {@code Game.makeMove}. */
+    public static final LongAdder ILLEGAL_MOVES = new LongAdder();
+    /** Positions visited by engine searches. */
+    public static final LongAdder SEARCH_NODES = new LongAdder();
+
+    private static final List<OperationTimer> TIMERS = List.of(POSSIBLE_MOVES, GAME_OVER_CHECK, MAKE_MOVE,
+            MOVE_GENERATION, SEARCH);
+
+    private static volatile boolean enabled = Boolean.getBoolean(PROPERTY);
+
+    private Metrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * @return The time to pass to {@link OperationTimer#stop(long)}, or 0 if
+     *         metrics are off.
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Counts one event on a counter, if metrics are on.
+     */
+    public static void count(LongAdder counter) {
+        if (enabled) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * @return Every counter, and the count, mean, percentiles and maximum of
+     *         every timer in nanoseconds, by name.
+     */
+    public static Map<String, Long> values() {
+        Map<String, Long> values = new TreeMap<>();
+        for (OperationTimer timer : TIMERS) {
+            timer.addTo(values);
+        }
+        values.put("gamesEnded", GAMES_ENDED.sum());
+        values.put("illegalMoves", ILLEGAL_MOVES.sum());
+        values.put("searchNodes", SEARCH_NODES.sum());
+        return values;
+    }
+
+    /**
+     * Sets every counter and timer back to zero.
+     */
+    public static void reset() {
+        for (OperationTimer timer : TIMERS) {
+            timer.reset();
+        }
+        GAMES_ENDED.reset();
+        ILLEGAL_MOVES.reset();
+        SEARCH_NODES.reset();
+    }
+
+    /**
+     * Makes the metrics visible over JMX as {@value #OBJECT_NAME}, if they are
+     * not already.
+     */
+    public static synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MetricsBean(), name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register " + OBJECT_NAME, e);
+        }
+    }
+}
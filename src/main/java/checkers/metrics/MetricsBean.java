@@ -0,0 +1,26 @@
+package checkers.metrics;
+
+import java.util.Map;
+
+final class MetricsBean implements MetricsMXBean {
+
+    @Override
+    public boolean isEnabled() {
+        return Metrics.isEnabled();
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        Metrics.setEnabled(enabled);
+    }
+
+    @Override
+    public Map<String, Long> getValues() {
+        return Metrics.values();
+    }
+
+    @Override
+    public void reset() {
+        Metrics.reset();
+    }
+}
@@ -0,0 +1,20 @@
+package checkers.metrics;
+
+import java.util.Map;
+
+/**
+ * The JMX view of {@link Metrics}.
+ */
+public interface MetricsMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    /**
+     * @return The figures of {@link Metrics#values()}.
+     */
+    Map<String, Long> getValues();
+
+    void reset();
+}
@@ -0,0 +1,32 @@
+package checkers.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Generating the legal moves of a game's current player. Off unless the
+ * recording turns it on, since games generate moves after every move.
+ */
+@Name("checkers.MoveGeneration")
+@Label("Move Generation")
+@Category("Checkers")
+@Description("Generating the legal moves of the side to move")
+@Enabled(false)
+@StackTrace(false)
+public final class MoveGenerationEvent extends Event {
+
+    @Label("Side")
+    public String side;
+
+    @Label("Moves")
+    public int moves;
+
+    @Label("Captures")
+    @Description("Whether the moves are captures")
+    public boolean captures;
+}
@@ -0,0 +1,33 @@
+package checkers.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Checking a move against the legal moves before it is made. Off unless the
+ * recording turns it on.
+ */
+@Name("checkers.MoveValidation")
+@Label("Move Validation")
+@Category("Checkers")
+@Description("Checking a move against the legal moves")
+@Enabled(false)
+@StackTrace(false)
+public final class MoveValidationEvent extends Event {
+
+    @Label("From")
+    @Description("Square the move starts on, 1 to 32")
+    public int from;
+
+    @Label("To")
+    @Description("Square the move ends on, 1 to 32")
+    public int to;
+
+    @Label("Legal")
+    public boolean legal;
+}
@@ -0,0 +1,81 @@
+package checkers.metrics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the calls of one operation and how long they took. The count and
+ * total are {@link LongAdder}s, which threads add to without contending,
+ * and the spread of the durations is kept in a {@link LatencyHistogram}.
+ * <p>
+ * A call is timed with {@link Metrics#start()} and {@link #stop(long)}:
+ * <pre>
+ * long start = Metrics.start();
+ * ...
+ * Metrics.MAKE_MOVE.stop(start);
+ * </pre>
+ * While metrics are disabled, {@code start()} returns 0 and {@code stop}
+ * records nothing.
+ */
+public final class OperationTimer {
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    OperationTimer(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records one call.
+     * @param start The value {@link Metrics#start()} returned when the call began.
+     */
+    public void stop(long start) {
+        if (start != 0) {
+            long nanos = System.nanoTime() - start;
+            count.increment();
+            totalNanos.add(nanos);
+            histogram.record(nanos);
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * @return The durations of the calls, in nanoseconds.
+     */
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    void reset() {
+        count.reset();
+        totalNanos.reset();
+        histogram.reset();
+    }
+
+    /**
+     * Adds the timer's figures to a map, under keys starting with its name.
+     */
+    void addTo(Map<String, Long> values) {
+        long calls = count.sum();
+        values.put(name + ".count", calls);
+        values.put(name + ".meanNanos", calls == 0 ? 0 : totalNanos.sum() / calls);
+        values.put(name + ".p50Nanos", histogram.getPercentile(0.5));
+        values.put(name + ".p99Nanos", histogram.getPercentile(0.99));
+        values.put(name + ".p999Nanos", histogram.getPercentile(0.999));
+        values.put(name + ".maxNanos", histogram.getMax());
+    }
+}
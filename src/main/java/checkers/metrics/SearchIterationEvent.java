@@ -0,0 +1,33 @@
+package checkers.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One completed iteration of an engine search; the event lasts as long as
+ * the iteration did.
+ */
+@Name("checkers.SearchIteration")
+@Label("Search Iteration")
+@Category("Checkers")
+@StackTrace(false)
+public final class SearchIterationEvent extends Event {
+
+    @Label("Depth")
+    public int depth;
+
+    @Label("Score")
+    public int score;
+
+    @Label("Nodes")
+    @Description("Positions visited by the search so far")
+    public long nodes;
+
+    @Label("Helper")
+    @Description("0 for a search of its own, else the thread of a parallel search")
+    public int helper;
+}
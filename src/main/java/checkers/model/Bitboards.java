@@ -0,0 +1,122 @@
+package checkers.model;
+
+/**
+ * Bit-level helpers for the 32 playable (dark) squares of the board.
+ * <p>
+ * Square indices run row by row from the top-left, four per row, so
+ * {@code index = row * 4 + col / 2}. Bit {@code i} of an {@code int} mask
+ * represents square {@code i}. Because the dark squares sit on odd columns in
+ * even rows and on even columns in odd rows, a diagonal step is a shift by
+ * 3, 4 or 5 depending on the row parity; the shift helpers below hide that.
+ */
+public final class Bitboards {
+
+    /** Number of playable squares. */
+    public static final int SQUARES = 32;
+
+    /** Squares in rows 0, 2, 4 and 6. */
+    public static final int EVEN_ROWS = 0x0F0F0F0F;
+
+    /** Squares in rows 1, 3, 5 and 7. */
+    public static final int ODD_ROWS = 0xF0F0F0F0;
+
+    /** Squares in row 0, where red men are promoted. */
+    public static final int TOP_ROW = 0x0000000F;
+
+    /** Squares in row 7, where black men are promoted. */
+    public static final int BOTTOM_ROW = 0xF0000000;
+
+    private static final Position[] POSITIONS = new Position[SQUARES];
+
+    static {
+        for (int sq = 0; sq < SQUARES; sq++) {
+            POSITIONS[sq] = Position.of(row(sq), col(sq));
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    /**
+     * Converts board coordinates to a square index.
+     * @return the square index, or -1 for light or off-board squares.
+     */
+    public static int square(int row, int col) {
+        if (row < 0 || row > 7 || col < 0 || col > 7 || ((row + col) & 1) == 0) {
+            return -1;
+        }
+        return (row << 2) | (col >> 1);
+    }
+
+    /**
+     * Converts a position to a square index.
+     * @return the square index, or -1 for light or off-board squares.
+     */
+    public static int square(Position pos) {
+        return square(pos.getRow(), pos.getCol());
+    }
+
+    public static int row(int sq) {
+        return sq >> 2;
+    }
+
+    public static int col(int sq) {
+        return ((sq & 3) << 1) | (~(sq >> 2) & 1);
+    }
+
+    /**
+     * Returns the shared position for a square index.
+     */
+    public static Position position(int sq) {
+        return POSITIONS[sq];
+    }
+
+    /** Shifts every square in the mask one step towards row 0 and column 0. */
+    public static int upLeft(int mask) {
+        return ((mask & 0x0F0F0F00) >>> 4) | ((mask & 0xE0E0E0E0) >>> 5);
+    }
+
+    /** Shifts every square in the mask one step towards row 0 and column 7. */
+    public static int upRight(int mask) {
+        return ((mask & 0x07070700) >>> 3) | ((mask & 0xF0F0F0F0) >>> 4);
+    }
+
+    /** Shifts every square in the mask one step towards row 7 and column 0. */
+    public static int downLeft(int mask) {
+        return ((mask & 0x0F0F0F0F) << 4) | ((mask & 0x00E0E0E0) << 3);
+    }
+
+    /** Shifts every square in the mask one step towards row 7 and column 7. */
+    public static int downRight(int mask) {
+        return ((mask & 0x07070707) << 5) | ((mask & 0x00F0F0F0) << 4);
+    }
+
+    /**
+     * Returns the squares of pieces that have at least one non-jump move.
+     * @param own the moving side's pieces.
+     * @param kings all kings on the board.
+     * @param empty the empty squares.
+     * @param red true if the moving side is red (men move towards row 0).
+     */
+    public static int movers(int own, int kings, int empty, boolean red) {
+        int up = red ? own : own & kings;
+        int down = red ? own & kings : own;
+        return (up & (downRight(empty) | downLeft(empty)))
+                | (down & (upRight(empty) | upLeft(empty)));
+    }
+
+    /**
+     * Returns the squares of pieces that have at least one jump.
+     * @param own the moving side's pieces.
+     * @param opponent the opponent's pieces.
+     * @param kings all kings on the board.
+     * @param empty the empty squares.
+     * @param red true if the moving side is red (men move towards row 0).
+     */
+    public static int jumpers(int own, int opponent, int kings, int empty, boolean red) {
+        int up = red ? own : own & kings;
+        int down = red ? own & kings : own;
+        return (up & (downRight(opponent & downRight(empty)) | downLeft(opponent & downLeft(empty))))
+                | (down & (upRight(opponent & upRight(empty)) | upLeft(opponent & upLeft(empty))));
+    }
+}
@@ -1,17 +1,40 @@
-
 package checkers.model;
 
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * The checkers board.
+ * <p>
+ * Occupancy is kept in three 32-bit masks over the dark squares (see
+ * {@link Bitboards}): one for red pieces, one for black pieces and one for
+ * kings. The {@link Piece} objects handed out by {@link #getPiece(Position)}
+ * are kept alongside the masks so callers that work with objects still see
+ * the same piece instance as it moves around.
+ */
 public class Board {
 
-    private final Square[][] squares = new Square[8][8];
+    private int redMask;
+    private int blackMask;
+    private int kingMask;
+    private long key;
+    private final Piece[] pieces = new Piece[Bitboards.SQUARES];
 
     public Board() {
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                squares[row][col] = new Square(new Position(row, col));
+    }
+
+    /**
+     * Creates a copy of another board, with its own piece objects.
+     */
+    public Board(Board other) {
+        for (int sq = 0; sq < Bitboards.SQUARES; sq++) {
+            Piece piece = other.pieces[sq];
+            if (piece != null) {
+                Piece copy = new Piece(piece.getColor(), piece.getPosition());
+                if (piece.isKing()) {
+                    copy.promote();
+                }
+                put(sq, copy);
             }
         }
     }
@@ -24,7 +47,7 @@ public class Board {
         for (int row = 0; row < 3; row++) {
             for (int col = 0; col < 8; col++) {
                 if ((row + col) % 2 != 0) { // Place on dark squares
-                    setPiece(new Position(row, col), new Piece(PieceColor.BLACK, new Position(row, col)));
+                    setPiece(Position.of(row, col), new Piece(PieceColor.BLACK, Position.of(row, col)));
                 }
             }
         }
@@ -32,61 +55,256 @@ public class Board {
         for (int row = 5; row < 8; row++) {
             for (int col = 0; col < 8; col++) {
                 if ((row + col) % 2 != 0) { // Place on dark squares
-                    setPiece(new Position(row, col), new Piece(PieceColor.RED, new Position(row, col)));
+                    setPiece(Position.of(row, col), new Piece(PieceColor.RED, Position.of(row, col)));
                 }
             }
         }
     }
 
+    /**
+     * Removes every piece from the board.
+     */
+    public void clear() {
+        for (int sq = 0; sq < Bitboards.SQUARES; sq++) {
+            clear(sq);
+        }
+    }
+
     public Piece getPiece(Position pos) {
-        if (!isValidPosition(pos))
-            return null;
-        return squares[pos.getRow()][pos.getCol()].getPiece();
+        int sq = Bitboards.square(pos);
+        return sq < 0 ? null : pieces[sq];
     }
 
+    /**
+     * Places a piece on a square. Light and off-board squares can never hold
+     * a piece, so they are ignored.
+     */
     public void setPiece(Position pos, Piece piece) {
-        if (!isValidPosition(pos))
+        int sq = Bitboards.square(pos);
+        if (sq < 0)
             return;
-        squares[pos.getRow()][pos.getCol()].setPiece(piece);
+        clear(sq);
+        if (piece != null) {
+            put(sq, piece);
+        }
     }
 
     public void removePiece(Position pos) {
-        if (!isValidPosition(pos))
+        int sq = Bitboards.square(pos);
+        if (sq < 0)
             return;
-        squares[pos.getRow()][pos.getCol()].removePiece();
+        clear(sq);
     }
 
+    /**
+     * Moves a piece without checking legality or crowning it.
+     * @param move The move; for a jump, every captured piece is removed.
+     */
     public void executeMove(Move move) {
-        Piece piece = getPiece(move.getFrom());
-        removePiece(move.getFrom());
-        setPiece(move.getTo(), piece);
-        piece.setPosition(move.getTo());
-
-        if (move.isJump()) {
-            int jumpedRow = (move.getFrom().getRow() + move.getTo().getRow()) / 2;
-            int jumpedCol = (move.getFrom().getCol() + move.getTo().getCol()) / 2;
-            removePiece(new Position(jumpedRow, jumpedCol));
+        int from = Bitboards.square(move.getFrom());
+        int to = Bitboards.square(move.getTo());
+        Piece piece = pieces[from];
+        clear(from);
+        put(to, piece);
+
+        // A multi-jump removes every piece along its path
+        for (int captured = move.getCapturedMask(); captured != 0; captured &= captured - 1) {
+            clear(Integer.numberOfTrailingZeros(captured));
+        }
+    }
+
+    /**
+     * Makes a move, recording what is needed to take it back.
+     * Captured pieces are removed and a man reaching the far row is crowned.
+     * @param move The move, as a {@link PackedMove} value; it is not checked for legality.
+     * @param undo The record to fill; it can be reused once the move has been unmade.
+     */
+    public void makeMove(long move, UndoRecord undo) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        Piece piece = pieces[from];
+        undo.move = move;
+        undo.redMask = redMask;
+        undo.blackMask = blackMask;
+        undo.kingMask = kingMask;
+        undo.key = key;
+        undo.piece = piece;
+        undo.wasKing = piece.isKing();
+
+        int count = 0;
+        for (int mask = PackedMove.captured(move); mask != 0; mask &= mask - 1) {
+            int sq = Integer.numberOfTrailingZeros(mask);
+            undo.captured[count++] = pieces[sq];
+            clear(sq);
+        }
+        undo.capturedCount = count;
+
+        clear(from);
+        put(to, piece);
+        if (PackedMove.isPromotion(move)) {
+            promote(to);
         }
     }
 
+    /**
+     * Makes a move and returns a new record for taking it back.
+     * @see #makeMove(long, UndoRecord)
+     */
+    public UndoRecord makeMove(long move) {
+        UndoRecord undo = new UndoRecord();
+        makeMove(move, undo);
+        return undo;
+    }
+
+    /**
+     * Takes back the move recorded in {@code undo}, which must be the last move made on this board.
+     * Restores the moved piece, its king status, every captured piece and the Zobrist key.
+     */
+    public void unmakeMove(UndoRecord undo) {
+        int from = PackedMove.from(undo.move);
+        int to = PackedMove.to(undo.move);
+        Piece piece = undo.piece;
+        pieces[to] = null;
+        pieces[from] = piece;
+        piece.setPosition(Bitboards.position(from));
+        if (!undo.wasKing) {
+            piece.demote();
+        }
+        int i = 0;
+        for (int mask = PackedMove.captured(undo.move); mask != 0; mask &= mask - 1) {
+            pieces[Integer.numberOfTrailingZeros(mask)] = undo.captured[i];
+            undo.captured[i++] = null;
+        }
+        redMask = undo.redMask;
+        blackMask = undo.blackMask;
+        kingMask = undo.kingMask;
+        key = undo.key;
+    }
+
+    /**
+     * Crowns the piece on the given square, if any.
+     */
+    public void promote(Position pos) {
+        int sq = Bitboards.square(pos);
+        if (sq >= 0 && pieces[sq] != null) {
+            promote(sq);
+        }
+    }
+
+    private void promote(int sq) {
+        if ((kingMask & (1 << sq)) != 0)
+            return;
+        boolean red = pieces[sq].getColor() == PieceColor.RED;
+        pieces[sq].promote();
+        kingMask |= 1 << sq;
+        key ^= Zobrist.piece(sq, red, false) ^ Zobrist.piece(sq, red, true);
+    }
+
     public boolean isValidPosition(Position pos) {
         return pos.getRow() >= 0 && pos.getRow() < 8 && pos.getCol() >= 0 && pos.getCol() < 8;
     }
 
     public boolean isEmpty(Position pos) {
-        return isValidPosition(pos) && getPiece(pos) == null;
+        if (!isValidPosition(pos))
+            return false;
+        int sq = Bitboards.square(pos);
+        return sq < 0 || (getOccupied() & (1 << sq)) == 0;
     }
 
     public List<Piece> getAllPieces(PieceColor color) {
-        List<Piece> pieces = new ArrayList<>();
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                Piece piece = getPiece(new Position(row, col));
-                if (piece != null && piece.getColor() == color) {
-                    pieces.add(piece);
-                }
-            }
+        List<Piece> result = new ArrayList<>();
+        for (int mask = getPieces(color); mask != 0; mask &= mask - 1) {
+            result.add(pieces[Integer.numberOfTrailingZeros(mask)]);
         }
-        return pieces;
+        return result;
+    }
+
+    // --- Bitboard access ---
+
+    /**
+     * @return the mask of squares holding pieces of the given color.
+     */
+    public int getPieces(PieceColor color) {
+        return color == PieceColor.RED ? redMask : blackMask;
+    }
+
+    /**
+     * @return the mask of squares holding kings of either color.
+     */
+    public int getKings() {
+        return kingMask;
+    }
+
+    public int getOccupied() {
+        return redMask | blackMask;
+    }
+
+    public int getEmpty() {
+        return ~(redMask | blackMask);
+    }
+
+    /**
+     * @return the mask of the given side's pieces that can make a non-jump move.
+     */
+    public int getMovers(PieceColor color) {
+        return Bitboards.movers(getPieces(color), kingMask, getEmpty(), color == PieceColor.RED);
+    }
+
+    /**
+     * @return the mask of the given side's pieces that can make a jump.
+     */
+    public int getJumpers(PieceColor color) {
+        return Bitboards.jumpers(getPieces(color), getPieces(color.opposite()), kingMask, getEmpty(),
+                color == PieceColor.RED);
+    }
+
+    /**
+     * @return true if the given side has at least one legal move.
+     */
+    public boolean hasMoves(PieceColor color) {
+        return (getMovers(color) | getJumpers(color)) != 0;
+    }
+
+    /**
+     * @return the Zobrist key of the pieces on the board, maintained incrementally.
+     *         It does not include the side to move.
+     * @see Zobrist
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * @return the piece on the given square index, or null.
+     */
+    Piece getPiece(int sq) {
+        return pieces[sq];
+    }
+
+    private void put(int sq, Piece piece) {
+        int bit = 1 << sq;
+        pieces[sq] = piece;
+        if (piece.getColor() == PieceColor.RED) {
+            redMask |= bit;
+        } else {
+            blackMask |= bit;
+        }
+        if (piece.isKing()) {
+            kingMask |= bit;
+        }
+        key ^= Zobrist.piece(sq, piece.getColor() == PieceColor.RED, piece.isKing());
+        piece.setPosition(Bitboards.position(sq));
+    }
+
+    private void clear(int sq) {
+        Piece piece = pieces[sq];
+        if (piece == null)
+            return;
+        key ^= Zobrist.piece(sq, piece.getColor() == PieceColor.RED, (kingMask & (1 << sq)) != 0);
+        int bit = ~(1 << sq);
+        pieces[sq] = null;
+        redMask &= bit;
+        blackMask &= bit;
+        kingMask &= bit;
     }
-}
\ No newline at end of file
+}
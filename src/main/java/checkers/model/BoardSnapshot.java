@@ -0,0 +1,110 @@
+package checkers.model;
+
+/**
+ * An unchangeable copy of a game's position: the square masks of the pieces,
+ * the side to move, the number of moves made and the game's state.
+ * <p>
+ * A {@link Game} makes a new snapshot after every change and publishes it
+ * through a volatile field, so any thread can read a consistent position
+ * with {@link Game#getSnapshot()} while another thread plays moves.
+ */
+public final class BoardSnapshot {
+
+    private final int red;
+    private final int black;
+    private final int kings;
+    private final long key;
+    private final PieceColor sideToMove;
+    private final int moveCount;
+    private final GameState state;
+
+    BoardSnapshot(Board board, PieceColor sideToMove, int moveCount, GameState state) {
+        this.red = board.getPieces(PieceColor.RED);
+        this.black = board.getPieces(PieceColor.BLACK);
+        this.kings = board.getKings();
+        this.key = board.getKey();
+        this.sideToMove = sideToMove;
+        this.moveCount = moveCount;
+        this.state = state;
+    }
+
+    /**
+     * @return The mask of squares holding pieces of the given color.
+     */
+    public int getPieces(PieceColor color) {
+        return color == PieceColor.RED ? red : black;
+    }
+
+    /**
+     * @return The mask of squares holding kings of either color.
+     */
+    public int getKings() {
+        return kings;
+    }
+
+    /**
+     * @return The Zobrist key of the pieces, without the side to move.
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * @return The side to move, or null if the game has not been started.
+     */
+    public PieceColor getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * @return The number of moves made since the game was started.
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public GameState getState() {
+        return state;
+    }
+
+    /**
+     * @return The color of the piece on a square, or null if there is none.
+     */
+    public PieceColor getColor(Position pos) {
+        int sq = Bitboards.square(pos);
+        if (sq < 0) {
+            return null;
+        }
+        return (red & 1 << sq) != 0 ? PieceColor.RED : (black & 1 << sq) != 0 ? PieceColor.BLACK : null;
+    }
+
+    /**
+     * @return true if a king stands on a square.
+     */
+    public boolean isKing(Position pos) {
+        int sq = Bitboards.square(pos);
+        return sq >= 0 && (kings & 1 << sq) != 0;
+    }
+
+    /**
+     * @return A new board with the snapshot's pieces on it.
+     */
+    public Board toBoard() {
+        Board board = new Board();
+        for (int mask = red | black; mask != 0; mask &= mask - 1) {
+            int sq = Integer.numberOfTrailingZeros(mask);
+            Position pos = Bitboards.position(sq);
+            Piece piece = new Piece((red & 1 << sq) != 0 ? PieceColor.RED : PieceColor.BLACK, pos);
+            if ((kings & 1 << sq) != 0) {
+                piece.promote();
+            }
+            board.setPiece(pos, piece);
+        }
+        return board;
+    }
+
+    @Override
+    public String toString() {
+        return sideToMove == null ? "not started" : Fen.format(toBoard(), sideToMove);
+    }
+}
@@ -0,0 +1,122 @@
+package checkers.model;
+
+/**
+ * Reads and writes positions in PDN FEN notation, for example
+ * {@code W:W21,22,K30:B1,K2}.
+ * <p>
+ * Squares are numbered 1-32 row by row from the top-left (see {@link Bitboards});
+ * a {@code K} prefix marks a king. PDN calls the two sides White and Black:
+ * White is {@link PieceColor#RED}, which starts on squares 21-32.
+ */
+public final class Fen {
+
+    private Fen() {
+    }
+
+    /**
+     * Sets up the board from a FEN string, replacing whatever was on it.
+     * The whole string is read before the board is touched, so the board is
+     * left as it was if the string is not valid.
+     * @param fen The position to load.
+     * @param board The board to fill.
+     * @return The side to move.
+     * @throws CheckersException if the string is not valid FEN.
+     */
+    public static PieceColor parse(String fen, Board board) throws CheckersException {
+        String[] fields = fen.trim().replace("\"", "").split(":");
+        if (fields.length < 1 || fields[0].isEmpty()) {
+            throw new CheckersException("Empty FEN: " + fen);
+        }
+        PieceColor sideToMove = parseColor(fields[0], fen);
+        int red = 0;
+        int black = 0;
+        int kings = 0;
+        for (int i = 1; i < fields.length; i++) {
+            String field = fields[i].trim();
+            if (field.isEmpty()) {
+                continue;
+            }
+            PieceColor color = parseColor(field.substring(0, 1), fen);
+            String squares = field.substring(1);
+            if (squares.isEmpty()) {
+                continue;
+            }
+            for (String token : squares.split(",")) {
+                token = token.trim();
+                boolean king = token.startsWith("K");
+                int bit = 1 << parseSquare(king ? token.substring(1) : token, token, fen);
+                // A square given twice holds the last piece given for it
+                red = color == PieceColor.RED ? red | bit : red & ~bit;
+                black = color == PieceColor.BLACK ? black | bit : black & ~bit;
+                kings = king ? kings | bit : kings & ~bit;
+            }
+        }
+        board.clear();
+        for (int mask = red | black; mask != 0; mask &= mask - 1) {
+            int sq = Integer.numberOfTrailingZeros(mask);
+            Position pos = Bitboards.position(sq);
+            Piece piece = new Piece((red & 1 << sq) != 0 ? PieceColor.RED : PieceColor.BLACK, pos);
+            if ((kings & 1 << sq) != 0) {
+                piece.promote();
+            }
+            board.setPiece(pos, piece);
+        }
+        return sideToMove;
+    }
+
+    /**
+     * Writes the board and side to move as a FEN string.
+     */
+    public static String format(Board board, PieceColor sideToMove) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(colorCode(sideToMove));
+        appendPieces(sb, board, PieceColor.RED);
+        appendPieces(sb, board, PieceColor.BLACK);
+        return sb.toString();
+    }
+
+    private static int parseSquare(String number, String token, String fen) throws CheckersException {
+        int sq;
+        try {
+            sq = Integer.parseInt(number) - 1;
+        } catch (NumberFormatException e) {
+            throw new CheckersException("Bad square '" + token + "' in FEN: " + fen, e);
+        }
+        if (sq < 0 || sq >= Bitboards.SQUARES) {
+            throw new CheckersException("Square out of range '" + token + "' in FEN: " + fen);
+        }
+        return sq;
+    }
+
+    private static void appendPieces(StringBuilder sb, Board board, PieceColor color) {
+        sb.append(':').append(colorCode(color));
+        int kings = board.getKings();
+        boolean first = true;
+        for (int mask = board.getPieces(color); mask != 0; mask &= mask - 1) {
+            int sq = Integer.numberOfTrailingZeros(mask);
+            if (!first) {
+                sb.append(',');
+            }
+            if ((kings & (1 << sq)) != 0) {
+                sb.append('K');
+            }
+            sb.append(sq + 1);
+            first = false;
+        }
+    }
+
+    private static PieceColor parseColor(String code, String fen) throws CheckersException {
+        switch (code.trim().toUpperCase()) {
+            case "W":
+                return PieceColor.RED;
+            case "B":
+                return PieceColor.BLACK;
+            default:
+                throw new CheckersException("Unknown side '" + code + "' in FEN: " + fen);
+        }
+    }
+
+    private static char colorCode(PieceColor color) {
+        return color == PieceColor.RED ? 'W' : 'B';
+    }
+}
@@ -3,12 +3,45 @@ package checkers.model;
 import java.util.ArrayList;
 import java.util.List;
 
+import checkers.metrics.GameEndEvent;
+import checkers.metrics.Metrics;
+import checkers.metrics.MoveGenerationEvent;
+import checkers.metrics.MoveValidationEvent;
+
+/**
+ * A game of checkers: the board, the players and the moves made.
+ * <p>
+ * A game is changed by one thread at a time. Other threads may follow it
+ * through {@link #getSnapshot()}, which returns the position as of the last
+ * change without taking a lock; the board itself must not be read while
+ * another thread is moving.
+ * <p>
+ * Move generation, move checking and the end of the game are reported to
+ * {@link Metrics} and as Flight Recorder events.
+ */
 public class Game {
       private Board board;
     private Player redPlayer;
     private Player blackPlayer;
     private Player currentPlayer;
     private GameState gameState;
+    private final long[] moveBuffer = new long[MoveGenerator.MAX_MOVES];
+    private final long[] pathBuffer = new long[MoveGenerator.MAX_MOVES];
+    private final List<UndoRecord> history = new ArrayList<>();
+    // The position the game was started from, or null for the opening
+    private String startPosition;
+
+    // Legal moves of the current player, recomputed only after the position changes
+    private final long[] legalMoves = new long[MoveGenerator.MAX_MOVES];
+    private final long[] legalPaths = new long[MoveGenerator.MAX_MOVES];
+    private int legalMoveCount;
+    private List<Move> legalMoveList;
+    // Bit (from * 32 + to) * 2 + (isJump ? 1 : 0) is set for every legal move
+    private final long[] legalKeys = new long[32];
+    private boolean gameOver;
+    private boolean movesValid;
+    // Replaced, never changed, after every change to the position or state
+    private volatile BoardSnapshot snapshot;
 
      /**
      * Constructor to initialize the game with two players.
@@ -23,47 +56,193 @@ public class Game {
         this.redPlayer = red;
         this.blackPlayer = black;
         this.gameState = GameState.NOT_STARTED;
+        publish();
     }
 
     /**
      * Starts the game, initializes the board, and sets the current player.
      */
     public void startGame() {
+        board.clear();
         board.initializeBoard();
+        history.clear();
+        startPosition = null;
         currentPlayer = redPlayer; // Red player typically starts
         gameState = GameState.IN_PROGRESS;
+        movesValid = false;
+        publish();
+    }
+
+    /**
+     * Starts the game from a given position instead of the opening.
+     * @param fen The position and side to move, in {@link Fen} notation.
+     * @throws CheckersException if the string is not valid FEN; the game
+     *         is then left as it was.
+     */
+    public void startGame(String fen) throws CheckersException {
+        // Fen.parse leaves the board as it was on a bad string, and nothing else is touched before it
+        PieceColor sideToMove = Fen.parse(fen, board);
+        history.clear();
+        startPosition = Fen.format(board, sideToMove);
+        currentPlayer = sideToMove == PieceColor.RED ? redPlayer : blackPlayer;
+        gameState = GameState.IN_PROGRESS;
+        movesValid = false;
+        if (isGameOver()) {
+            updateGameStateOnWin();
+        }
+        publish();
     }
 
     /**
      * Attempts to make a move on the board.
+     * A jump takes every piece along its path, and a man reaching the far row
+     * is crowned. The turn then passes to the other player.
      * @param move The move to be executed.
      * @return true if the move was successful, false otherwise.
      */
     public boolean makeMove(Move move) {
-        if (isGameOver() || !isValidMove(move)) {
-            return false;
-        }
+        return makeMove(move, true);
+    }
 
-        board.executeMove(move);
+    /**
+     * Makes a move, optionally without checking it against the legal moves.
+     * Replaying a trusted game record this way skips move generation; the move
+     * must still start on a piece of the current player, and a jump must name
+     * the pieces it captures.
+     * @param move The move to be executed.
+     * @param validate Whether to reject moves that are not legal.
+     * @return true if the move was made, false otherwise.
+     */
+    public boolean makeMove(Move move, boolean validate) {
+        long start = Metrics.start();
+        boolean made = validate ? makeCheckedMove(move) : makeUncheckedMove(move);
+        Metrics.MAKE_MOVE.stop(start);
+        return made;
+    }
 
-        // Promote piece if it reaches the opposite end
-        if (shouldPromote(move.getTo())) {
-            board.getPiece(move.getTo()).promote();
+    private boolean makeCheckedMove(Move move) {
+        if (isGameOver()) {
+            return false;
+        }
+        MoveValidationEvent event = new MoveValidationEvent();
+        event.begin();
+        int index = findLegalMove(move);
+        event.end();
+        if (event.shouldCommit()) {
+            event.from = Bitboards.square(move.getFrom()) + 1;
+            event.to = Bitboards.square(move.getTo()) + 1;
+            event.legal = index >= 0;
+            event.commit();
         }
+        if (index < 0) {
+            Metrics.count(Metrics.ILLEGAL_MOVES);
+            return false;
+        }
+
+        history.add(board.makeMove(legalMoves[index]));
+        nextPlayer();
 
         // Check for game over condition after the move
         if (isGameOver()) {
             updateGameStateOnWin();
-        } else {
-            // If the move was a jump and more jumps are possible, the turn doesn't switch
-            List<Move> possibleJumps = board.getPiece(move.getTo()).getPossibleJumps(board);
-            if (!move.isJump() || possibleJumps.isEmpty()) {
-                switchPlayer();
-            }
+            gameEnded();
+        }
+        publish();
+        return true;
+    }
+
+    private boolean makeUncheckedMove(Move move) {
+        Piece piece = board.getPiece(move.getFrom());
+        int to = Bitboards.square(move.getTo());
+        if (gameState != GameState.IN_PROGRESS || piece == null || piece.getColor() != currentPlayer.getColor()
+                || to < 0) {
+            return false;
+        }
+        List<Position> path = move.getPath();
+        boolean promotion = !piece.isKing() && move.getTo().getRow() == piece.getColor().getPromotionRow();
+        history.add(board.makeMove(PackedMove.of(Bitboards.square(move.getFrom()), to,
+                Bitboards.square(path.get(0)), move.getCapturedMask(), promotion)));
+        nextPlayer();
+
+        // The bitboard test is enough here and leaves the move cache cold
+        if (!board.hasMoves(PieceColor.RED) || !board.hasMoves(PieceColor.BLACK)) {
+            gameState = board.hasMoves(PieceColor.RED) ? GameState.RED_WINS : GameState.BLACK_WINS;
+            gameEnded();
+        }
+        publish();
+        return true;
+    }
+
+    /**
+     * Takes back the last move, restoring any captured pieces and the player to move.
+     * @return true if a move was taken back, false if no move has been made.
+     */
+    public boolean undoMove() {
+        if (history.isEmpty()) {
+            return false;
         }
+        UndoRecord undo = history.remove(history.size() - 1);
+        board.unmakeMove(undo);
+        currentPlayer = undo.getPiece().getColor() == PieceColor.RED ? redPlayer : blackPlayer;
+        gameState = GameState.IN_PROGRESS;
+        movesValid = false;
+        publish();
         return true;
     }
 
+    /**
+     * @return The number of moves that can be taken back with {@link #undoMove()}.
+     */
+    public int getMoveCount() {
+        return history.size();
+    }
+
+    /**
+     * @return The moves made since the game was started, in order.
+     */
+    public List<Move> getMoveHistory() {
+        List<Move> moves = new ArrayList<>(history.size());
+        for (UndoRecord undo : history) {
+            moves.add(PackedMove.toMove(undo.getMove()));
+        }
+        return moves;
+    }
+
+    /**
+     * @return The keys of the earlier positions the current one could still
+     *         repeat: those since the last capture or move of a man, oldest
+     *         first. A key has {@link Zobrist#SIDE} XORed in when black was to
+     *         move, as in the engine's keys.
+     */
+    public long[] getRepetitionKeys() {
+        int first = history.size();
+        while (first > 0) {
+            UndoRecord undo = history.get(first - 1);
+            if (!undo.wasKing || undo.capturedCount > 0) {
+                break;
+            }
+            first--;
+        }
+        long[] keys = new long[history.size() - first];
+        for (int i = first; i < history.size(); i++) {
+            UndoRecord undo = history.get(i);
+            keys[i - first] = undo.piece.getColor() == PieceColor.RED ? undo.key : undo.key ^ Zobrist.SIDE;
+        }
+        return keys;
+    }
+
+    /**
+     * @return The position the game was started from, in {@link Fen} notation.
+     */
+    public String getStartPosition() {
+        if (startPosition == null) {
+            Board opening = new Board();
+            opening.initializeBoard();
+            return Fen.format(opening, redPlayer.getColor());
+        }
+        return startPosition;
+    }
+
     /**
      * Gets all possible moves for the current player.
      * Prioritizes jumps over simple moves.
@@ -75,21 +254,46 @@ public class Game {
     
     /**
      * Gets all possible moves for a specific player.
+     * Multi-jump captures are returned as one move covering the whole sequence.
      * @param player The player whose moves to find.
      * @return A list of valid moves for the given player.
      */
     public List<Move> getPossibleMoves(Player player) {
-        List<Piece> pieces = board.getAllPieces(player.getColor());
-        List<Move> possibleJumps = new ArrayList<>();
-        List<Move> possibleSimpleMoves = new ArrayList<>();
-
-        for (Piece piece : pieces) {
-            possibleJumps.addAll(piece.getPossibleJumps(board));
-            possibleSimpleMoves.addAll(piece.getPossibleMoves(board));
+        long start = Metrics.start();
+        List<Move> moves;
+        if (player == currentPlayer) {
+            refreshLegalMoves();
+            if (legalMoveList == null) {
+                legalMoveList = toMoveList(legalMoves, legalPaths, legalMoveCount);
+            }
+            moves = new ArrayList<>(legalMoveList);
+        } else {
+            int count = MoveGenerator.generate(board, player.getColor(), moveBuffer, pathBuffer);
+            moves = toMoveList(moveBuffer, pathBuffer, count);
         }
+        Metrics.POSSIBLE_MOVES.stop(start);
+        return moves;
+    }
 
-        // If jumps are available, the player must take one
-        return possibleJumps.isEmpty() ? possibleSimpleMoves : possibleJumps;
+    /**
+     * Writes all legal moves for the current player into the buffer as
+     * {@link PackedMove} values, with captures as complete sequences.
+     * @param moves The buffer to fill, at least {@link MoveGenerator#MAX_MOVES} long.
+     * @return The number of moves written.
+     */
+    public int getPossibleMoves(long[] moves) {
+        long start = Metrics.start();
+        refreshLegalMoves();
+        System.arraycopy(legalMoves, 0, moves, 0, legalMoveCount);
+        Metrics.POSSIBLE_MOVES.stop(start);
+        return legalMoveCount;
+    }
+
+    /**
+     * @return The number of pieces the given color has on the board.
+     */
+    public int getPieceCount(PieceColor color) {
+        return Integer.bitCount(board.getPieces(color));
     }
 
     /**
@@ -97,7 +301,16 @@ public class Game {
      * @return true if the game is over, false otherwise.
      */
     public boolean isGameOver() {
-        return getPossibleMoves(redPlayer).isEmpty() || getPossibleMoves(blackPlayer).isEmpty();
+        long start = Metrics.start();
+        boolean over;
+        if (currentPlayer == null) {
+            over = !board.hasMoves(PieceColor.RED) || !board.hasMoves(PieceColor.BLACK);
+        } else {
+            refreshLegalMoves();
+            over = gameOver;
+        }
+        Metrics.GAME_OVER_CHECK.stop(start);
+        return over;
     }
 
     /**
@@ -108,10 +321,10 @@ public class Game {
         if (!isGameOver()) {
             return null;
         }
-        if (getPossibleMoves(redPlayer).isEmpty()) {
+        if (!board.hasMoves(PieceColor.RED)) {
             return blackPlayer;
         }
-        if (getPossibleMoves(blackPlayer).isEmpty()) {
+        if (!board.hasMoves(PieceColor.BLACK)) {
             return redPlayer;
         }
         return null; // Should not happen in standard checkers
@@ -119,9 +332,86 @@ public class Game {
 
     // --- Helper and Getter Methods ---
 
-    private boolean isValidMove(Move move) {
-        List<Move> validMoves = getPossibleMoves(currentPlayer);
-        return validMoves.contains(move);
+    /**
+     * Finds a move among the current player's legal moves.
+     * @return The index of the matching legal move, or -1 if the move is not legal.
+     */
+    private int findLegalMove(Move move) {
+        int from = Bitboards.square(move.getFrom());
+        int to = Bitboards.square(move.getTo());
+        if (from < 0 || to < 0) {
+            return -1;
+        }
+        refreshLegalMoves();
+        int bit = keyIndex(from, to, move.isJump());
+        if ((legalKeys[bit >>> 6] & (1L << bit)) == 0) {
+            return -1;
+        }
+        // Only a king's captures can share origin and destination; tell them apart by what they take
+        int match = -1;
+        for (int i = 0; i < legalMoveCount; i++) {
+            long legal = legalMoves[i];
+            if (PackedMove.from(legal) == from && PackedMove.to(legal) == to
+                    && PackedMove.isJump(legal) == move.isJump()) {
+                if (PackedMove.captured(legal) == move.getCapturedMask()) {
+                    return i;
+                }
+                if (match < 0) {
+                    match = i;
+                }
+            }
+        }
+        // A single-jump Move built from two positions names only the first capture
+        return Integer.bitCount(move.getCapturedMask()) > 1 ? -1 : match;
+    }
+
+    /**
+     * Regenerates the current player's legal moves if the position has changed
+     * since they were last generated.
+     */
+    private void refreshLegalMoves() {
+        if (movesValid) {
+            return;
+        }
+        long start = Metrics.start();
+        MoveGenerationEvent event = new MoveGenerationEvent();
+        event.begin();
+        for (int i = 0; i < legalMoveCount; i++) {
+            int bit = keyIndex(legalMoves[i]);
+            legalKeys[bit >>> 6] &= ~(1L << bit);
+        }
+        legalMoveCount = MoveGenerator.generate(board, currentPlayer.getColor(), legalMoves, legalPaths);
+        for (int i = 0; i < legalMoveCount; i++) {
+            int bit = keyIndex(legalMoves[i]);
+            legalKeys[bit >>> 6] |= 1L << bit;
+        }
+        legalMoveList = null;
+        gameOver = legalMoveCount == 0 || !board.hasMoves(currentPlayer.getColor().opposite());
+        movesValid = true;
+        Metrics.MOVE_GENERATION.stop(start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.side = currentPlayer.getColor().toString();
+            event.moves = legalMoveCount;
+            event.captures = legalMoveCount > 0 && PackedMove.isJump(legalMoves[0]);
+            event.commit();
+        }
+    }
+
+    private static int keyIndex(int from, int to, boolean isJump) {
+        return ((from << 5 | to) << 1) | (isJump ? 1 : 0);
+    }
+
+    private static int keyIndex(long packed) {
+        return keyIndex(PackedMove.from(packed), PackedMove.to(packed), PackedMove.isJump(packed));
+    }
+
+    private static List<Move> toMoveList(long[] moves, long[] paths, int count) {
+        List<Move> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(PackedMove.toMove(moves[i], paths[i]));
+        }
+        return list;
     }
     
     private void updateGameStateOnWin() {
@@ -135,16 +425,14 @@ public class Game {
         }
     }
 
-    private boolean shouldPromote(Position pos) {
-        Piece piece = board.getPiece(pos);
-        if (piece == null) return false;
-        if (piece.getColor() == PieceColor.RED && pos.getRow() == 7) {
-            return true;
+    private void gameEnded() {
+        Metrics.count(Metrics.GAMES_ENDED);
+        GameEndEvent event = new GameEndEvent();
+        if (event.shouldCommit()) {
+            event.result = gameState.toString();
+            event.moves = history.size();
+            event.commit();
         }
-        if (piece.getColor() == PieceColor.BLACK && pos.getRow() == 0) {
-            return true;
-        }
-        return false;
     }
 
     public Player getCurrentPlayer() {
@@ -152,7 +440,26 @@ public class Game {
     }
 
     public void switchPlayer() {
+        nextPlayer();
+        publish();
+    }
+
+    private void nextPlayer() {
         currentPlayer = (currentPlayer == redPlayer) ? blackPlayer : redPlayer;
+        movesValid = false;
+    }
+
+    /**
+     * @return The position as of the last change to the game. Safe to call
+     *         from any thread while the game is being played.
+     */
+    public BoardSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    private void publish() {
+        snapshot = new BoardSnapshot(board, currentPlayer == null ? null : currentPlayer.getColor(), history.size(),
+                gameState);
     }
 
 
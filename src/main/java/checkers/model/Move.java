@@ -1,55 +1,175 @@
 package checkers.model;
 
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Represents a move in a checkers game.
  * A move consists of moving a piece from one position to another,
- * and can be either a regular move or a jump (capture).
- */
-/**
- * Represents a move from one position to another.
+ * and can be either a regular move or a jump (capture). A jump is the whole
+ * capture sequence: it may pass over several landing squares and take
+ * several pieces.
+ * <p>
+ * The origin, destination and jump flag are stored as a single {@code short}:
+ * the squares as {@code row * 8 + col} in bits 0-5 and 6-11, and the jump flag
+ * in bit 12. Captured squares are an {@code int} mask over the dark squares and
+ * the landing squares a path in {@link PackedMove} form. Positions are looked up
+ * in the shared {@link Position} table, so equality and hashing are plain
+ * integer operations.
  */
 public class Move {
-    private final Position from;
-    private final Position to;
-    private final boolean isJump;
+    private static final int JUMP = 1 << 12;
+
+    private final short code;
+    private final int captured;
+    private final long path;
 
+    /**
+     * Creates a single step or a single jump. For a jump the captured piece
+     * is the one between the two positions.
+     * @throws IllegalArgumentException if either position is off the board.
+     */
     public Move(Position from, Position to, boolean isJump) {
-        this.from = from;
-        this.to = to;
-        this.isJump = isJump;
+        this((short) (index(from) | index(to) << 6 | (isJump ? JUMP : 0)));
+    }
+
+    private Move(short code) {
+        this.code = code;
+        int fromRow = (code >> 3) & 7;
+        int fromCol = code & 7;
+        int toRow = (code >> 9) & 7;
+        int toCol = (code >> 6) & 7;
+        int jumped = Bitboards.square((fromRow + toRow) / 2, (fromCol + toCol) / 2);
+        this.captured = (code & JUMP) != 0 && Math.abs(toRow - fromRow) == 2 && jumped >= 0 ? 1 << jumped : 0;
+        this.path = 0;
+    }
+
+    /**
+     * Creates a move from a {@link PackedMove} value.
+     * @param path the landing squares in {@link PackedMove} path form, or 0 to
+     *             work them out from the captured squares.
+     */
+    Move(long packed, long path) {
+        Position from = Bitboards.position(PackedMove.from(packed));
+        Position to = Bitboards.position(PackedMove.to(packed));
+        this.code = (short) (index(from) | index(to) << 6 | (PackedMove.isJump(packed) ? JUMP : 0));
+        this.captured = PackedMove.captured(packed);
+        this.path = path != 0 ? path : derivePath(PackedMove.from(packed), PackedMove.to(packed), captured, 0);
+    }
+
+    /**
+     * Recreates a move from its {@link #toShort()} form.
+     */
+    public static Move fromShort(short code) {
+        return new Move(code);
+    }
+
+    /**
+     * @return The compact form of this move: origin, destination and jump flag.
+     *         Intermediate squares of a multi-jump are not included.
+     */
+    public short toShort() {
+        return code;
     }
 
     public Position getFrom() {
-        return from;
+        return Position.of((code >> 3) & 7, code & 7);
     }
 
     public Position getTo() {
-        return to;
+        return Position.of((code >> 9) & 7, (code >> 6) & 7);
     }
 
     public boolean isJump() {
-        return isJump;
+        return (code & JUMP) != 0;
     }
-    
+
+    /**
+     * @return The squares the piece lands on, in order; the last one is {@link #getTo()}.
+     */
+    public List<Position> getPath() {
+        if (path == 0) {
+            return List.of(getTo());
+        }
+        List<Position> squares = new ArrayList<>(PackedMove.pathLength(path));
+        for (int i = 0; i < PackedMove.pathLength(path); i++) {
+            squares.add(Bitboards.position(PackedMove.pathSquare(path, i)));
+        }
+        return squares;
+    }
+
+    /**
+     * @return The positions of the captured pieces, in the order they are jumped.
+     */
+    public List<Position> getCaptured() {
+        List<Position> squares = new ArrayList<>(Integer.bitCount(captured));
+        if (path == 0) {
+            for (int mask = captured; mask != 0; mask &= mask - 1) {
+                squares.add(Bitboards.position(Integer.numberOfTrailingZeros(mask)));
+            }
+            return squares;
+        }
+        Position at = getFrom();
+        for (Position landing : getPath()) {
+            squares.add(Position.of((at.getRow() + landing.getRow()) / 2, (at.getCol() + landing.getCol()) / 2));
+            at = landing;
+        }
+        return squares;
+    }
+
+    /**
+     * @return The captured squares as a mask over the dark squares (see {@link Bitboards}).
+     */
+    public int getCapturedMask() {
+        return captured;
+    }
+
+    /**
+     * Finds an order in which a piece can jump every captured square and end
+     * on {@code to}, ignoring other pieces on the board.
+     * @return the landing squares in {@link PackedMove} path form, or 0 if there is none.
+     */
+    private static long derivePath(int at, int to, int remaining, long path) {
+        if (remaining == 0) {
+            return at == to ? path : 0;
+        }
+        for (int direction = 0; direction < 4; direction++) {
+            int victim = MoveGenerator.shift(direction, 1 << at) & remaining;
+            int landing = MoveGenerator.shift(direction, victim);
+            if (landing != 0) {
+                long found = derivePath(Integer.numberOfTrailingZeros(landing), to, remaining & ~victim,
+                        PackedMove.appendPath(path, Integer.numberOfTrailingZeros(landing)));
+                if (found != 0) {
+                    return found;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static int index(Position pos) {
+        if ((pos.getRow() & ~7) != 0 || (pos.getCol() & ~7) != 0) {
+            throw new IllegalArgumentException("Position off the board: " + pos);
+        }
+        return pos.getRow() << 3 | pos.getCol();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Move move = (Move) o;
-        return isJump == move.isJump &&
-               Objects.equals(from, move.from) &&
-               Objects.equals(to, move.to);
+        return code == move.code && captured == move.captured;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(from, to, isJump);
+        return code * 31 + captured;
     }
 
     @Override
     public String toString() {
-        return "Move{" + "from=" + from + ", to=" + to + ", isJump=" + isJump + '}';
+        return "Move{" + "from=" + getFrom() + ", to=" + getTo() + ", isJump=" + isJump()
+                + (Integer.bitCount(captured) > 1 ? ", path=" + getPath() : "") + '}';
     }
-}
\ No newline at end of file
+}
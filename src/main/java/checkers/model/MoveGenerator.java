@@ -0,0 +1,200 @@
+package checkers.model;
+
+/**
+ * Allocation-free legal move generation over the board masks.
+ * <p>
+ * Moves are written as {@link PackedMove} values into a caller-supplied
+ * buffer, which can be reused between calls. Jumps are mandatory, so if any
+ * capture exists only captures are produced, each one a complete multi-jump
+ * sequence with every captured square, and optionally every landing square,
+ * in a single move. A man that reaches the far row is crowned and its move
+ * ends there.
+ */
+public final class MoveGenerator {
+
+    /** A buffer of this size holds the moves of any reachable position. */
+    public static final int MAX_MOVES = 128;
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Writes every legal move for the given side into the buffer.
+     * @param board the position.
+     * @param color the side to move.
+     * @param moves the buffer to fill, at least {@link #MAX_MOVES} long.
+     * @return the number of moves written.
+     */
+    public static int generate(Board board, PieceColor color, long[] moves) {
+        return generate(board, color, moves, null);
+    }
+
+    /**
+     * Writes every legal move for the given side into the buffer, along with
+     * the landing squares of each move.
+     * @see #generate(int, int, int, boolean, long[], long[])
+     */
+    public static int generate(Board board, PieceColor color, long[] moves, long[] paths) {
+        return generate(board.getPieces(color), board.getPieces(color.opposite()), board.getKings(),
+                color == PieceColor.RED, moves, paths);
+    }
+
+    /**
+     * Writes every legal move for the given masks into the buffer.
+     * @param own the moving side's pieces.
+     * @param opponent the opponent's pieces.
+     * @param kings all kings on the board.
+     * @param red true if the moving side is red (men move towards row 0).
+     * @param moves the buffer to fill, at least {@link #MAX_MOVES} long.
+     * @return the number of moves written.
+     */
+    public static int generate(int own, int opponent, int kings, boolean red, long[] moves) {
+        return generate(own, opponent, kings, red, moves, null);
+    }
+
+    /**
+     * Writes every legal move for the given masks into the buffer, along with
+     * the landing squares of each move.
+     * @param paths a buffer the same size as {@code moves} that receives each
+     *              move's landing squares in {@link PackedMove} path form, or null.
+     * @return the number of moves written.
+     */
+    public static int generate(int own, int opponent, int kings, boolean red, long[] moves, long[] paths) {
+        int count = generateJumps(own, opponent, kings, red, moves, paths);
+        if (count != 0) {
+            return count;
+        }
+        count = generateSimpleMoves(own, opponent, kings, red, moves);
+        if (paths != null) {
+            for (int i = 0; i < count; i++) {
+                paths[i] = PackedMove.appendPath(0, PackedMove.to(moves[i]));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes every complete capture sequence for the given masks into the buffer.
+     * @return the number of moves written.
+     */
+    public static int generateJumps(int own, int opponent, int kings, boolean red, long[] moves) {
+        return generateJumps(own, opponent, kings, red, moves, null);
+    }
+
+    private static int generateJumps(int own, int opponent, int kings, boolean red, long[] moves, long[] paths) {
+        int empty = ~(own | opponent);
+        int count = 0;
+        for (int mask = Bitboards.jumpers(own, opponent, kings, empty, red); mask != 0; mask &= mask - 1) {
+            int from = Integer.numberOfTrailingZeros(mask);
+            int bit = 1 << from;
+            boolean king = (kings & bit) != 0;
+            // The moving piece leaves its square, so a king may finish a circuit where it started
+            count = extendJump(from, from, 0, 0, opponent, empty | bit, king, red, moves, paths, count, count);
+        }
+        return count;
+    }
+
+    /**
+     * Writes every non-jump move for the given masks into the buffer,
+     * regardless of whether a capture is available.
+     * @return the number of moves written.
+     */
+    public static int generateSimpleMoves(int own, int opponent, int kings, boolean red, long[] moves) {
+        int empty = ~(own | opponent);
+        int up = red ? own : own & kings;
+        int down = red ? own & kings : own;
+        int promotionRow = red ? Bitboards.TOP_ROW : Bitboards.BOTTOM_ROW;
+        int count = 0;
+        for (int to = Bitboards.upLeft(up) & empty; to != 0; to &= to - 1) {
+            count = addSimple(Bitboards.downRight(to & -to), to & -to, kings, promotionRow, moves, count);
+        }
+        for (int to = Bitboards.upRight(up) & empty; to != 0; to &= to - 1) {
+            count = addSimple(Bitboards.downLeft(to & -to), to & -to, kings, promotionRow, moves, count);
+        }
+        for (int to = Bitboards.downLeft(down) & empty; to != 0; to &= to - 1) {
+            count = addSimple(Bitboards.upRight(to & -to), to & -to, kings, promotionRow, moves, count);
+        }
+        for (int to = Bitboards.downRight(down) & empty; to != 0; to &= to - 1) {
+            count = addSimple(Bitboards.upLeft(to & -to), to & -to, kings, promotionRow, moves, count);
+        }
+        return count;
+    }
+
+    private static int addSimple(int fromBit, int toBit, int kings, int promotionRow, long[] moves, int count) {
+        int from = Integer.numberOfTrailingZeros(fromBit);
+        int to = Integer.numberOfTrailingZeros(toBit);
+        boolean promotion = (kings & fromBit) == 0 && (promotionRow & toBit) != 0;
+        moves[count] = PackedMove.of(from, to, to, 0, promotion);
+        return count + 1;
+    }
+
+    /**
+     * Extends a capture sequence from square {@code at} in every allowed
+     * direction, depth first, and emits it once it can go no further. The
+     * recursion itself is the search stack, so nothing is allocated.
+     * @param path the landing squares so far, in {@link PackedMove} path form.
+     * @param first index of the first move of the current piece in the buffer, for de-duplication.
+     */
+    private static int extendJump(int from, int at, int captured, long path, int opponent, int empty, boolean king,
+                                  boolean red, long[] moves, long[] paths, int count, int first) {
+        int bit = 1 << at;
+        int targets = opponent & ~captured;
+        boolean extended = false;
+        // Directions 0-1 lead towards row 0, 2-3 towards row 7
+        int firstDirection = king || red ? 0 : 2;
+        int lastDirection = king || !red ? 3 : 1;
+        for (int direction = firstDirection; direction <= lastDirection; direction++) {
+            int victim = shift(direction, bit) & targets;
+            if (victim == 0) {
+                continue;
+            }
+            int landing = shift(direction, victim) & empty;
+            if (landing == 0) {
+                continue;
+            }
+            extended = true;
+            int to = Integer.numberOfTrailingZeros(landing);
+            long nextPath = PackedMove.appendPath(path, to);
+            if (!king && (landing & (red ? Bitboards.TOP_ROW : Bitboards.BOTTOM_ROW)) != 0) {
+                // Crowning ends the move
+                count = emit(from, to, captured | victim, true, nextPath, moves, paths, count, first);
+            } else {
+                count = extendJump(from, to, captured | victim, nextPath, opponent, empty, king, red, moves, paths,
+                        count, first);
+            }
+        }
+        if (!extended && captured != 0) {
+            count = emit(from, at, captured, false, path, moves, paths, count, first);
+        }
+        return count;
+    }
+
+    private static int emit(int from, int to, int captured, boolean promotion, long path, long[] moves, long[] paths,
+                            int count, int first) {
+        long move = PackedMove.of(from, to, PackedMove.pathSquare(path, 0), captured, promotion);
+        // A king can take the same pieces in a different order; keep one of them
+        for (int i = first; i < count; i++) {
+            if (moves[i] == move) {
+                return count;
+            }
+        }
+        moves[count] = move;
+        if (paths != null) {
+            paths[count] = path;
+        }
+        return count + 1;
+    }
+
+    static int shift(int direction, int mask) {
+        switch (direction) {
+            case 0:
+                return Bitboards.upLeft(mask);
+            case 1:
+                return Bitboards.upRight(mask);
+            case 2:
+                return Bitboards.downLeft(mask);
+            default:
+                return Bitboards.downRight(mask);
+        }
+    }
+}
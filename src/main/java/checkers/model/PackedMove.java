@@ -0,0 +1,103 @@
+package checkers.model;
+
+/**
+ * Static helpers for moves packed into a single {@code long}.
+ * <p>
+ * Layout, using the square indices of {@link Bitboards}:
+ * <pre>
+ *  bits  0-4   origin square
+ *  bits  5-9   destination square
+ *  bits 10-14  landing square of the first hop (equals the destination for non-jumps)
+ *  bit  15     promotion flag
+ *  bits 32-63  mask of captured squares (zero for non-jumps)
+ * </pre>
+ * Two packed moves are equal exactly when they move the same piece to the same
+ * square over the same first hop and capture the same pieces.
+ * <p>
+ * The landing squares of a move can be carried in a second {@code long}, the
+ * path: the number of squares in bits 0-3, then five bits per square from bit 4,
+ * in the order the piece lands on them. The last one is the destination.
+ */
+public final class PackedMove {
+
+    private static final int SQUARE_BITS = 0x1F;
+    private static final long PROMOTION = 1L << 15;
+
+    private PackedMove() {
+    }
+
+    public static long of(int from, int to, int via, int captured, boolean promotion) {
+        return from | (to << 5) | (via << 10) | (promotion ? PROMOTION : 0L) | ((long) captured << 32);
+    }
+
+    public static int from(long move) {
+        return (int) move & SQUARE_BITS;
+    }
+
+    public static int to(long move) {
+        return (int) (move >>> 5) & SQUARE_BITS;
+    }
+
+    /**
+     * @return the square the piece lands on after its first hop.
+     */
+    public static int via(long move) {
+        return (int) (move >>> 10) & SQUARE_BITS;
+    }
+
+    public static int captured(long move) {
+        return (int) (move >>> 32);
+    }
+
+    public static boolean isJump(long move) {
+        return captured(move) != 0;
+    }
+
+    public static boolean isPromotion(long move) {
+        return (move & PROMOTION) != 0;
+    }
+
+    /**
+     * Converts a packed move to a {@link Move}. The landing squares are
+     * worked out from the captured squares.
+     */
+    public static Move toMove(long move) {
+        return new Move(move, 0);
+    }
+
+    /**
+     * Converts a packed move and its path to a {@link Move}.
+     */
+    public static Move toMove(long move, long path) {
+        return new Move(move, path);
+    }
+
+    // --- Paths ---
+
+    /**
+     * @return the path with one more landing square added at the end.
+     */
+    public static long appendPath(long path, int sq) {
+        int length = pathLength(path);
+        return ((path & ~0xFL) | ((long) sq << (4 + 5 * length))) + length + 1;
+    }
+
+    public static int pathLength(long path) {
+        return (int) path & 0xF;
+    }
+
+    /**
+     * @return the i-th landing square of the path.
+     */
+    public static int pathSquare(long path, int i) {
+        return (int) (path >>> (4 + 5 * i)) & SQUARE_BITS;
+    }
+
+    /**
+     * Formats a move in square-number notation (squares numbered 1-32),
+     * e.g. {@code 9-14} or {@code 9x18}.
+     */
+    public static String toString(long move) {
+        return (from(move) + 1) + (isJump(move) ? "x" : "-") + (to(move) + 1);
+    }
+}
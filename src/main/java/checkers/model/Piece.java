@@ -19,17 +19,15 @@ public class Piece {
      */
     public List<Move> getPossibleMoves(Board board) {
         List<Move> moves = new ArrayList<>();
-        int currentRow = position.getRow();
-        int currentCol = position.getCol();
-        int[] rowDirections = isKing ? new int[]{-1, 1} : (color == PieceColor.RED ? new int[]{-1} : new int[]{1});
-
-        for (int rowDir : rowDirections) {
-            for (int colDir : new int[]{-1, 1}) {
-                Position to = new Position(currentRow + rowDir, currentCol + colDir);
-                if (board.isValidPosition(to) && board.isEmpty(to)) {
-                    moves.add(new Move(position, to, false));
-                }
-            }
+        int bit = 1 << Bitboards.square(position);
+        int empty = board.getEmpty();
+        if (canMoveUp()) {
+            addMove(moves, Bitboards.upLeft(bit) & empty, false);
+            addMove(moves, Bitboards.upRight(bit) & empty, false);
+        }
+        if (canMoveDown()) {
+            addMove(moves, Bitboards.downLeft(bit) & empty, false);
+            addMove(moves, Bitboards.downRight(bit) & empty, false);
         }
         return moves;
     }
@@ -39,24 +37,32 @@ public class Piece {
      */
     public List<Move> getPossibleJumps(Board board) {
         List<Move> jumps = new ArrayList<>();
-        int currentRow = position.getRow();
-        int currentCol = position.getCol();
-        int[] rowDirections = isKing ? new int[]{-1, 1} : (color == PieceColor.RED ? new int[]{-1} : new int[]{1});
+        int bit = 1 << Bitboards.square(position);
+        int empty = board.getEmpty();
+        int opponent = board.getPieces(color.opposite());
+        if (canMoveUp()) {
+            addMove(jumps, Bitboards.upLeft(Bitboards.upLeft(bit) & opponent) & empty, true);
+            addMove(jumps, Bitboards.upRight(Bitboards.upRight(bit) & opponent) & empty, true);
+        }
+        if (canMoveDown()) {
+            addMove(jumps, Bitboards.downLeft(Bitboards.downLeft(bit) & opponent) & empty, true);
+            addMove(jumps, Bitboards.downRight(Bitboards.downRight(bit) & opponent) & empty, true);
+        }
+        return jumps;
+    }
 
-        for (int rowDir : rowDirections) {
-            for (int colDir : new int[]{-1, 1}) {
-                Position opponentPos = new Position(currentRow + rowDir, currentCol + colDir);
-                Position to = new Position(currentRow + 2 * rowDir, currentCol + 2 * colDir);
+    private boolean canMoveUp() {
+        return isKing || color == PieceColor.RED;
+    }
 
-                if (board.isValidPosition(to) && board.isEmpty(to)) {
-                    Piece opponentPiece = board.getPiece(opponentPos);
-                    if (opponentPiece != null && opponentPiece.getColor() != this.color) {
-                        jumps.add(new Move(position, to, true));
-                    }
-                }
-            }
+    private boolean canMoveDown() {
+        return isKing || color == PieceColor.BLACK;
+    }
+
+    private void addMove(List<Move> moves, int target, boolean isJump) {
+        if (target != 0) {
+            moves.add(new Move(position, Bitboards.position(Integer.numberOfTrailingZeros(target)), isJump));
         }
-        return jumps;
     }
 
     public PieceColor getColor() {
@@ -71,6 +77,13 @@ public class Piece {
         this.isKing = true;
     }
 
+    /**
+     * Reverses a promotion when a move is taken back.
+     */
+    void demote() {
+        this.isKing = false;
+    }
+
     public Position getPosition() {
         return position;
     }
@@ -1,11 +1,20 @@
 package checkers.model;
 
-import java.util.Objects;
-
 /**
  * Represents a position (row, col) on the board.
+ * <p>
+ * The 64 on-board positions are shared instances obtained through
+ * {@link #of(int, int)}, so board code never needs to allocate them.
  */
 public class Position {
+    private static final Position[] BOARD = new Position[64];
+
+    static {
+        for (int i = 0; i < BOARD.length; i++) {
+            BOARD[i] = new Position(i >> 3, i & 7);
+        }
+    }
+
     private final int row;
     private final int col;
 
@@ -14,6 +23,17 @@ public class Position {
         this.col = col;
     }
 
+    /**
+     * Returns the position for the given coordinates. On-board positions are
+     * shared instances; off-board coordinates get a new object.
+     */
+    public static Position of(int row, int col) {
+        if ((row & ~7) == 0 && (col & ~7) == 0) {
+            return BOARD[row << 3 | col];
+        }
+        return new Position(row, col);
+    }
+
     public int getRow() {
         return row;
     }
@@ -32,11 +52,11 @@ public class Position {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        return row * 8 + col;
     }
 
     @Override
     public String toString() {
         return "(" + row + ", " + col + ")";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package checkers.model;
+
+/**
+ * Everything {@link Board#unmakeMove(UndoRecord)} needs to take a move back.
+ * <p>
+ * Records are mutable and meant to be reused: a search can allocate one per
+ * ply up front and pass it to {@link Board#makeMove(long, UndoRecord)} again
+ * and again.
+ */
+public class UndoRecord {
+
+    /** No move can capture more pieces than one side starts with. */
+    static final int MAX_CAPTURES = 12;
+
+    long move;
+    int redMask;
+    int blackMask;
+    int kingMask;
+    long key;
+    Piece piece;
+    boolean wasKing;
+    final Piece[] captured = new Piece[MAX_CAPTURES];
+    int capturedCount;
+
+    /**
+     * @return the move that was made, as a {@link PackedMove} value.
+     */
+    public long getMove() {
+        return move;
+    }
+
+    /**
+     * @return the piece that moved.
+     */
+    public Piece getPiece() {
+        return piece;
+    }
+
+    /**
+     * @return true if the move crowned the piece.
+     */
+    public boolean isPromotion() {
+        return PackedMove.isPromotion(move);
+    }
+
+    public int getCapturedCount() {
+        return capturedCount;
+    }
+
+    /**
+     * @return the i-th captured piece, in square order.
+     */
+    public Piece getCaptured(int i) {
+        return captured[i];
+    }
+}
@@ -0,0 +1,90 @@
+package checkers.model;
+
+/**
+ * 64-bit Zobrist keys for board positions.
+ * <p>
+ * A position's key is the XOR of one random value per (piece kind, square)
+ * pair, so it can be updated incrementally as pieces come and go. The values
+ * come from a fixed seed, which keeps keys stable between runs and lets them
+ * be stored in files. {@link Board} keys do not include the side to move;
+ * searches that need it XOR in {@link #SIDE} when black is to move.
+ */
+public final class Zobrist {
+
+    /** XORed into a key when black is to move. */
+    public static final long SIDE;
+
+    private static final long[] RED_MAN = new long[Bitboards.SQUARES];
+    private static final long[] RED_KING = new long[Bitboards.SQUARES];
+    private static final long[] BLACK_MAN = new long[Bitboards.SQUARES];
+    private static final long[] BLACK_KING = new long[Bitboards.SQUARES];
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    static {
+        long state = 0x2545F4914F6CDD1DL;
+        for (int sq = 0; sq < Bitboards.SQUARES; sq++) {
+            RED_MAN[sq] = mix(state += GOLDEN_GAMMA);
+            RED_KING[sq] = mix(state += GOLDEN_GAMMA);
+            BLACK_MAN[sq] = mix(state += GOLDEN_GAMMA);
+            BLACK_KING[sq] = mix(state += GOLDEN_GAMMA);
+        }
+        SIDE = mix(state + GOLDEN_GAMMA);
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @return the key of a single piece on a square.
+     */
+    public static long piece(int sq, boolean red, boolean king) {
+        if (red) {
+            return king ? RED_KING[sq] : RED_MAN[sq];
+        }
+        return king ? BLACK_KING[sq] : BLACK_MAN[sq];
+    }
+
+    /**
+     * Computes a key from scratch, without the side to move.
+     */
+    public static long hash(int red, int black, int kings) {
+        long key = 0;
+        for (int mask = red; mask != 0; mask &= mask - 1) {
+            int sq = Integer.numberOfTrailingZeros(mask);
+            key ^= piece(sq, true, (kings & (1 << sq)) != 0);
+        }
+        for (int mask = black; mask != 0; mask &= mask - 1) {
+            int sq = Integer.numberOfTrailingZeros(mask);
+            key ^= piece(sq, false, (kings & (1 << sq)) != 0);
+        }
+        return key;
+    }
+
+    /**
+     * Updates a key for a packed move, including the change of side to move.
+     * @param key The key before the move.
+     * @param move The move, as a {@link PackedMove} value.
+     * @param red True if red is making the move.
+     * @param kings All kings on the board before the move.
+     * @return The key after the move.
+     */
+    public static long update(long key, long move, boolean red, int kings) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        boolean king = (kings & (1 << from)) != 0;
+        key ^= piece(from, red, king) ^ piece(to, red, king || PackedMove.isPromotion(move)) ^ SIDE;
+        for (int mask = PackedMove.captured(move); mask != 0; mask &= mask - 1) {
+            int sq = Integer.numberOfTrailingZeros(mask);
+            key ^= piece(sq, !red, (kings & (1 << sq)) != 0);
+        }
+        return key;
+    }
+
+    /** SplitMix64 output function. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
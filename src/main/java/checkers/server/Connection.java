@@ -0,0 +1,129 @@
+package checkers.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A client of the server, served by two virtual threads: one reads its
+ * commands and one writes the lines queued for it.
+ * <p>
+ * Lines are queued without waiting, so a game never waits for a slow client.
+ * The writer sends whatever has piled up since its last write and flushes
+ * once, so a busy client gets its lines in batches. A client that falls
+ * {@value #MAX_PENDING} lines behind is disconnected.
+ */
+final class Connection {
+
+    private static final int MAX_PENDING = 4096;
+    private static final int MAX_BATCH = 256;
+    // Tells the writer to stop; compared by identity
+    private static final String CLOSE = new String("close");
+
+    private final GameServer server;
+    private final Socket socket;
+    private final BlockingQueue<String> outbound = new LinkedBlockingQueue<>(MAX_PENDING);
+    private final Set<GameRoom> rooms = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    Connection(GameServer server, Socket socket) {
+        this.server = server;
+        this.socket = socket;
+    }
+
+    /**
+     * Queues a line to send.
+     */
+    void send(String line) {
+        if (!closed && !outbound.offer(line)) {
+            close();
+        }
+    }
+
+    void joined(GameRoom room) {
+        rooms.add(room);
+    }
+
+    void left(GameRoom room) {
+        rooms.remove(room);
+    }
+
+    /**
+     * Reads commands until the client goes away, then leaves its games.
+     */
+    void readLoop() {
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String line = in.readLine(); line != null && !closed; line = in.readLine()) {
+                if (!server.execute(this, line)) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            // The client went away
+        } finally {
+            close();
+            for (GameRoom room : rooms) {
+                room.submit(() -> room.leave(this));
+            }
+        }
+    }
+
+    /**
+     * Sends queued lines until the connection is closed.
+     */
+    void writeLoop() {
+        List<String> batch = new ArrayList<>(MAX_BATCH);
+        try (BufferedWriter out = new BufferedWriter(
+                new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            while (true) {
+                batch.add(outbound.take());
+                outbound.drainTo(batch, MAX_BATCH - 1);
+                for (String line : batch) {
+                    if (line == CLOSE) {
+                        return;
+                    }
+                    out.write(line);
+                    out.write('\n');
+                }
+                out.flush();
+                batch.clear();
+            }
+        } catch (IOException e) {
+            // The client went away
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Closes the socket and stops the writer. Safe to call more than once.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // Make room for the stop signal if the client fell behind
+        while (!outbound.offer(CLOSE)) {
+            outbound.clear();
+        }
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+    }
+}
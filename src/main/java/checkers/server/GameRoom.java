@@ -0,0 +1,193 @@
+package checkers.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import checkers.io.PdnGame;
+import checkers.model.BoardSnapshot;
+import checkers.model.CheckersException;
+import checkers.model.Fen;
+import checkers.model.Game;
+import checkers.model.GameState;
+import checkers.model.Move;
+import checkers.model.PieceColor;
+
+/**
+ * One game on the server, with its players and spectators.
+ * <p>
+ * Everything that happens to a game is a command on the room's queue, and
+ * the commands are carried out one at a time, so a room needs no lock and
+ * rooms never wait for each other. The thread that submits a command to an
+ * idle room runs the queue until it is empty; a command only changes the
+ * game and queues lines on connections, so that is never long.
+ */
+final class GameRoom {
+
+    private final int id;
+    private final GameServer server;
+    private final Game game;
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Only touched by commands
+    private Connection red;
+    private Connection black;
+    private final List<Connection> spectators = new ArrayList<>();
+
+    GameRoom(int id, GameServer server, Game game) {
+        this.id = id;
+        this.server = server;
+        this.game = game;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    /**
+     * @return The game's position as of its last move. Safe to call from any
+     *         thread, without going through the queue.
+     */
+    BoardSnapshot getSnapshot() {
+        return game.getSnapshot();
+    }
+
+    /**
+     * Queues a command, and runs the queue if no other thread is.
+     */
+    void submit(Runnable command) {
+        commands.add(command);
+        // A command added just after the queue was found empty is picked up by the next pass
+        while (!commands.isEmpty() && running.compareAndSet(false, true)) {
+            try {
+                for (Runnable next = commands.poll(); next != null; next = commands.poll()) {
+                    next.run();
+                }
+            } finally {
+                running.set(false);
+            }
+        }
+    }
+
+    /**
+     * Makes the creator of the room a spectator, without telling it, so the
+     * room is closed like any other when its creator leaves and nobody else
+     * has joined. Called before the room is shared with other threads.
+     */
+    void addCreator(Connection creator) {
+        spectators.add(creator);
+        creator.joined(this);
+    }
+
+    /**
+     * Seats a connection as a player, or as a spectator for {@code watch}.
+     */
+    void join(Connection connection, String role) {
+        switch (role) {
+            case "red":
+                if (red != null && red != connection) {
+                    connection.send("error " + id + " Red is taken");
+                    return;
+                }
+                red = connection;
+                break;
+            case "black":
+                if (black != null && black != connection) {
+                    connection.send("error " + id + " Black is taken");
+                    return;
+                }
+                black = connection;
+                break;
+            case "watch":
+                if (!spectators.contains(connection)) {
+                    spectators.add(connection);
+                }
+                break;
+            default:
+                connection.send("error " + id + " Unknown role " + role);
+                return;
+        }
+        connection.joined(this);
+        connection.send("joined " + id + " " + role + " "
+                + Fen.format(game.getBoard(), game.getCurrentPlayer().getColor()));
+    }
+
+    /**
+     * Plays a move for the side a connection sits on, if it is legal, and
+     * tells everyone in the game.
+     */
+    void move(Connection connection, String text) {
+        if (game.getGameState() != GameState.IN_PROGRESS) {
+            connection.send("illegal " + id + " " + text + " The game is over");
+            return;
+        }
+        PieceColor side = game.getCurrentPlayer().getColor();
+        if ((side == PieceColor.RED ? red : black) != connection) {
+            connection.send("illegal " + id + " " + text + " Not your move");
+            return;
+        }
+        Move move;
+        try {
+            move = PdnGame.findLegalMove(game, PdnGame.parseMove(text));
+        } catch (CheckersException e) {
+            connection.send("illegal " + id + " " + text + " " + e.getMessage());
+            return;
+        }
+        if (move == null) {
+            connection.send("illegal " + id + " " + text + " Not a legal move");
+            return;
+        }
+        game.makeMove(move, false);
+        broadcast("moved " + id + " " + game.getMoveCount() + " " + PdnGame.toText(move));
+        if (game.getGameState() != GameState.IN_PROGRESS) {
+            broadcast("over " + id + " " + PdnGame.resultText(game.getGameState()));
+            server.remove(this);
+        }
+    }
+
+    /**
+     * Takes a connection out of the game and tells the others. A room nobody
+     * is left in is closed.
+     */
+    void leave(Connection connection) {
+        boolean wasRed = red == connection;
+        boolean wasBlack = black == connection;
+        if (wasRed) {
+            red = null;
+        }
+        if (wasBlack) {
+            black = null;
+        }
+        spectators.remove(connection);
+        connection.left(this);
+        if (wasRed) {
+            broadcast("left " + id + " red");
+        }
+        if (wasBlack) {
+            broadcast("left " + id + " black");
+        }
+        if (red == null && black == null && spectators.isEmpty()) {
+            server.remove(this);
+        }
+    }
+
+    /**
+     * Queues a line for everyone in the game, once per connection.
+     */
+    private void broadcast(String line) {
+        if (red != null) {
+            red.send(line);
+        }
+        if (black != null && black != red) {
+            black.send(line);
+        }
+        for (Connection spectator : spectators) {
+            if (spectator != red && spectator != black) {
+                spectator.send(line);
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package checkers.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import checkers.metrics.LatencyHistogram;
+import checkers.metrics.Metrics;
+import checkers.model.BoardSnapshot;
+import checkers.model.CheckersException;
+import checkers.model.Game;
+import checkers.model.PieceColor;
+import checkers.model.Player;
+
+/**
+ * Hosts many games at once for clients connecting over TCP.
+ * <p>
+ * Usage: {@code GameServer [--port N] [--bind ADDRESS] [--metrics]}; by default
+ * it listens on port {@value #DEFAULT_PORT} of the loopback address. The
+ * server registers the {@link Metrics} MBean, and {@code --metrics} turns the
+ * metrics on from the start.
+ * <p>
+ * Clients send one command per line and get lines back; moves are written as
+ * in PDN and positions in {@link checkers.model.Fen}:
+ * <pre>
+ * create [FEN]          created ID            a game from the usual start or a position
+ * join ID red|black     joined ID ROLE FEN    take a side; one client may take both
+ * watch ID              joined ID watch FEN
+ * position ID           position ID PLY FEN   the latest position, without joining
+ * move ID MOVE          moved ID PLY MOVE     to everyone in the game, followed by
+ *                                             over ID RESULT if the game ended
+ * leave ID              left ID ROLE          to the others, for a player
+ * stats                 stats games N moves N p50 NS p99 NS p999 NS max NS
+ * quit
+ * </pre>
+ * A move that cannot be played is answered with {@code illegal ID MOVE REASON}
+ * and any other mistake with {@code error [ID] MESSAGE}. The creator of a game
+ * watches it from the start, and a game is closed when it ends or everyone,
+ * the creator included, has left it or gone away; so a game nobody joins does
+ * not outlive its creator. {@code stats} gives the number of games open and
+ * percentiles of the {@link #getMoveLatency move latency}.
+ * <p>
+ * Each connection gets a virtual thread to read it and one to write it
+ * (see {@link Connection}), and each game a queue of commands that are
+ * carried out one at a time (see {@link GameRoom}). The only thing games
+ * share is the map of games by id.
+ */
+public class GameServer implements Closeable {
+
+    static final int DEFAULT_PORT = 5050;
+    private static final int BACKLOG = 4096;
+
+    private final ServerSocket serverSocket;
+    private final Map<Integer, GameRoom> rooms = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+
+    /**
+     * Opens the server's socket. Port 0 picks a free port.
+     */
+    public GameServer(InetAddress address, int port) throws IOException {
+        serverSocket = new ServerSocket(port, BACKLOG, address);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return The number of games open.
+     */
+    public int getGameCount() {
+        return rooms.size();
+    }
+
+    /**
+     * @return The time from reading each move to queueing the answer, in
+     *         nanoseconds: waiting for the game's earlier commands, checking
+     *         the move and playing it.
+     */
+    public LatencyHistogram getMoveLatency() {
+        return moveLatency;
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     */
+    public void serve() throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (serverSocket.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            socket.setTcpNoDelay(true);
+            Connection connection = new Connection(this, socket);
+            threads.execute(connection::readLoop);
+            threads.execute(connection::writeLoop);
+        }
+    }
+
+    /**
+     * Carries out a command from a client, on its reading thread.
+     * @return false if the client asked to quit.
+     */
+    boolean execute(Connection connection, String line) {
+        String[] tokens = line.trim().split("\\s+");
+        switch (tokens[0]) {
+            case "":
+                return true;
+            case "quit":
+                return false;
+            case "create":
+                create(connection, tokens.length > 1 ? tokens[1] : null);
+                return true;
+            case "stats":
+                connection.send("stats games " + rooms.size() + " moves " + moveLatency.getCount()
+                        + " p50 " + moveLatency.getPercentile(0.5) + " p99 " + moveLatency.getPercentile(0.99)
+                        + " p999 " + moveLatency.getPercentile(0.999) + " max " + moveLatency.getMax());
+                return true;
+            case "join":
+            case "watch":
+            case "move":
+            case "leave":
+            case "position":
+                break;
+            default:
+                connection.send("error Unknown command " + tokens[0]);
+                return true;
+        }
+
+        GameRoom room = tokens.length > 1 ? findRoom(tokens[1]) : null;
+        if (room == null) {
+            connection.send("error " + (tokens.length > 1 ? tokens[1] : "") + " No such game");
+            return true;
+        }
+        switch (tokens[0]) {
+            case "position":
+                // Read on this thread; the snapshot is consistent without waiting for the game's queue
+                BoardSnapshot position = room.getSnapshot();
+                connection.send("position " + room.getId() + " " + position.getMoveCount() + " " + position);
+                break;
+            case "join":
+                if (tokens.length < 3) {
+                    connection.send("error " + room.getId() + " Join as red or black");
+                } else {
+                    room.submit(() -> room.join(connection, tokens[2]));
+                }
+                break;
+            case "watch":
+                room.submit(() -> room.join(connection, "watch"));
+                break;
+            case "move":
+                if (tokens.length < 3) {
+                    connection.send("error " + room.getId() + " No move given");
+                } else {
+                    long received = System.nanoTime();
+                    room.submit(() -> {
+                        room.move(connection, tokens[2]);
+                        moveLatency.record(System.nanoTime() - received);
+                    });
+                }
+                break;
+            default:
+                room.submit(() -> room.leave(connection));
+        }
+        return true;
+    }
+
+    private void create(Connection connection, String fen) {
+        Game game = new Game(new Player("Red", PieceColor.RED), new Player("Black", PieceColor.BLACK));
+        if (fen == null) {
+            game.startGame();
+        } else {
+            try {
+                game.startGame(fen);
+            } catch (CheckersException e) {
+                connection.send("error " + e.getMessage());
+                return;
+            }
+        }
+        GameRoom room = new GameRoom(nextId.getAndIncrement(), this, game);
+        room.addCreator(connection);
+        rooms.put(room.getId(), room);
+        connection.send("created " + room.getId());
+    }
+
+    private GameRoom findRoom(String id) {
+        try {
+            return rooms.get(Integer.parseInt(id));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    void remove(GameRoom room) {
+        rooms.remove(room.getId());
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        threads.shutdownNow();
+    }
+
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        String bind = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--bind":
+                    bind = args[++i];
+                    break;
+                case "--metrics":
+                    Metrics.setEnabled(true);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+            }
+        }
+        try (GameServer server = new GameServer(
+                bind == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(bind), port)) {
+            Metrics.registerMBean();
+            System.err.println("Listening on port " + server.getPort());
+            server.serve();
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
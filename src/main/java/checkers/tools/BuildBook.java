@@ -0,0 +1,100 @@
+package checkers.tools;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import checkers.engine.OpeningBookBuilder;
+import checkers.io.ArchiveReader;
+import checkers.io.PdnGame;
+import checkers.io.PdnReader;
+import checkers.model.CheckersException;
+import checkers.model.Game;
+import checkers.model.PieceColor;
+import checkers.model.Player;
+
+/**
+ * Builds an opening book from recorded games.
+ * <p>
+ * Usage: {@code BuildBook [--pdn FILE]... [--archive FILE]... [--plies N]
+ * [--min-weight N] [--out FILE]}.
+ * Takes the first N plies (default 24) of every game in the PDN files and
+ * game archives and writes the moves whose weight reaches the minimum
+ * (default 2) to the book file (default {@code book.ckob}). PDN games that do
+ * not replay are skipped and counted.
+ */
+public class BuildBook {
+
+    public static void main(String[] args) {
+        List<Path> pdnFiles = new ArrayList<>();
+        List<Path> archiveFiles = new ArrayList<>();
+        int plies = 24;
+        int minWeight = 2;
+        Path out = Paths.get("book.ckob");
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--pdn":
+                    pdnFiles.add(Paths.get(args[++i]));
+                    break;
+                case "--archive":
+                    archiveFiles.add(Paths.get(args[++i]));
+                    break;
+                case "--plies":
+                    plies = Integer.parseInt(args[++i]);
+                    break;
+                case "--min-weight":
+                    minWeight = Integer.parseInt(args[++i]);
+                    break;
+                case "--out":
+                    out = Paths.get(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+            }
+        }
+        if (pdnFiles.isEmpty() && archiveFiles.isEmpty()) {
+            System.err.println("No games given; use --pdn or --archive");
+            System.exit(1);
+        }
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(plies);
+        Game game = new Game(new Player("Red", PieceColor.RED), new Player("Black", PieceColor.BLACK));
+        long games = 0;
+        long skipped = 0;
+        try {
+            for (Path file : pdnFiles) {
+                try (PdnReader reader = PdnReader.open(file)) {
+                    PdnGame pdn = new PdnGame();
+                    while (reader.readGame(pdn)) {
+                        try {
+                            pdn.replay(game, false);
+                        } catch (CheckersException e) {
+                            skipped++;
+                            continue;
+                        }
+                        builder.add(game, pdn.getGameState());
+                        games++;
+                    }
+                }
+            }
+            for (Path file : archiveFiles) {
+                try (ArchiveReader reader = ArchiveReader.open(file)) {
+                    for (long n = 0; n < reader.getGameCount(); n++) {
+                        reader.replay(n, game);
+                        builder.add(game, reader.getResult(n));
+                        games++;
+                    }
+                }
+            }
+            long records = builder.write(out, minWeight);
+            System.out.printf("%,d games (%,d skipped), %,d moves seen, %,d written to %s%n", games, skipped,
+                    builder.getLineCount(), records, out);
+        } catch (IOException | CheckersException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
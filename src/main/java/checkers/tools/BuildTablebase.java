@@ -0,0 +1,59 @@
+package checkers.tools;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import checkers.engine.TablebaseGenerator;
+
+/**
+ * Generates endgame tablebase files.
+ * <p>
+ * Usage: {@code BuildTablebase [--pieces N] [--threads N] [--dir DIR]}.
+ * Solves every position with up to N pieces (default 4) and writes one file
+ * per material signature to DIR (default {@code tablebase}), solving up to
+ * {@code --threads} signatures at once (default: all processors). Each
+ * signature is reported as it finishes.
+ */
+public class BuildTablebase {
+
+    public static void main(String[] args) {
+        int pieces = 4;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path directory = Paths.get("tablebase");
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--pieces":
+                    pieces = Integer.parseInt(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--dir":
+                    directory = Paths.get(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+            }
+        }
+        if (pieces < 2 || pieces > TablebaseGenerator.MAX_PIECES) {
+            System.err.println("Pieces must be between 2 and " + TablebaseGenerator.MAX_PIECES);
+            System.exit(1);
+        }
+
+        TablebaseGenerator generator = new TablebaseGenerator(pieces, threads);
+        generator.setLog(System.out::println);
+        long start = System.nanoTime();
+        try {
+            generator.generate(directory);
+        } catch (IOException e) {
+            System.err.println("Cannot write the tablebase: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(1);
+        }
+        System.out.printf("Done in %.1f s%n", (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,263 @@
+package checkers.tools;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import checkers.io.PdnGame;
+import checkers.model.CheckersException;
+import checkers.model.Game;
+import checkers.model.GameState;
+import checkers.model.Move;
+import checkers.model.PieceColor;
+import checkers.model.Player;
+
+/**
+ * Plays many games on a {@link checkers.server.GameServer} at once and
+ * measures how quickly it answers moves.
+ * <p>
+ * Usage: {@code LoadGenerator [--host HOST] [--port N] [--games N] [--seconds N]
+ * [--think MS] [--max-plies N] [--seed N]}.
+ * Each of the {@code --games} simulated games (default 1000) is one
+ * connection on its own virtual thread that creates a game, takes both sides
+ * and plays random legal moves, waiting {@code --think} milliseconds
+ * (default 100) before each one. A game that reaches {@code --max-plies}
+ * (default 200) is abandoned and a new one started, until {@code --seconds}
+ * (default 30) have passed.
+ * <p>
+ * The latency of a move is the time from sending it to reading the server's
+ * {@code moved} line, so it covers the network and both ends' scheduling as
+ * well as the server's work. Percentiles are printed at the end, next to the
+ * server's own measure of the time from reading a move to answering it, from
+ * its {@code stats} command.
+ */
+public class LoadGenerator {
+
+    private final String host;
+    private final int port;
+    private final long thinkMillis;
+    private final int maxPlies;
+    private final AtomicLong finishedGames = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    public LoadGenerator(String host, int port, long thinkMillis, int maxPlies) {
+        this.host = host;
+        this.port = port;
+        this.thinkMillis = thinkMillis;
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Plays games on one connection until the deadline.
+     * @return The latency of every move in nanoseconds.
+     */
+    private long[] client(long deadline, long seed) throws IOException {
+        Random random = new Random(seed);
+        long[] latencies = new long[256];
+        int count = 0;
+        Game game = new Game(new Player("Red", PieceColor.RED), new Player("Black", PieceColor.BLACK));
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            BufferedWriter out = new BufferedWriter(
+                    new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            // Spread the first moves out instead of sending them all at once
+            sleep(random.nextLong(thinkMillis + 1));
+            send(out, "create");
+            while (System.nanoTime() < deadline) {
+                String id = expect(in, "created")[1];
+                send(out, "join " + id + " red");
+                send(out, "join " + id + " black");
+                String[] joined = expect(in, "joined");
+                expect(in, "joined");
+                try {
+                    game.startGame(joined[3]);
+                } catch (CheckersException e) {
+                    throw new IOException("Bad position from server: " + joined[3], e);
+                }
+
+                while (game.getGameState() == GameState.IN_PROGRESS && game.getMoveCount() < maxPlies
+                        && System.nanoTime() < deadline) {
+                    sleep(thinkMillis);
+                    List<Move> moves = game.getPossibleMoves();
+                    Move move = moves.get(random.nextInt(moves.size()));
+                    long start = System.nanoTime();
+                    send(out, "move " + id + " " + PdnGame.toText(move));
+                    String reply = in.readLine();
+                    long latency = System.nanoTime() - start;
+                    if (reply == null) {
+                        throw new IOException("Server closed the connection");
+                    }
+                    if (!reply.startsWith("moved ")) {
+                        errors.incrementAndGet();
+                        break;
+                    }
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = latency;
+                    game.makeMove(move, false);
+                }
+                if (game.getGameState() != GameState.IN_PROGRESS) {
+                    expect(in, "over");
+                    finishedGames.incrementAndGet();
+                } else {
+                    send(out, "leave " + id);
+                }
+                if (System.nanoTime() < deadline) {
+                    send(out, "create");
+                }
+            }
+            send(out, "quit");
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    /**
+     * Starts a game on every connection and gathers the latencies.
+     */
+    public long[] run(int games, long seconds, long seed) {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long[][] results = new long[games][];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < games; i++) {
+                int index = i;
+                executor.execute(() -> {
+                    try {
+                        results[index] = client(deadline, seed + index);
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                        results[index] = new long[0];
+                    }
+                });
+            }
+        }
+        int total = 0;
+        for (long[] result : results) {
+            total += result.length;
+        }
+        long[] all = new long[total];
+        int at = 0;
+        for (long[] result : results) {
+            System.arraycopy(result, 0, all, at, result.length);
+            at += result.length;
+        }
+        Arrays.sort(all);
+        return all;
+    }
+
+    /**
+     * @return The server's answer to {@code stats}, without the leading word.
+     */
+    private String serverStats() throws IOException {
+        try (Socket socket = new Socket(host, port)) {
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            BufferedWriter out = new BufferedWriter(
+                    new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            send(out, "stats");
+            String line = String.join(" ", expect(in, "stats"));
+            send(out, "quit");
+            return line.substring("stats ".length());
+        }
+    }
+
+    private static void send(BufferedWriter out, String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        out.flush();
+    }
+
+    /**
+     * Reads the next line, which must start with a given word.
+     */
+    private static String[] expect(BufferedReader in, String word) throws IOException {
+        String line = in.readLine();
+        if (line == null) {
+            throw new IOException("Server closed the connection");
+        }
+        String[] tokens = line.split(" ");
+        if (!tokens[0].equals(word)) {
+            throw new IOException("Expected " + word + ", got: " + line);
+        }
+        return tokens;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, (long) (sorted.length * p))];
+    }
+
+    public static void main(String[] args) {
+        String host = "localhost";
+        int port = 5050;
+        int games = 1000;
+        long seconds = 30;
+        long think = 100;
+        int maxPlies = 200;
+        long seed = System.nanoTime();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--host":
+                    host = args[++i];
+                    break;
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--games":
+                    games = Integer.parseInt(args[++i]);
+                    break;
+                case "--seconds":
+                    seconds = Long.parseLong(args[++i]);
+                    break;
+                case "--think":
+                    think = Long.parseLong(args[++i]);
+                    break;
+                case "--max-plies":
+                    maxPlies = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        LoadGenerator generator = new LoadGenerator(host, port, think, maxPlies);
+        long[] latencies = generator.run(games, seconds, seed);
+        String stats;
+        try {
+            stats = generator.serverStats();
+        } catch (IOException e) {
+            stats = "unavailable: " + e.getMessage();
+        }
+        System.out.printf("%,d games at once, %,d finished, %,d moves (%,.0f/s), %,d errors%n", games,
+                generator.finishedGames.get(), latencies.length, latencies.length / (double) seconds,
+                generator.errors.get());
+        System.out.printf("move latency: p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms%n",
+                percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.90) / 1e6,
+                percentile(latencies, 0.99) / 1e6, percentile(latencies, 0.999) / 1e6,
+                percentile(latencies, 1.0) / 1e6);
+        System.out.println("server " + stats);
+    }
+}
@@ -0,0 +1,264 @@
+package checkers.tools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import checkers.model.Board;
+import checkers.model.CheckersException;
+import checkers.model.Fen;
+import checkers.model.MoveGenerator;
+import checkers.model.PackedMove;
+import checkers.model.PieceColor;
+import checkers.model.UndoRecord;
+
+/**
+ * Counts the leaf nodes of the legal move tree (perft) to a fixed depth.
+ * <p>
+ * Each multi-jump capture counts as one move, as {@link MoveGenerator} emits
+ * it. The counts double as a correctness check for move generation and as a
+ * throughput benchmark.
+ * <p>
+ * Usage: {@code Perft [depth] [--fen FEN] [--threads N] [--divide] [--board]}.
+ * Without {@code --fen} the search starts from {@link Board#initializeBoard()}
+ * with red to move. {@code --threads} splits the root moves over a
+ * {@link ForkJoinPool}; 0 uses all available processors. {@code --board}
+ * counts single-threaded by making and unmaking moves on one {@link Board}
+ * instead of passing masks down the tree, which checks
+ * {@link Board#makeMove(long, UndoRecord)} and {@link Board#unmakeMove(UndoRecord)}.
+ */
+public class Perft {
+
+    private final int own;
+    private final int opponent;
+    private final int kings;
+    private final boolean red;
+    private final Board board;
+    private final PieceColor sideToMove;
+
+    /**
+     * Creates a perft counter for a position.
+     * @param board The position to search from.
+     * @param sideToMove The side to move first.
+     */
+    public Perft(Board board, PieceColor sideToMove) {
+        this.own = board.getPieces(sideToMove);
+        this.opponent = board.getPieces(sideToMove.opposite());
+        this.kings = board.getKings();
+        this.red = sideToMove == PieceColor.RED;
+        this.board = new Board(board);
+        this.sideToMove = sideToMove;
+    }
+
+    /**
+     * Counts leaf nodes on the calling thread.
+     */
+    public long count(int depth) {
+        return count(own, opponent, kings, red, depth, new long[Math.max(depth, 1)][MoveGenerator.MAX_MOVES]);
+    }
+
+    /**
+     * Counts leaf nodes on the calling thread with make/unmake on a single board.
+     */
+    public long countOnBoard(int depth) {
+        UndoRecord[] undo = new UndoRecord[Math.max(depth, 1)];
+        for (int i = 0; i < undo.length; i++) {
+            undo[i] = new UndoRecord();
+        }
+        return countOnBoard(new Board(board), sideToMove, depth,
+                new long[Math.max(depth, 1)][MoveGenerator.MAX_MOVES], undo);
+    }
+
+    private static long countOnBoard(Board board, PieceColor side, int depth, long[][] buffers, UndoRecord[] undo) {
+        if (depth == 0) {
+            return 1;
+        }
+        long[] moves = buffers[depth - 1];
+        int count = MoveGenerator.generate(board, side, moves);
+        if (depth == 1) {
+            return count;
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i], undo[depth - 1]);
+            nodes += countOnBoard(board, side.opposite(), depth - 1, buffers, undo);
+            board.unmakeMove(undo[depth - 1]);
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts leaf nodes, searching each root move as a separate fork-join task.
+     */
+    public long count(int depth, ForkJoinPool pool) {
+        long total = 0;
+        for (long nodes : divide(depth, pool)) {
+            total += nodes;
+        }
+        return total;
+    }
+
+    /**
+     * Lists the root moves in generation order, as {@link PackedMove} values.
+     */
+    public long[] rootMoves() {
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(own, opponent, kings, red, moves);
+        long[] result = new long[count];
+        System.arraycopy(moves, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * Counts leaf nodes below each root move, in the order of {@link #rootMoves()}.
+     * @param pool The pool to run on, or null to count on the calling thread.
+     */
+    public long[] divide(int depth, ForkJoinPool pool) {
+        long[] roots = rootMoves();
+        long[] counts = new long[roots.length];
+        if (depth < 1) {
+            return counts;
+        }
+        if (pool == null) {
+            long[][] buffers = new long[depth][MoveGenerator.MAX_MOVES];
+            for (int i = 0; i < roots.length; i++) {
+                counts[i] = countAfter(roots[i], depth - 1, buffers);
+            }
+            return counts;
+        }
+        List<RootTask> tasks = new ArrayList<>(roots.length);
+        for (long root : roots) {
+            tasks.add(new RootTask(root, depth - 1));
+        }
+        pool.invoke(new RecursiveTask<Void>() {
+            @Override
+            protected Void compute() {
+                invokeAll(tasks);
+                return null;
+            }
+        });
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = tasks.get(i).join();
+        }
+        return counts;
+    }
+
+    private long countAfter(long move, int depth, long[][] buffers) {
+        return countAfter(own, opponent, kings, red, move, depth, buffers);
+    }
+
+    private static long countAfter(int own, int opponent, int kings, boolean red, long move, int depth,
+                                   long[][] buffers) {
+        int from = 1 << PackedMove.from(move);
+        int to = 1 << PackedMove.to(move);
+        int captured = PackedMove.captured(move);
+        int newKings = kings & ~captured & ~from;
+        if ((kings & from) != 0 || PackedMove.isPromotion(move)) {
+            newKings |= to;
+        }
+        return count(opponent & ~captured, (own & ~from) | to, newKings, !red, depth, buffers);
+    }
+
+    private static long count(int own, int opponent, int kings, boolean red, int depth, long[][] buffers) {
+        if (depth == 0) {
+            return 1;
+        }
+        long[] moves = buffers[depth - 1];
+        int count = MoveGenerator.generate(own, opponent, kings, red, moves);
+        if (depth == 1) {
+            return count;
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            nodes += countAfter(own, opponent, kings, red, moves[i], depth - 1, buffers);
+        }
+        return nodes;
+    }
+
+    private final class RootTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final long move;
+        private final int depth;
+
+        RootTask(long move, int depth) {
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            return countAfter(move, depth, new long[Math.max(depth, 1)][MoveGenerator.MAX_MOVES]);
+        }
+    }
+
+    public static void main(String[] args) {
+        int depth = 8;
+        String fen = null;
+        int threads = 1;
+        boolean divide = false;
+        boolean onBoard = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--fen":
+                    fen = args[++i];
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--divide":
+                    divide = true;
+                    break;
+                case "--board":
+                    onBoard = true;
+                    break;
+                default:
+                    depth = Integer.parseInt(args[i]);
+            }
+        }
+
+        Board board = new Board();
+        PieceColor sideToMove = PieceColor.RED;
+        if (fen == null) {
+            board.initializeBoard();
+        } else {
+            try {
+                sideToMove = Fen.parse(fen, board);
+            } catch (CheckersException e) {
+                System.err.println(e.getMessage());
+                System.exit(1);
+            }
+        }
+
+        Perft perft = new Perft(board, sideToMove);
+        ForkJoinPool pool = threads == 1 ? null
+                : new ForkJoinPool(threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads);
+        System.out.println("Position: " + Fen.format(board, sideToMove));
+        System.out.println("Threads:  " + (pool == null || onBoard ? 1 : pool.getParallelism()));
+
+        for (int d = 1; d <= depth; d++) {
+            long start = System.nanoTime();
+            long nodes = onBoard ? perft.countOnBoard(d) : pool == null ? perft.count(d) : perft.count(d, pool);
+            long elapsed = Math.max(System.nanoTime() - start, 1);
+            System.out.printf("depth %2d  nodes %,15d  time %8.3f s  %,14d nodes/s%n",
+                    d, nodes, elapsed / 1e9, (long) (nodes * 1e9 / elapsed));
+        }
+
+        if (divide) {
+            long[] roots = perft.rootMoves();
+            long[] counts = perft.divide(depth, pool);
+            System.out.println();
+            long total = 0;
+            for (int i = 0; i < roots.length; i++) {
+                System.out.printf("%-8s %,d%n", PackedMove.toString(roots[i]), counts[i]);
+                total += counts[i];
+            }
+            System.out.printf("%d moves, %,d nodes%n", roots.length, total);
+        }
+
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package checkers.tools;
+
+import checkers.engine.SearchEngine;
+import checkers.engine.SearchResult;
+import checkers.engine.SmpSearch;
+import checkers.model.Board;
+import checkers.model.CheckersException;
+import checkers.model.Fen;
+import checkers.model.PieceColor;
+
+/**
+ * Measures search speed and parallel scaling.
+ * <p>
+ * Usage: {@code SearchBench [--fen FEN] [--millis N] [--threads N]}.
+ * Searches the position once single-threaded and then with
+ * {@link SmpSearch} on 1, 2, 4, ... up to the given number of threads
+ * (default: all processors), printing depth, nodes/sec and nodes/sec per
+ * thread relative to the single-threaded engine.
+ */
+public class SearchBench {
+
+    public static void main(String[] args) {
+        String fen = null;
+        long millis = 2000;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--fen":
+                    fen = args[++i];
+                    break;
+                case "--millis":
+                    millis = Long.parseLong(args[++i]);
+                    break;
+                case "--threads":
+                    maxThreads = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        Board board = new Board();
+        PieceColor sideToMove = PieceColor.RED;
+        if (fen == null) {
+            board.initializeBoard();
+        } else {
+            try {
+                sideToMove = Fen.parse(fen, board);
+            } catch (CheckersException e) {
+                System.err.println(e.getMessage());
+                System.exit(1);
+            }
+        }
+
+        // Warm up the JIT before measuring
+        new SearchEngine().search(board, sideToMove, 64, Math.min(millis, 1000));
+
+        SearchResult single = new SearchEngine().search(board, sideToMove, 64, millis);
+        System.out.printf("single   depth %2d  %,12d nps%n", single.getDepth(), single.getNodesPerSecond());
+
+        for (int n = 1; ; n *= 2) {
+            int threads = Math.min(n, maxThreads);
+            try (SmpSearch smp = new SmpSearch(threads, 64)) {
+                SearchResult result = smp.search(board, sideToMove, 64, millis);
+                System.out.printf("smp %3d  depth %2d  %,12d nps  %,12d nps/thread  efficiency %5.1f%%%n",
+                        threads, result.getDepth(), result.getNodesPerSecond(),
+                        result.getNodesPerSecond() / threads,
+                        100 * smp.getScalingEfficiency(result, single.getNodesPerSecond()));
+            }
+            if (threads == maxThreads) {
+                break;
+            }
+        }
+    }
+}
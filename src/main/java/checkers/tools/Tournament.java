@@ -0,0 +1,393 @@
+package checkers.tools;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import checkers.engine.EvaluationWeights;
+import checkers.engine.Evaluator;
+import checkers.engine.MoveStrategy;
+import checkers.engine.OpeningBook;
+import checkers.engine.RandomStrategy;
+import checkers.engine.SearchEngine;
+import checkers.engine.SearchStrategy;
+import checkers.engine.TranspositionTable;
+import checkers.metrics.Metrics;
+import checkers.model.CheckersException;
+import checkers.model.Game;
+import checkers.model.GameState;
+import checkers.model.Move;
+import checkers.model.PieceColor;
+import checkers.model.Player;
+
+/**
+ * Plays many games between two move strategies without a user interface.
+ * <p>
+ * Usage: {@code Tournament [--games N] [--threads N] [--first SPEC] [--second SPEC]
+ * [--csv FILE] [--max-plies N] [--opening-plies N] [--seed N] [--book FILE]
+ * [--weights FILE] [--metrics]}.
+ * A strategy SPEC is {@code random}, {@code depth:N} (search to depth N) or
+ * {@code time:MS} (search for MS milliseconds per move). With {@code --book},
+ * searching strategies play from the opening book while they can. With
+ * {@code --weights}, the first strategy evaluates with the
+ * {@link EvaluationWeights} in the file and the second with the defaults.
+ * <p>
+ * Each game runs on its own virtual thread. At most {@code --threads} games
+ * are played at once (default: all processors), each with a seat of strategy
+ * instances that is handed to the next game when it finishes, so engines and
+ * their tables are reused. Games come in pairs that start with the same random
+ * opening moves and swap colors. A game still going after {@code --max-plies}
+ * plies is scored as a draw.
+ * <p>
+ * One CSV line per game is written as soon as the game ends; the summary with
+ * the Elo difference of the first strategy over the second goes to standard
+ * error, followed by the figures of {@link Metrics} if {@code --metrics} was
+ * given.
+ */
+public class Tournament {
+
+    private static final String CSV_HEADER = "game,red,black,result,plies,millis";
+
+    private final Supplier<MoveStrategy> first;
+    private final Supplier<MoveStrategy> second;
+    private final int maxPlies;
+    private final int openingPlies;
+    private final long seed;
+
+    /**
+     * @param first Creates instances of the first strategy.
+     * @param second Creates instances of the second strategy.
+     * @param maxPlies The length after which a game is scored as a draw.
+     * @param openingPlies The number of random moves each game starts with.
+     * @param seed Seeds the random openings.
+     */
+    public Tournament(Supplier<MoveStrategy> first, Supplier<MoveStrategy> second, int maxPlies, int openingPlies,
+                      long seed) {
+        this.first = first;
+        this.second = second;
+        this.maxPlies = maxPlies;
+        this.openingPlies = openingPlies;
+        this.seed = seed;
+    }
+
+    /**
+     * Plays the games and waits for all of them to finish.
+     * @param games The number of games.
+     * @param threads The most games to play at once.
+     * @param csv Receives a header and then one line per finished game, or null.
+     * @return The score from the first strategy's point of view.
+     * @throws ExecutionException if a strategy fails or returns an illegal move.
+     */
+    public Score play(int games, int threads, PrintWriter csv) throws InterruptedException, ExecutionException {
+        BlockingQueue<MoveStrategy[]> seats = new ArrayBlockingQueue<>(threads);
+        for (int i = 0; i < threads; i++) {
+            seats.add(new MoveStrategy[] {first.get(), second.get()});
+        }
+        Score score = new Score();
+        if (csv != null) {
+            csv.println(CSV_HEADER);
+            csv.flush();
+        }
+
+        List<Future<?>> results = new ArrayList<>(games);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < games; i++) {
+                int index = i;
+                results.add(executor.submit(() -> {
+                    MoveStrategy[] seat = seats.take();
+                    try {
+                        long start = System.nanoTime();
+                        Game game = playGame(index, seat);
+                        record(score, csv, index, game, (System.nanoTime() - start) / 1_000_000);
+                    } finally {
+                        seats.add(seat);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            score.elapsedNanos = System.nanoTime() - score.startNanos;
+        }
+        return score;
+    }
+
+    /**
+     * Plays one game to the end or the ply limit. The first strategy plays red
+     * in even-numbered games.
+     */
+    private Game playGame(int index, MoveStrategy[] seat) {
+        boolean firstIsRed = (index & 1) == 0;
+        Game game = new Game(new Player(firstIsRed ? "first" : "second", PieceColor.RED),
+                new Player(firstIsRed ? "second" : "first", PieceColor.BLACK));
+        game.startGame();
+        // Both games of a pair get the same opening
+        MoveStrategy opening = new RandomStrategy(new Random(seed + index / 2));
+        for (int ply = 0; game.getGameState() == GameState.IN_PROGRESS && ply < maxPlies; ply++) {
+            boolean redToMove = game.getCurrentPlayer().getColor() == PieceColor.RED;
+            MoveStrategy strategy = ply < openingPlies ? opening : seat[redToMove == firstIsRed ? 0 : 1];
+            Move move = strategy.chooseMove(game);
+            if (move == null || !game.makeMove(move)) {
+                throw new IllegalStateException("Game " + index + ": illegal move " + move + " by "
+                        + game.getCurrentPlayer().getName());
+            }
+        }
+        return game;
+    }
+
+    private static void record(Score score, PrintWriter csv, int index, Game game, long millis) {
+        boolean firstIsRed = (index & 1) == 0;
+        GameState state = game.getGameState();
+        String result;
+        synchronized (score) {
+            if (state == GameState.RED_WINS || state == GameState.BLACK_WINS) {
+                boolean firstWon = (state == GameState.RED_WINS) == firstIsRed;
+                if (firstWon) {
+                    score.wins++;
+                } else {
+                    score.losses++;
+                }
+                result = state == GameState.RED_WINS ? "1-0" : "0-1";
+            } else {
+                score.draws++;
+                result = "1/2-1/2";
+            }
+            score.plies += game.getMoveCount();
+            if (csv != null) {
+                csv.println(index + "," + (firstIsRed ? "first,second," : "second,first,") + result + ","
+                        + game.getMoveCount() + "," + millis);
+                csv.flush();
+            }
+        }
+    }
+
+    /**
+     * Wins, draws and losses of the first strategy, with the derived statistics.
+     */
+    public static class Score {
+        private final long startNanos = System.nanoTime();
+        private long elapsedNanos;
+        private int wins;
+        private int draws;
+        private int losses;
+        private long plies;
+
+        public synchronized int getWins() {
+            return wins;
+        }
+
+        public synchronized int getDraws() {
+            return draws;
+        }
+
+        public synchronized int getLosses() {
+            return losses;
+        }
+
+        public synchronized int getGames() {
+            return wins + draws + losses;
+        }
+
+        /**
+         * @return The points per game, counting a draw as half a point.
+         */
+        public synchronized double getScore() {
+            return (wins + 0.5 * draws) / getGames();
+        }
+
+        /**
+         * @return The Elo difference implied by the score; infinite if every game was won or lost.
+         */
+        public double getElo() {
+            return elo(getScore());
+        }
+
+        /**
+         * @return The half-width of the 95% confidence interval of {@link #getElo()},
+         *         from the spread of the individual game results.
+         */
+        public synchronized double getEloError() {
+            int games = getGames();
+            double score = getScore();
+            if (wins == games || losses == games) {
+                return Double.POSITIVE_INFINITY;
+            }
+            double variance = (wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2)
+                    + losses * Math.pow(score, 2)) / games;
+            double margin = 1.96 * Math.sqrt(variance / games);
+            return (elo(Math.min(score + margin, 1)) - elo(Math.max(score - margin, 0))) / 2;
+        }
+
+        public synchronized double getAverageLength() {
+            return (double) plies / getGames();
+        }
+
+        public synchronized double getGamesPerSecond() {
+            return getGames() * 1e9 / elapsedNanos;
+        }
+
+        private static double elo(double score) {
+            return -400 * Math.log10(1 / score - 1);
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("games %d  +%d =%d -%d  score %.3f  elo %+.1f +/- %.1f  avg plies %.1f  %.2f games/s",
+                    getGames(), wins, draws, losses, getScore(), getElo(), getEloError(), getAverageLength(),
+                    getGamesPerSecond());
+        }
+    }
+
+    /**
+     * Creates a strategy factory from a command-line spec.
+     * @throws IllegalArgumentException if the spec is not recognised.
+     */
+    static Supplier<MoveStrategy> parseStrategy(String spec, int tableMegabytes, OpeningBook book,
+                                                EvaluationWeights weights) {
+        String[] parts = spec.split(":", 2);
+        switch (parts[0]) {
+            case "random":
+                return () -> new RandomStrategy(new Random());
+            case "depth":
+                int depth = Integer.parseInt(parts[1]);
+                return () -> withBook(SearchStrategy.fixedDepth(newEngine(tableMegabytes, weights), depth), book);
+            case "time":
+                long millis = Long.parseLong(parts[1]);
+                return () -> withBook(SearchStrategy.fixedTime(newEngine(tableMegabytes, weights), millis), book);
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + spec);
+        }
+    }
+
+    private static SearchStrategy withBook(SearchStrategy strategy, OpeningBook book) {
+        if (book != null) {
+            strategy.setOpeningBook(book, new Random());
+        }
+        return strategy;
+    }
+
+    private static SearchEngine newEngine(int tableMegabytes, EvaluationWeights weights) {
+        return new SearchEngine(new Evaluator(weights), new TranspositionTable(tableMegabytes));
+    }
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException, IOException {
+        int games = 100;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String firstSpec = "depth:6";
+        String secondSpec = "depth:4";
+        String csvFile = null;
+        int maxPlies = 300;
+        int openingPlies = 4;
+        long seed = 1;
+        int tableMegabytes = 4;
+        String bookFile = null;
+        String weightsFile = null;
+        boolean metrics = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games":
+                    games = Integer.parseInt(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--first":
+                    firstSpec = args[++i];
+                    break;
+                case "--second":
+                    secondSpec = args[++i];
+                    break;
+                case "--csv":
+                    csvFile = args[++i];
+                    break;
+                case "--max-plies":
+                    maxPlies = Integer.parseInt(args[++i]);
+                    break;
+                case "--opening-plies":
+                    openingPlies = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "--hash":
+                    tableMegabytes = Integer.parseInt(args[++i]);
+                    break;
+                case "--book":
+                    bookFile = args[++i];
+                    break;
+                case "--weights":
+                    weightsFile = args[++i];
+                    break;
+                case "--metrics":
+                    metrics = true;
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        OpeningBook book = null;
+        if (bookFile != null) {
+            try {
+                book = OpeningBook.open(Paths.get(bookFile));
+            } catch (IOException | CheckersException e) {
+                System.err.println("Cannot read the opening book: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+
+        EvaluationWeights weights = new EvaluationWeights();
+        if (weightsFile != null) {
+            try {
+                weights = EvaluationWeights.load(Paths.get(weightsFile));
+            } catch (IOException | CheckersException e) {
+                System.err.println("Cannot read the weights: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+
+        Supplier<MoveStrategy> first;
+        Supplier<MoveStrategy> second;
+        try {
+            first = parseStrategy(firstSpec, tableMegabytes, book, weights);
+            second = parseStrategy(secondSpec, tableMegabytes, book, new EvaluationWeights());
+        } catch (RuntimeException e) {
+            System.err.println("Invalid strategy: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        if (metrics) {
+            Metrics.setEnabled(true);
+        }
+        Tournament tournament = new Tournament(first, second, maxPlies, openingPlies, seed);
+        try (PrintWriter csv = new PrintWriter(csvFile == null
+                ? new OutputStreamWriter(System.out) : new FileWriter(csvFile))) {
+            Score score = tournament.play(games, threads, csv);
+            System.err.println(firstSpec + " vs " + secondSpec);
+            System.err.println(score);
+            if (metrics) {
+                Metrics.values().forEach((name, value) -> System.err.println(name + " " + value));
+            }
+        } finally {
+            if (book != null) {
+                book.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package checkers.tools;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import checkers.engine.EvaluationWeights;
+import checkers.engine.WeightTuner;
+import checkers.io.ArchiveReader;
+import checkers.io.PdnGame;
+import checkers.io.PdnReader;
+import checkers.model.CheckersException;
+import checkers.model.Game;
+import checkers.model.PieceColor;
+import checkers.model.Player;
+
+/**
+ * Tunes the evaluation weights against recorded games with a
+ * {@link WeightTuner}.
+ * <p>
+ * Usage: {@code TuneWeights [--pdn FILE]... [--archive FILE]... [--weights FILE]
+ * [--out FILE] [--skip-plies N] [--passes N] [--step N] [--threads N]}.
+ * Starts from the weights in the {@code --weights} file if it exists, or the
+ * defaults, and writes the tuned weights to {@code --out}, which defaults to
+ * the {@code --weights} file and then to {@code weights.txt}. The first
+ * {@code --skip-plies} plies of each game (default 8) are left out, and
+ * games without a result are skipped. At most {@code --passes} passes
+ * (default 100) are made over the weights, starting with steps of
+ * {@code --step} (default 8). The loss is computed on {@code --threads}
+ * threads (default: all processors).
+ * <p>
+ * The loss after each pass goes to standard output, with the number of
+ * times the loss was computed per second and the positions evaluated per
+ * second.
+ */
+public class TuneWeights {
+
+    public static void main(String[] args) {
+        List<Path> pdnFiles = new ArrayList<>();
+        List<Path> archiveFiles = new ArrayList<>();
+        Path weightsFile = null;
+        Path out = null;
+        int skipPlies = 8;
+        int passes = 100;
+        int step = 8;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--pdn":
+                    pdnFiles.add(Paths.get(args[++i]));
+                    break;
+                case "--archive":
+                    archiveFiles.add(Paths.get(args[++i]));
+                    break;
+                case "--weights":
+                    weightsFile = Paths.get(args[++i]);
+                    break;
+                case "--out":
+                    out = Paths.get(args[++i]);
+                    break;
+                case "--skip-plies":
+                    skipPlies = Integer.parseInt(args[++i]);
+                    break;
+                case "--passes":
+                    passes = Integer.parseInt(args[++i]);
+                    break;
+                case "--step":
+                    step = Integer.parseInt(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+            }
+        }
+        if (pdnFiles.isEmpty() && archiveFiles.isEmpty()) {
+            System.err.println("No games given; use --pdn or --archive");
+            System.exit(1);
+        }
+        if (out == null) {
+            out = weightsFile != null ? weightsFile : Paths.get("weights.txt");
+        }
+
+        WeightTuner tuner = new WeightTuner(skipPlies);
+        Game game = new Game(new Player("Red", PieceColor.RED), new Player("Black", PieceColor.BLACK));
+        long games = 0;
+        long skipped = 0;
+        EvaluationWeights start = new EvaluationWeights();
+        try {
+            if (weightsFile != null && Files.exists(weightsFile)) {
+                start = EvaluationWeights.load(weightsFile);
+            }
+            for (Path file : pdnFiles) {
+                try (PdnReader reader = PdnReader.open(file)) {
+                    PdnGame pdn = new PdnGame();
+                    while (reader.readGame(pdn)) {
+                        try {
+                            pdn.replay(game, false);
+                        } catch (CheckersException e) {
+                            skipped++;
+                            continue;
+                        }
+                        if (tuner.add(game, pdn.getGameState())) {
+                            games++;
+                        } else {
+                            skipped++;
+                        }
+                    }
+                }
+            }
+            for (Path file : archiveFiles) {
+                try (ArchiveReader reader = ArchiveReader.open(file)) {
+                    for (long n = 0; n < reader.getGameCount(); n++) {
+                        reader.replay(n, game);
+                        if (tuner.add(game, reader.getResult(n))) {
+                            games++;
+                        } else {
+                            skipped++;
+                        }
+                    }
+                }
+            }
+        } catch (IOException | CheckersException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+        System.out.printf("%,d positions from %,d games (%,d skipped)%n", tuner.getPositionCount(), games, skipped);
+        if (tuner.getPositionCount() == 0) {
+            System.exit(1);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(threads, 1));
+        double scale = tuner.fitScale(start, pool);
+        System.out.printf("scale %.6f  loss %.6f  %s%n", scale, tuner.loss(start, scale, pool), start);
+
+        long began = System.nanoTime();
+        long evaluationsBefore = tuner.getEvaluations();
+        EvaluationWeights tuned = tuner.tune(start, scale, step, passes, pool, (pass, loss, weights) -> {
+            double seconds = (System.nanoTime() - began) / 1e9;
+            double perSecond = (tuner.getEvaluations() - evaluationsBefore) / seconds;
+            System.out.printf("pass %d  loss %.6f  %s  %.1f iterations/s  %,.0f positions/s%n", pass, loss,
+                    weights, perSecond, perSecond * tuner.getPositionCount());
+        });
+        pool.shutdown();
+
+        try {
+            tuned.save(out);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+        System.out.println("Wrote " + tuned + " to " + out);
+    }
+}
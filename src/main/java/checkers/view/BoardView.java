@@ -0,0 +1,217 @@
+package checkers.view;
+
+import javafx.animation.Animation;
+import javafx.animation.SequentialTransition;
+import javafx.animation.TranslateTransition;
+import javafx.scene.Node;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.RadialGradient;
+import javafx.scene.paint.Stop;
+import javafx.scene.shape.Circle;
+import javafx.scene.shape.Rectangle;
+import javafx.util.Duration;
+
+import java.util.function.Consumer;
+
+import checkers.model.Bitboards;
+import checkers.model.Board;
+import checkers.model.Move;
+import checkers.model.PieceColor;
+import checkers.model.Position;
+
+/**
+ * The squares and pieces of a checkers board.
+ * <p>
+ * Each piece on the board has one node that lives as long as the piece: a
+ * move moves its node to the new square, and only the nodes of captured or
+ * crowned pieces change. The paints are made once and shared by every view.
+ */
+public class BoardView extends GridPane {
+
+    public static final int TILE_SIZE = 80;
+    private static final int BOARD_SIZE = 8;
+
+    private static final Color LIGHT_SQUARE_FILL = Color.web("#EADCC7");
+    private static final Color DARK_SQUARE_FILL = Color.web("#A98A6F");
+    private static final RadialGradient RED_PIECE_FILL = pieceFill(Color.web("#FF4C4C"), Color.web("#C40003"));
+    private static final RadialGradient BLACK_PIECE_FILL = pieceFill(Color.web("#555555"), Color.web("#1E1E1E"));
+
+    // The node of the piece on each dark square, and the pieces they show
+    private final StackPane[] pieceNodes = new StackPane[Bitboards.SQUARES];
+    private int shownRed;
+    private int shownBlack;
+    private int shownKings;
+
+    /**
+     * Creates an empty board.
+     */
+    public BoardView() {
+        for (int row = 0; row < BOARD_SIZE; row++) {
+            for (int col = 0; col < BOARD_SIZE; col++) {
+                Rectangle square = new Rectangle(TILE_SIZE, TILE_SIZE);
+                square.setFill((row + col) % 2 == 0 ? LIGHT_SQUARE_FILL : DARK_SQUARE_FILL);
+                add(new StackPane(square), col, row);
+            }
+        }
+    }
+
+    /**
+     * Sets what to do when a square is clicked.
+     */
+    public void setOnSquareClicked(Consumer<Position> handler) {
+        for (int row = 0; row < BOARD_SIZE; row++) {
+            for (int col = 0; col < BOARD_SIZE; col++) {
+                Position pos = Position.of(row, col);
+                getSquarePane(pos).setOnMouseClicked(event -> handler.accept(pos));
+            }
+        }
+    }
+
+    /**
+     * @return The pane of a square: its background first, then its piece, if
+     *         any, then anything else added to it.
+     */
+    public StackPane getSquarePane(Position pos) {
+        return (StackPane) getChildren().get(pos.getRow() * BOARD_SIZE + pos.getCol());
+    }
+
+    /**
+     * @return The node of the piece on a square, or null if it is empty.
+     */
+    public Node getPieceNode(Position pos) {
+        int sq = Bitboards.square(pos);
+        return sq < 0 ? null : pieceNodes[sq];
+    }
+
+    /**
+     * Shows the pieces of a board.
+     */
+    public void show(Board board) {
+        show(board.getPieces(PieceColor.RED), board.getPieces(PieceColor.BLACK), board.getKings());
+    }
+
+    /**
+     * Shows the pieces given as square masks, touching only the squares whose
+     * piece changed: a piece that appeared or went gets its node added or
+     * removed, and a piece that was crowned or uncrowned keeps its node.
+     */
+    public void show(int red, int black, int kings) {
+        int recolored = (red ^ shownRed) | (black ^ shownBlack);
+        for (int mask = recolored | (kings ^ shownKings); mask != 0; mask &= mask - 1) {
+            int sq = Integer.numberOfTrailingZeros(mask);
+            int bit = 1 << sq;
+            if ((recolored & bit) == 0) {
+                setCrowned(pieceNodes[sq], (kings & bit) != 0);
+                continue;
+            }
+            if (pieceNodes[sq] != null) {
+                getSquarePane(Bitboards.position(sq)).getChildren().remove(pieceNodes[sq]);
+                pieceNodes[sq] = null;
+            }
+            if (((red | black) & bit) != 0) {
+                pieceNodes[sq] = createPieceNode((red & bit) != 0, (kings & bit) != 0);
+                getSquarePane(Bitboards.position(sq)).getChildren().add(1, pieceNodes[sq]);
+            }
+        }
+        shownRed = red;
+        shownBlack = black;
+        shownKings = kings;
+    }
+
+    /**
+     * Moves the node of a piece to another square, keeping what it shows.
+     * Call {@link #show} afterwards to remove captured pieces and crown.
+     */
+    public void movePiece(Position from, Position to) {
+        int fromSq = Bitboards.square(from);
+        int toSq = Bitboards.square(to);
+        StackPane node = pieceNodes[fromSq];
+        pieceNodes[fromSq] = null;
+        getSquarePane(from).getChildren().remove(node);
+        node.setTranslateX(0);
+        node.setTranslateY(0);
+        getSquarePane(to).getChildren().add(1, node);
+        pieceNodes[toSq] = node;
+
+        int fromBit = 1 << fromSq;
+        int toBit = 1 << toSq;
+        if ((shownRed & fromBit) != 0) {
+            shownRed ^= fromBit | toBit;
+        } else {
+            shownBlack ^= fromBit | toBit;
+        }
+        if ((shownKings & fromBit) != 0) {
+            shownKings ^= fromBit | toBit;
+        }
+    }
+
+    /**
+     * Creates the animation of a move: one hop per landing square of a
+     * multi-jump. The animation only slides the piece's node; when it has
+     * finished, {@link #movePiece} puts the node on its new square.
+     * @param hop The duration of each hop.
+     */
+    public Animation animateMove(Move move, Duration hop) {
+        Position from = move.getFrom();
+        Node pieceNode = getPieceNode(from);
+        SequentialTransition animation = new SequentialTransition();
+        for (Position to : move.getPath()) {
+            TranslateTransition transition = new TranslateTransition(hop, pieceNode);
+            transition.setToX((to.getCol() - from.getCol()) * TILE_SIZE);
+            transition.setToY((to.getRow() - from.getRow()) * TILE_SIZE);
+            animation.getChildren().add(transition);
+        }
+        return animation;
+    }
+
+    /**
+     * Puts back every piece an animation stopped halfway.
+     */
+    public void resetTranslation() {
+        for (Node pieceNode : pieceNodes) {
+            if (pieceNode != null) {
+                pieceNode.setTranslateX(0);
+                pieceNode.setTranslateY(0);
+            }
+        }
+    }
+
+    /**
+     * Creates a visual node for a piece.
+     * @return A StackPane with the piece's disc and, for a king, its crown.
+     */
+    private static StackPane createPieceNode(boolean red, boolean king) {
+        Circle pieceCircle = new Circle(TILE_SIZE * 0.38);
+        pieceCircle.setFill(red ? RED_PIECE_FILL : BLACK_PIECE_FILL);
+        pieceCircle.setStroke(Color.BLACK);
+        pieceCircle.setStrokeWidth(1.5);
+
+        StackPane piecePane = new StackPane(pieceCircle);
+        setCrowned(piecePane, king);
+        return piecePane;
+    }
+
+    /**
+     * Adds or removes the king indicator of a piece node.
+     */
+    private static void setCrowned(StackPane piecePane, boolean king) {
+        boolean crowned = piecePane.getChildren().size() > 1;
+        if (king && !crowned) {
+            Circle kingIndicator = new Circle(TILE_SIZE * 0.12);
+            kingIndicator.setFill(Color.GOLD);
+            kingIndicator.setStroke(Color.BLACK);
+            kingIndicator.setStrokeWidth(1);
+            piecePane.getChildren().add(kingIndicator);
+        } else if (!king && crowned) {
+            piecePane.getChildren().remove(1);
+        }
+    }
+
+    private static RadialGradient pieceFill(Color highlightColor, Color baseColor) {
+        return new RadialGradient(0, 0, 0.5, 0.5, 0.5, true, CycleMethod.NO_CYCLE,
+                new Stop(0.0, highlightColor), new Stop(1.0, baseColor));
+    }
+}
@@ -14,7 +14,15 @@ import checkers.model.Piece;
 
 public class CheckersCLI {
 
+    /**
+     * Plays a game between two people at the console, or with {@code --engine}
+     * runs the engine under the control of another program; see {@link EngineProtocol}.
+     */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--engine")) {
+            EngineProtocol.main(args);
+            return;
+        }
         Scanner scanner = new Scanner(System.in);
         Player redPlayer = new Player("Player 1 (Red)", PieceColor.RED);
         Player blackPlayer = new Player("Player 2 (Black)", PieceColor.BLACK);
@@ -39,7 +47,7 @@ public class CheckersCLI {
                 System.out.printf("%d: Move from %s to %s%s%n",
                         i + 1,
                         move.getFrom(),
-                        move.getTo(),
+                        move.getPath().size() > 1 ? move.getPath() : move.getTo(),
                         move.isJump() ? " (Jump!)" : "");
             }
 
@@ -86,7 +94,7 @@ public class CheckersCLI {
         for (int row = 0; row < 8; row++) {
             System.out.print(row + "| ");
             for (int col = 0; col < 8; col++) {
-                Piece piece = board.getPiece(new Position(row, col));
+                Piece piece = board.getPiece(Position.of(row, col));
                 char pieceChar = '.';
                 if (piece != null) {
                     if (piece.getColor() == PieceColor.RED) {
@@ -1,31 +1,38 @@
 package checkers.view;
 
-import javafx.animation.TranslateTransition;
+import javafx.animation.Animation;
 import javafx.application.Application;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.effect.DropShadow;
 import javafx.scene.layout.BorderPane;
-import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
-import javafx.scene.paint.CycleMethod;
-import javafx.scene.paint.RadialGradient;
-import javafx.scene.paint.Stop;
 import javafx.scene.shape.Circle;
-import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import checkers.engine.SearchEngine;
+import checkers.engine.SearchResult;
+import checkers.model.Board;
 import checkers.model.Game;
 import checkers.model.Move;
 import checkers.model.Piece;
@@ -35,22 +42,49 @@ import checkers.model.Position;
 
 /**
  * An elegant JavaFX GUI for the Checkers game with animations and improved styling.
+ * <p>
+ * Black can be played by the computer. Its search runs as a {@link Task} on a
+ * separate engine thread so the board keeps rendering and animating; progress
+ * reaches the FX thread through the task's message, at most every
+ * {@value #PROGRESS_INTERVAL_MILLIS} ms, and the chosen move is played back on
+ * the FX thread. Taking back a move or starting a new game cancels the search.
+ * <p>
+ * The board is a {@link BoardView}, which only redraws the pieces a move changed.
  */
 public class CheckersGUI extends Application {
 
-    private static final int TILE_SIZE = 80;
-    private static final int BOARD_SIZE = 8;
+    private static final PieceColor COMPUTER_COLOR = PieceColor.BLACK;
+    private static final long THINK_MILLIS = 1000;
+    private static final int MAX_DEPTH = 64;
+    private static final long PROGRESS_INTERVAL_MILLIS = 100;
+
+    private static final DropShadow SELECTED_EFFECT = new DropShadow(20, Color.GOLD);
+    private static final Color HIGHLIGHT_FILL = Color.rgb(255, 255, 0, 0.5);
+    private static final Color ROUTE_FILL = Color.rgb(255, 140, 0, 0.8);
 
     private Game game;
-    private GridPane boardGrid;
+    private BoardView boardView;
     private Label statusLabel;
     private StackPane pieceLayer; // Layer for animating pieces
 
     private Piece selectedPiece = null;
     private Node selectedPieceNode = null;
-    private List<Move> possibleMoves = new ArrayList<>();
+    private List<Move> possibleMoves = new ArrayList<>(); // The selected piece's moves that follow the route
+    private final List<Position> route = new ArrayList<>(); // The squares clicked along the way so far
     private List<Node> highlightNodes = new ArrayList<>();
 
+    private final SearchEngine engine = new SearchEngine();
+    private final ExecutorService engineThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "checkers-engine");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Task<SearchResult> search; // The computer's search in progress, if any
+    private Animation moveAnimation; // The move being animated, if any
+    private CheckBox computerCheckBox;
+    private HBox thinkingBox;
+    private Label thinkingLabel;
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -71,20 +105,22 @@ public class CheckersGUI extends Application {
 
         // Create a StackPane to layer the board and the animating pieces
         StackPane gamePane = new StackPane();
-        boardGrid = createBoardGrid();
+        boardView = new BoardView();
+        boardView.setOnSquareClicked(this::onSquareClicked);
         pieceLayer = new StackPane();
         pieceLayer.setMouseTransparent(true); // Clicks go through to the board
-        gamePane.getChildren().addAll(boardGrid, pieceLayer);
+        gamePane.getChildren().addAll(boardView, pieceLayer);
 
         root.setTop(statusLabel);
         root.setCenter(gamePane);
+        root.setBottom(createControls());
 
         Player redPlayer = new Player("Player 1 (Red)", PieceColor.RED);
         Player blackPlayer = new Player("Player 2 (Black)", PieceColor.BLACK);
         game = new Game(redPlayer, blackPlayer);
         game.startGame();
 
-        drawPieces();
+        boardView.show(game.getBoard());
         updateStatus();
 
         Scene scene = new Scene(root);
@@ -93,106 +129,104 @@ public class CheckersGUI extends Application {
         primaryStage.show();
     }
 
-    /**
-     * Creates the grid of squares for the board.
-     */
-    private GridPane createBoardGrid() {
-        GridPane grid = new GridPane();
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                Rectangle square = new Rectangle(TILE_SIZE, TILE_SIZE);
-                square.setFill((row + col) % 2 == 0 ? Color.web("#EADCC7") : Color.web("#A98A6F"));
-                
-                StackPane squarePane = new StackPane(square);
-                grid.add(squarePane, col, row);
-
-                final int finalRow = row;
-                final int finalCol = col;
-                squarePane.setOnMouseClicked(event -> onSquareClicked(new Position(finalRow, finalCol)));
-            }
-        }
-        return grid;
+    @Override
+    public void stop() {
+        cancelSearch();
+        engineThread.shutdownNow();
     }
 
     /**
-     * Draws all pieces on their initial squares.
+     * Creates the buttons below the board and the computer's thinking indicator.
      */
-    private void drawPieces() {
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                Piece piece = game.getBoard().getPiece(new Position(row, col));
-                if (piece != null) {
-                    StackPane squarePane = getSquarePane(new Position(row, col));
-                    Node pieceNode = createPieceNode(piece);
-                    squarePane.getChildren().add(pieceNode);
-                }
+    private HBox createControls() {
+        Button newGameButton = new Button("New Game");
+        newGameButton.setOnAction(event -> newGame());
+        Button takeBackButton = new Button("Take Back");
+        takeBackButton.setOnAction(event -> takeBack());
+
+        computerCheckBox = new CheckBox("Computer plays Black");
+        computerCheckBox.setTextFill(Color.WHITE);
+        computerCheckBox.selectedProperty().addListener((observable, wasSelected, selected) -> {
+            if (selected) {
+                startComputerMove();
+            } else {
+                cancelSearch();
             }
-        }
-    }
-
-    /**
-     * Creates a visual node for a piece.
-     * @param piece The piece to create a node for.
-     * @return A Node representing the piece.
-     */
-    private Node createPieceNode(Piece piece) {
-        Circle pieceCircle = new Circle(TILE_SIZE * 0.38);
-        
-        Color baseColor = (piece.getColor() == PieceColor.RED) ? Color.web("#C40003") : Color.web("#1E1E1E");
-        Color highlightColor = (piece.getColor() == PieceColor.RED) ? Color.web("#FF4C4C") : Color.web("#555555");
+        });
 
-        RadialGradient gradient = new RadialGradient(0, 0, 0.5, 0.5, 0.5, true, CycleMethod.NO_CYCLE,
-                new Stop(0.0, highlightColor), new Stop(1.0, baseColor));
-        
-        pieceCircle.setFill(gradient);
-        pieceCircle.setStroke(Color.BLACK);
-        pieceCircle.setStrokeWidth(1.5);
-
-        StackPane piecePane = new StackPane(pieceCircle);
-
-        if (piece.isKing()) {
-            Circle kingIndicator = new Circle(TILE_SIZE * 0.12);
-            kingIndicator.setFill(Color.GOLD);
-            kingIndicator.setStroke(Color.BLACK);
-            kingIndicator.setStrokeWidth(1);
-            piecePane.getChildren().add(kingIndicator);
-        }
-        return piecePane;
+        ProgressIndicator spinner = new ProgressIndicator();
+        spinner.setPrefSize(20, 20);
+        thinkingLabel = new Label();
+        thinkingLabel.setTextFill(Color.WHITE);
+        thinkingBox = new HBox(8, spinner, thinkingLabel);
+        thinkingBox.setAlignment(Pos.CENTER_LEFT);
+        thinkingBox.setVisible(false);
+
+        HBox controls = new HBox(15, newGameButton, takeBackButton, computerCheckBox, thinkingBox);
+        controls.setAlignment(Pos.CENTER_LEFT);
+        controls.setPadding(new Insets(20, 0, 0, 0));
+        return controls;
     }
 
     /**
      * Handles the logic when a square on the board is clicked.
+     * <p>
+     * With a piece selected, a click on a square the piece can land on next
+     * narrows its moves to those that go that way, and the move is made once
+     * only one is left and its last square was clicked. A click on a final
+     * square that only one move ends on makes that move at once, so the
+     * squares along the way need only be clicked when several captures share
+     * their first and last squares.
      * @param pos The position of the clicked square.
      */
     private void onSquareClicked(Position pos) {
-        if (game.isGameOver()) return;
+        if (game.isGameOver() || isComputerTurn() || moveAnimation != null) return;
 
-        // Check if this click is to execute a move
+        // Check if this click continues the route of a move
+        List<Move> next = new ArrayList<>();
+        for (Move move : possibleMoves) {
+            List<Position> path = move.getPath();
+            if (path.size() > route.size() && path.get(route.size()).equals(pos)) {
+                next.add(move);
+            }
+        }
+        if (!next.isEmpty()) {
+            route.add(pos);
+            possibleMoves = next;
+            Move only = next.get(0);
+            if (next.size() == 1 && only.getPath().size() == route.size()) {
+                executeMove(only);
+            } else {
+                showSelection();
+            }
+            return;
+        }
+
+        // Or ends just one move
+        List<Move> ending = new ArrayList<>();
         for (Move move : possibleMoves) {
             if (move.getTo().equals(pos)) {
-                executeMove(move);
-                return;
+                ending.add(move);
             }
         }
+        if (ending.size() == 1) {
+            executeMove(ending.get(0));
+            return;
+        }
+        if (!ending.isEmpty()) {
+            statusLabel.setText("Several captures end there; click the squares along the way.");
+            return;
+        }
         
         // Otherwise, it's a piece selection click
-        clearHighlights();
+        clearSelection();
+        updateStatus();
         Piece clickedPiece = game.getBoard().getPiece(pos);
         if (clickedPiece != null && clickedPiece.getColor() == game.getCurrentPlayer().getColor()) {
             selectedPiece = clickedPiece;
-            selectedPieceNode = getSquarePane(pos).getChildren().get(1); // Assuming piece is the second child
-            
-            // Apply selection effect
-            selectedPieceNode.setEffect(new DropShadow(20, Color.GOLD));
-            
             possibleMoves = game.getPossibleMoves();
             possibleMoves.removeIf(move -> !move.getFrom().equals(selectedPiece.getPosition()));
-            
-            highlightPossibleMoves();
-        } else {
-            selectedPiece = null;
-            selectedPieceNode = null;
-            possibleMoves.clear();
+            showSelection();
         }
     }
 
@@ -201,55 +235,178 @@ public class CheckersGUI extends Application {
      * @param move The move to perform.
      */
     private void executeMove(Move move) {
-        Position from = move.getFrom();
-        Position to = move.getTo();
-
-        StackPane fromPane = getSquarePane(from);
-        Node pieceNode = fromPane.getChildren().get(fromPane.getChildren().size() - 1);
-
-        // Animation setup
-        TranslateTransition tt = new TranslateTransition(Duration.millis(400), pieceNode);
-        tt.setToX((to.getCol() - from.getCol()) * TILE_SIZE);
-        tt.setToY((to.getRow() - from.getRow()) * TILE_SIZE);
-
+        Animation tt = boardView.animateMove(move, Duration.millis(400));
         tt.setOnFinished(event -> {
+            moveAnimation = null;
             // Update model
             game.makeMove(move);
             
-            // Redraw the entire board state without animations
-            redrawBoardState();
+            // Keep the moved node; only captures and a crowning are left to redraw
+            boardView.movePiece(move.getFrom(), move.getTo());
+            boardView.show(game.getBoard());
             updateStatus();
+            startComputerMove();
         });
 
-        clearHighlights();
+        clearSelection();
+        moveAnimation = tt;
         tt.play();
     }
 
     /**
-     * Redraws the board based on the current game model state.
+     * @return true if the computer is to move in a game that is not over.
      */
-    private void redrawBoardState() {
-        // Clear all visual pieces
-        for (int r = 0; r < BOARD_SIZE; r++) {
-            for (int c = 0; c < BOARD_SIZE; c++) {
-                getSquarePane(new Position(r, c)).getChildren().removeIf(node -> !(node instanceof Rectangle));
+    private boolean isComputerTurn() {
+        return computerCheckBox.isSelected() && !game.isGameOver()
+                && game.getCurrentPlayer().getColor() == COMPUTER_COLOR;
+    }
+
+    /**
+     * Starts the computer's search on the engine thread if it is the computer's
+     * turn. The search works on a copy of the board and of the keys of the
+     * game's earlier positions, so the game can be changed while it runs; its
+     * move is only played if it was not cancelled first.
+     */
+    private void startComputerMove() {
+        if (!isComputerTurn() || search != null) {
+            return;
+        }
+        Board board = new Board(game.getBoard());
+        PieceColor side = game.getCurrentPlayer().getColor();
+        long[] history = game.getRepetitionKeys();
+        Task<SearchResult> task = new Task<>() {
+            private long lastUpdate;
+
+            @Override
+            protected SearchResult call() {
+                updateMessage("Thinking...");
+                engine.setListener(result -> {
+                    if (isCancelled()) {
+                        engine.stop();
+                        return;
+                    }
+                    // Early iterations finish within microseconds of each other
+                    long now = System.nanoTime();
+                    if (now - lastUpdate >= PROGRESS_INTERVAL_MILLIS * 1_000_000L) {
+                        lastUpdate = now;
+                        updateMessage(String.format("Thinking... depth %d, %,d nodes/s", result.getDepth(),
+                                result.getNodesPerSecond()));
+                    }
+                });
+                return engine.search(board, side, history, MAX_DEPTH, THINK_MILLIS);
             }
+        };
+        task.setOnSucceeded(event -> {
+            if (search != task) {
+                return;
+            }
+            finishSearch();
+            Move move = task.getValue().getMove();
+            if (move != null) {
+                executeMove(move);
+            }
+        });
+        task.setOnFailed(event -> {
+            if (search != task) {
+                return;
+            }
+            finishSearch();
+            statusLabel.setText("The computer failed: " + task.getException());
+        });
+
+        search = task;
+        thinkingLabel.textProperty().bind(task.messageProperty());
+        thinkingBox.setVisible(true);
+        engineThread.execute(task);
+    }
+
+    /**
+     * Abandons the computer's search, if one is running. Its move will not be played.
+     */
+    private void cancelSearch() {
+        if (search != null) {
+            search.cancel();
+            engine.stop();
+            finishSearch();
+        }
+    }
+
+    private void finishSearch() {
+        search = null;
+        thinkingLabel.textProperty().unbind();
+        thinkingBox.setVisible(false);
+    }
+
+    /**
+     * Stops the move being animated; the move itself is not made.
+     */
+    private void stopAnimation() {
+        if (moveAnimation != null) {
+            moveAnimation.stop();
+            moveAnimation = null;
+            boardView.resetTranslation();
+        }
+    }
+
+    /**
+     * Takes back the last move, or against the computer the moves since the
+     * player's previous turn.
+     */
+    private void takeBack() {
+        cancelSearch();
+        stopAnimation();
+        while (game.undoMove() && isComputerTurn()) {
+            // Keep going back to the player's turn
         }
-        // Redraw pieces in their new positions
-        drawPieces();
+        resetView();
     }
-    
+
+    private void newGame() {
+        cancelSearch();
+        stopAnimation();
+        game.startGame();
+        resetView();
+    }
+
     /**
-     * Highlights the squares that are valid destinations for the selected piece.
+     * Redraws the board after the game was changed without a move, and lets
+     * the computer move if it is its turn.
      */
-    private void highlightPossibleMoves() {
+    private void resetView() {
+        clearSelection();
+        boardView.show(game.getBoard());
+        updateStatus();
+        startComputerMove();
+    }
+
+    /**
+     * Marks the selected piece and the squares clicked on its route so far,
+     * and highlights the squares it can land on next and the squares its
+     * moves end on.
+     */
+    private void showSelection() {
+        clearHighlights();
+        selectedPieceNode = boardView.getPieceNode(selectedPiece.getPosition());
+        selectedPieceNode.setEffect(SELECTED_EFFECT);
+        for (Position landing : route) {
+            addHighlight(landing, ROUTE_FILL);
+        }
+        Set<Position> targets = new HashSet<>();
         for (Move move : possibleMoves) {
-            StackPane pane = getSquarePane(move.getTo());
-            Circle highlight = new Circle(TILE_SIZE * 0.2, Color.rgb(255, 255, 0, 0.5));
-            highlight.setMouseTransparent(true);
-            pane.getChildren().add(highlight);
-            highlightNodes.add(highlight);
+            targets.add(move.getPath().get(route.size()));
+            targets.add(move.getTo());
         }
+        for (Position target : targets) {
+            addHighlight(target, HIGHLIGHT_FILL);
+        }
+    }
+
+    private void addHighlight(Position pos, Color fill) {
+        StackPane pane = boardView.getSquarePane(pos);
+        Circle highlight = new Circle(BoardView.TILE_SIZE * 0.2, fill);
+        highlight.setMouseTransparent(true);
+        pane.getChildren().add(highlight);
+        highlightNodes.add(highlight);
     }
 
     /**
@@ -266,6 +423,16 @@ public class CheckersGUI extends Application {
         highlightNodes.clear();
     }
 
+    /**
+     * Forgets the selected piece, its moves and its route, and removes their highlights.
+     */
+    private void clearSelection() {
+        clearHighlights();
+        selectedPiece = null;
+        possibleMoves.clear();
+        route.clear();
+    }
+
     /**
      * Updates the status label with the current game state.
      */
@@ -278,10 +445,4 @@ public class CheckersGUI extends Application {
         }
     }
 
-    /**
-     * Helper to get the StackPane for a given board position.
-     */
-    private StackPane getSquarePane(Position pos) {
-        return (StackPane) boardGrid.getChildren().get(pos.getRow() * BOARD_SIZE + pos.getCol());
-    }
 }
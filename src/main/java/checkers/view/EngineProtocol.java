@@ -0,0 +1,569 @@
+package checkers.view;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import checkers.engine.EvaluationWeights;
+import checkers.engine.Evaluator;
+import checkers.engine.OpeningBook;
+import checkers.engine.SearchEngine;
+import checkers.engine.SearchResult;
+import checkers.engine.SmpSearch;
+import checkers.engine.Tablebase;
+import checkers.engine.TranspositionTable;
+import checkers.io.PdnGame;
+import checkers.model.Board;
+import checkers.model.CheckersException;
+import checkers.model.Game;
+import checkers.model.Move;
+import checkers.model.MoveGenerator;
+import checkers.model.PackedMove;
+import checkers.model.PieceColor;
+import checkers.model.Player;
+import checkers.model.Zobrist;
+
+/**
+ * Runs the engine under the control of another program, such as a
+ * tournament manager or a GUI, that talks to it over standard input and
+ * output one line at a time.
+ * <p>
+ * The commands are those of UCI, with moves written as in PDN ({@code 11-15},
+ * {@code 9x18x27}, or a jump by its ends only, {@code 9x27}) and positions in
+ * {@link checkers.model.Fen}; {@code startpos} is the PDN standard start, with
+ * Black to move. As in PDN, White is Red, so {@code wtime} is Red's clock.
+ * <pre>
+ * uci                            answered by id and option lines, then uciok
+ * isready                        answered by readyok
+ * setoption name N value V       Threads, Hash (MB), Tablebase (directory), Book (file),
+ *                                Weights (evaluation weights file)
+ * ucinewgame                     forget what earlier searches stored
+ * position startpos|fen FEN [moves M...]
+ * go [wtime MS] [btime MS] [winc MS] [binc MS] [movestogo N] [movetime MS]
+ *    [depth N] [infinite] [ponder]
+ * stop                           answer with the best move found so far
+ * ponderhit                      the expected move was played; go on searching on the clock
+ * quit
+ * </pre>
+ * A search runs on a thread of its own, sends an {@code info} line after each
+ * completed iteration and ends with {@code bestmove M [ponder M]}. Commands
+ * are read on the main thread all the while, so {@code stop} ends a search
+ * at once. A search without a time or depth limit, or a pondering search,
+ * holds its answer until {@code stop} or {@code ponderhit}.
+ */
+public class EngineProtocol {
+
+    private static final int MAX_THREADS = 256;
+    private static final int DEFAULT_HASH_MB = 64;
+    private static final int MAX_HASH_MB = 4096;
+    private static final int MAX_PV_LENGTH = 16;
+    // Long enough to never run out, short enough not to overflow a deadline in nanoseconds
+    private static final long INFINITE_MILLIS = 365L * 24 * 60 * 60 * 1000;
+    // Kept back from the clock for sending the move
+    private static final long SAFETY_MILLIS = 50;
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+
+    private final BufferedReader in;
+    private final PrintStream out;
+    private final Random random = new Random();
+    private final ExecutorService searchThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "engine-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "engine-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Game game = newGame();
+    private int threads = 1;
+    private int hashMegabytes = DEFAULT_HASH_MB;
+    private TranspositionTable table;
+    private SmpSearch search; // Made when first needed after the options change
+    private Tablebase tablebase;
+    private OpeningBook book;
+    private EvaluationWeights weights = new EvaluationWeights();
+
+    // The running search, guarded by this
+    private boolean searching;
+    private boolean infinite;
+    private boolean pondering;
+    private long ponderMillis; // The time to search for after a ponderhit
+    private int searchId;
+    private ScheduledFuture<?> stopTimer;
+    private volatile boolean stopRequested;
+
+    // The position being searched; written before the search is handed to its thread
+    private Board searchBoard;
+    private PieceColor searchSide;
+
+    public EngineProtocol(BufferedReader in, PrintStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    public static void main(String[] args) {
+        EngineProtocol protocol = new EngineProtocol(new BufferedReader(new InputStreamReader(System.in)),
+                System.out);
+        try {
+            protocol.run();
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads and carries out commands until {@code quit} or the end of input.
+     */
+    public void run() throws IOException {
+        try {
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                if (!execute(line.trim().split("\\s+"))) {
+                    break;
+                }
+            }
+        } finally {
+            quit();
+        }
+    }
+
+    /**
+     * Carries out one command.
+     * @return false if the command was {@code quit}.
+     */
+    private boolean execute(String[] tokens) {
+        switch (tokens[0]) {
+            case "":
+            case "debug":
+                break;
+            case "uci":
+                send("id name Checkers");
+                send("id author the Checkers authors");
+                send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                send("option name Hash type spin default " + DEFAULT_HASH_MB + " min 1 max " + MAX_HASH_MB);
+                send("option name Tablebase type string default <empty>");
+                send("option name Book type string default <empty>");
+                send("option name Weights type string default <empty>");
+                send("option name Ponder type check default false");
+                send("uciok");
+                break;
+            case "isready":
+                send("readyok");
+                break;
+            case "setoption":
+                if (!isBusy()) {
+                    setOption(tokens);
+                }
+                break;
+            case "ucinewgame":
+                if (!isBusy() && table != null) {
+                    table.clear();
+                }
+                break;
+            case "position":
+                if (!isBusy()) {
+                    try {
+                        setPosition(tokens);
+                    } catch (CheckersException e) {
+                        send("info string " + e.getMessage());
+                    }
+                }
+                break;
+            case "go":
+                if (!isBusy()) {
+                    try {
+                        go(tokens);
+                    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                        send("info string Bad go command");
+                    }
+                }
+                break;
+            case "stop":
+                stop();
+                break;
+            case "ponderhit":
+                ponderHit();
+                break;
+            case "quit":
+                return false;
+            default:
+                send("info string Unknown command: " + tokens[0]);
+        }
+        return true;
+    }
+
+    private synchronized boolean isBusy() {
+        if (searching) {
+            send("info string Searching; send stop first");
+        }
+        return searching;
+    }
+
+    private void setOption(String[] tokens) {
+        int valueAt = tokens.length;
+        for (int i = 2; i < tokens.length; i++) {
+            if (tokens[i].equals("value")) {
+                valueAt = i;
+                break;
+            }
+        }
+        String name = join(tokens, 2, valueAt);
+        String value = join(tokens, valueAt + 1, tokens.length);
+        if (value.equals("<empty>")) {
+            value = "";
+        }
+        try {
+            switch (name.toLowerCase()) {
+                case "threads":
+                    threads = Math.max(1, Math.min(Integer.parseInt(value), MAX_THREADS));
+                    closeSearch();
+                    break;
+                case "hash":
+                    hashMegabytes = Math.max(1, Math.min(Integer.parseInt(value), MAX_HASH_MB));
+                    table = null;
+                    closeSearch();
+                    break;
+                case "tablebase":
+                    if (tablebase != null) {
+                        tablebase.close();
+                        tablebase = null;
+                    }
+                    if (!value.isEmpty()) {
+                        tablebase = Tablebase.open(Paths.get(value));
+                    }
+                    if (search != null) {
+                        search.setTablebase(tablebase);
+                    }
+                    break;
+                case "book":
+                    if (book != null) {
+                        book.close();
+                        book = null;
+                    }
+                    if (!value.isEmpty()) {
+                        book = OpeningBook.open(Paths.get(value));
+                    }
+                    break;
+                case "weights":
+                    weights = value.isEmpty() ? new EvaluationWeights() : EvaluationWeights.load(Paths.get(value));
+                    closeSearch();
+                    break;
+                case "ponder":
+                    break;
+                default:
+                    send("info string Unknown option: " + name);
+            }
+        } catch (IOException | CheckersException | NumberFormatException e) {
+            send("info string Cannot set " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sets up a position. The moves are checked against the legal moves, and
+     * the position is left as it was if one of them is not legal.
+     */
+    private void setPosition(String[] tokens) throws CheckersException {
+        PdnGame pdn = new PdnGame();
+        int i = 2;
+        if (tokens.length > 1 && tokens[1].equals("fen")) {
+            while (i < tokens.length && !tokens[i].equals("moves")) {
+                i++;
+            }
+            pdn.setTag("FEN", join(tokens, 2, i));
+        } else if (tokens.length < 2 || !tokens[1].equals("startpos")) {
+            throw new CheckersException("Expected startpos or fen");
+        }
+        if (i < tokens.length && tokens[i].equals("moves")) {
+            for (i++; i < tokens.length; i++) {
+                pdn.addMove(PdnGame.parseMove(tokens[i]));
+            }
+        }
+        Game position = newGame();
+        pdn.replay(position, true);
+        game = position;
+    }
+
+    private void go(String[] tokens) {
+        long redTime = -1;
+        long blackTime = -1;
+        long redIncrement = 0;
+        long blackIncrement = 0;
+        int movesToGo = 0;
+        long moveTime = 0;
+        int depth = 0;
+        boolean untilStopped = false;
+        boolean ponder = false;
+        for (int i = 1; i < tokens.length; i++) {
+            switch (tokens[i]) {
+                case "wtime":
+                    redTime = Long.parseLong(tokens[++i]);
+                    break;
+                case "btime":
+                    blackTime = Long.parseLong(tokens[++i]);
+                    break;
+                case "winc":
+                    redIncrement = Long.parseLong(tokens[++i]);
+                    break;
+                case "binc":
+                    blackIncrement = Long.parseLong(tokens[++i]);
+                    break;
+                case "movestogo":
+                    movesToGo = Integer.parseInt(tokens[++i]);
+                    break;
+                case "movetime":
+                    moveTime = Long.parseLong(tokens[++i]);
+                    break;
+                case "depth":
+                    depth = Integer.parseInt(tokens[++i]);
+                    break;
+                case "infinite":
+                    untilStopped = true;
+                    break;
+                case "ponder":
+                    ponder = true;
+                    break;
+                default:
+                    send("info string Ignoring " + tokens[i]);
+            }
+        }
+
+        PieceColor side = game.getCurrentPlayer().getColor();
+        long clock = side == PieceColor.RED ? redTime : blackTime;
+        long increment = side == PieceColor.RED ? redIncrement : blackIncrement;
+        long millis = moveTime > 0 ? moveTime
+                : clock >= 0 ? allocate(clock, increment, movesToGo) : INFINITE_MILLIS;
+        if (moveTime <= 0 && clock < 0 && depth <= 0) {
+            untilStopped = true;
+        }
+
+        if (book != null && !ponder && !untilStopped) {
+            Move move = book.choose(game, random);
+            if (move != null) {
+                send("bestmove " + PdnGame.toText(move));
+                return;
+            }
+        }
+
+        SmpSearch engine = getSearch();
+        int maxDepth = depth > 0 ? depth : Integer.MAX_VALUE;
+        long limit = ponder || untilStopped ? INFINITE_MILLIS : millis;
+        synchronized (this) {
+            searching = true;
+            infinite = untilStopped;
+            pondering = ponder;
+            ponderMillis = millis;
+            stopRequested = false;
+            searchId++;
+        }
+        searchBoard = new Board(game.getBoard());
+        searchSide = side;
+        Board board = searchBoard;
+        long[] history = game.getRepetitionKeys();
+        searchThread.execute(() -> runSearch(engine, board, side, history, maxDepth, limit));
+    }
+
+    /**
+     * @return The time to spend on a move: an even share of the clock over
+     *         the moves still to play, plus most of the increment.
+     */
+    private static long allocate(long clock, long increment, int movesToGo) {
+        long millis = clock / (movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO) + increment * 3 / 4;
+        return Math.max(1, Math.min(millis, clock - SAFETY_MILLIS));
+    }
+
+    private void runSearch(SmpSearch engine, Board board, PieceColor side, long[] history, int maxDepth,
+                           long limit) {
+        SearchResult result = engine.search(board, side, history, maxDepth, limit);
+        synchronized (this) {
+            // A search that ran out of moves to look at early still waits to be told to answer
+            while ((infinite || pondering) && !stopRequested) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (stopTimer != null) {
+                stopTimer.cancel(false);
+                stopTimer = null;
+            }
+        }
+
+        String answer;
+        if (result.getBestMove() == 0) {
+            answer = "bestmove (none)";
+        } else {
+            List<Move> pv = principalVariation(board, side, result.getBestMove());
+            answer = "bestmove " + PdnGame.toText(pv.get(0))
+                    + (pv.size() > 1 ? " ponder " + PdnGame.toText(pv.get(1)) : "");
+        }
+        synchronized (this) {
+            searching = false;
+        }
+        send(answer);
+    }
+
+    private synchronized void stop() {
+        if (!searching) {
+            return;
+        }
+        stopRequested = true;
+        search.stop();
+        notifyAll();
+    }
+
+    /**
+     * Turns a pondering search into a normal one, whose time starts now.
+     */
+    private synchronized void ponderHit() {
+        if (!searching || !pondering) {
+            return;
+        }
+        pondering = false;
+        if (!infinite) {
+            int id = searchId;
+            stopTimer = timer.schedule(() -> stopSearch(id), ponderMillis, TimeUnit.MILLISECONDS);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Stops a search if it is still the one running.
+     */
+    private synchronized void stopSearch(int id) {
+        if (searching && searchId == id) {
+            search.stop();
+        }
+    }
+
+    private void iterationComplete(SearchResult result) {
+        if (stopRequested) {
+            // The stop may have come before the search cleared its stop flag
+            search.stop();
+        }
+        StringBuilder info = new StringBuilder("info depth ").append(result.getDepth());
+        int plies = SearchEngine.pliesToEnd(result.getScore());
+        if (plies != 0) {
+            info.append(" score mate ").append(plies > 0 ? (plies + 1) / 2 : -(-plies / 2));
+        } else {
+            info.append(" score cp ").append(result.getScore());
+        }
+        info.append(" nodes ").append(result.getNodes())
+                .append(" time ").append(result.getElapsedNanos() / 1_000_000)
+                .append(" nps ").append(result.getNodesPerSecond())
+                .append(" pv");
+        for (Move move : principalVariation(searchBoard, searchSide, result.getBestMove())) {
+            info.append(' ').append(PdnGame.toText(move));
+        }
+        send(info.toString());
+    }
+
+    /**
+     * Follows the best moves stored in the transposition table from a position.
+     * @param first The best move in the position itself.
+     * @return The line of best play, starting with the first move.
+     */
+    private List<Move> principalVariation(Board position, PieceColor side, long first) {
+        List<Move> pv = new ArrayList<>();
+        Board board = new Board(position);
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        long[] paths = new long[MoveGenerator.MAX_MOVES];
+        while (pv.size() < MAX_PV_LENGTH) {
+            int count = MoveGenerator.generate(board, side, moves, paths);
+            long data = 0;
+            if (!pv.isEmpty()) {
+                data = table.probe(side == PieceColor.RED ? board.getKey() : board.getKey() ^ Zobrist.SIDE);
+            }
+            int found = -1;
+            for (int i = 0; i < count && found < 0; i++) {
+                if (pv.isEmpty() ? moves[i] == first : TranspositionTable.sameMove(data, moves[i])) {
+                    found = i;
+                }
+            }
+            if (found < 0) {
+                break;
+            }
+            pv.add(PackedMove.toMove(moves[found], paths[found]));
+            board.makeMove(moves[found]);
+            side = side.opposite();
+        }
+        return pv;
+    }
+
+    private SmpSearch getSearch() {
+        if (table == null) {
+            table = new TranspositionTable(hashMegabytes);
+        }
+        if (search == null) {
+            search = new SmpSearch(threads, new Evaluator(weights), table);
+            search.setTablebase(tablebase);
+            search.setListener(this::iterationComplete);
+        }
+        return search;
+    }
+
+    private void closeSearch() {
+        if (search != null) {
+            search.close();
+            search = null;
+        }
+    }
+
+    private void quit() {
+        stop();
+        searchThread.shutdown();
+        try {
+            searchThread.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        timer.shutdownNow();
+        closeSearch();
+        if (tablebase != null) {
+            tablebase.close();
+        }
+        if (book != null) {
+            book.close();
+        }
+    }
+
+    private void send(String line) {
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    private static String join(String[] tokens, int from, int to) {
+        return String.join(" ", Arrays.copyOfRange(tokens, Math.min(from, to), to));
+    }
+
+    /**
+     * @return A game at the PDN standard start, with Black to move.
+     */
+    private static Game newGame() {
+        Game game = new Game(new Player("Red", PieceColor.RED), new Player("Black", PieceColor.BLACK));
+        try {
+            game.startGame(PdnGame.STANDARD_START);
+        } catch (CheckersException e) {
+            // The standard start is always valid
+            throw new IllegalStateException(e);
+        }
+        return game;
+    }
+}
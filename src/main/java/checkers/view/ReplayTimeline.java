@@ -0,0 +1,167 @@
+package checkers.view;
+
+import java.util.List;
+
+import checkers.model.Bitboards;
+import checkers.model.Board;
+import checkers.model.CheckersException;
+import checkers.model.Fen;
+import checkers.model.Game;
+import checkers.model.Move;
+import checkers.model.PieceColor;
+
+/**
+ * The positions of a recorded game, for moving back and forth through it
+ * quickly.
+ * <p>
+ * Positions are kept as square masks. A snapshot of the masks is taken every
+ * {@value #SNAPSHOT_INTERVAL} plies when the timeline is built, so going to
+ * any ply starts from the nearest snapshot before it and replays fewer than
+ * {@value #SNAPSHOT_INTERVAL} moves, however long the game is. Stepping
+ * forward one ply replays one move.
+ */
+public class ReplayTimeline {
+
+    static final int SNAPSHOT_INTERVAL = 16;
+
+    private final Move[] moves;
+    private final boolean redFirst;
+    // red, black and kings masks of every SNAPSHOT_INTERVAL-th position
+    private final int[] snapshots;
+
+    private int ply;
+    private int red;
+    private int black;
+    private int kings;
+
+    /**
+     * @param start The starting position in {@link Fen} notation.
+     * @param moves The moves played from it, which are assumed to be legal.
+     * @throws CheckersException if the starting position is not valid FEN.
+     */
+    public ReplayTimeline(String start, List<Move> moves) throws CheckersException {
+        Board board = new Board();
+        this.redFirst = Fen.parse(start, board) == PieceColor.RED;
+        this.moves = moves.toArray(new Move[0]);
+        this.snapshots = new int[3 * (this.moves.length / SNAPSHOT_INTERVAL + 1)];
+
+        red = board.getPieces(PieceColor.RED);
+        black = board.getPieces(PieceColor.BLACK);
+        kings = board.getKings();
+        for (ply = 0; ; ply++) {
+            if (ply % SNAPSHOT_INTERVAL == 0) {
+                int at = 3 * (ply / SNAPSHOT_INTERVAL);
+                snapshots[at] = red;
+                snapshots[at + 1] = black;
+                snapshots[at + 2] = kings;
+            }
+            if (ply == this.moves.length) {
+                break;
+            }
+            apply(this.moves[ply]);
+        }
+        ply = 0;
+        red = snapshots[0];
+        black = snapshots[1];
+        kings = snapshots[2];
+    }
+
+    /**
+     * Creates the timeline of a game's moves so far.
+     */
+    public static ReplayTimeline of(Game game) {
+        try {
+            return new ReplayTimeline(game.getStartPosition(), game.getMoveHistory());
+        } catch (CheckersException e) {
+            // The game's own start position is always valid
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return The number of moves in the game.
+     */
+    public int getMoveCount() {
+        return moves.length;
+    }
+
+    /**
+     * @return The move played from the position at a ply.
+     */
+    public Move getMove(int ply) {
+        return moves[ply];
+    }
+
+    /**
+     * @return The number of moves played to reach the current position.
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    public int getRed() {
+        return red;
+    }
+
+    public int getBlack() {
+        return black;
+    }
+
+    public int getKings() {
+        return kings;
+    }
+
+    public PieceColor getSideToMove() {
+        return redFirst == (ply % 2 == 0) ? PieceColor.RED : PieceColor.BLACK;
+    }
+
+    /**
+     * Goes to the position after a number of moves, from the nearest snapshot.
+     */
+    public void seek(int target) {
+        if (target < 0 || target > moves.length) {
+            throw new IndexOutOfBoundsException("Ply " + target + " of " + moves.length);
+        }
+        if (target < ply || target - ply >= SNAPSHOT_INTERVAL) {
+            int at = 3 * (target / SNAPSHOT_INTERVAL);
+            red = snapshots[at];
+            black = snapshots[at + 1];
+            kings = snapshots[at + 2];
+            ply = target / SNAPSHOT_INTERVAL * SNAPSHOT_INTERVAL;
+        }
+        while (ply < target) {
+            apply(moves[ply++]);
+        }
+    }
+
+    /**
+     * Plays the next move.
+     * @return false if the game has no more moves.
+     */
+    public boolean step() {
+        if (ply == moves.length) {
+            return false;
+        }
+        apply(moves[ply++]);
+        return true;
+    }
+
+    private void apply(Move move) {
+        int from = 1 << Bitboards.square(move.getFrom());
+        int to = 1 << Bitboards.square(move.getTo());
+        int captured = move.getCapturedMask();
+        boolean redMoving = (red & from) != 0;
+        boolean king = (kings & from) != 0 || (to & (redMoving ? Bitboards.TOP_ROW : Bitboards.BOTTOM_ROW)) != 0;
+        if (redMoving) {
+            red = (red & ~from) | to;
+            black &= ~captured;
+        } else {
+            black = (black & ~from) | to;
+            red &= ~captured;
+        }
+        kings &= ~(captured | from);
+        if (king) {
+            kings |= to;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package checkers.view;
+
+import javafx.animation.Animation;
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import checkers.io.ArchiveReader;
+import checkers.io.PdnGame;
+import checkers.io.PdnReader;
+import checkers.model.CheckersException;
+import checkers.model.Game;
+import checkers.model.Move;
+import checkers.model.PieceColor;
+import checkers.model.Player;
+
+/**
+ * Plays back recorded games from a PDN file or a game archive.
+ * <p>
+ * Usage: {@code ReplayViewer [FILE]}; without a file, one is asked for.
+ * A scrubber goes straight to any move, using the snapshots of a
+ * {@link ReplayTimeline}, and playback runs at a chosen number of moves per
+ * second. Up to {@value #MAX_ANIMATED_SPEED} moves per second each move is
+ * animated; faster than that, the moves due in a frame are applied together
+ * and the board is redrawn once.
+ */
+public class ReplayViewer extends Application {
+
+    private static final double[] SPEEDS = {0.5, 1, 2, 4, 8, 16, 64, 256};
+    private static final double MAX_ANIMATED_SPEED = 4;
+    private static final double MAX_HOP_MILLIS = 400;
+
+    private final Game game = new Game(new Player("Red", PieceColor.RED), new Player("Black", PieceColor.BLACK));
+    private ArchiveReader archive;
+    private final List<PdnGame> pdnGames = new ArrayList<>();
+    private long gameCount;
+    private long gameIndex;
+    private String result = "*";
+
+    private ReplayTimeline timeline;
+    private BoardView boardView;
+    private Label statusLabel;
+    private Slider scrubber;
+    private Button playButton;
+    private boolean updatingScrubber;
+
+    private double speed = 1; // Moves per second
+    private double playhead; // Moves since the start, advanced by the clock while playing
+    private long lastFrame;
+    private boolean playing;
+    private Animation moveAnimation; // The move being animated, if any
+
+    private final AnimationTimer player = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            advance(now);
+        }
+    };
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+    @Override
+    public void start(Stage primaryStage) {
+        primaryStage.setTitle("Checkers Replay");
+
+        List<String> args = getParameters().getRaw();
+        File file;
+        if (args.isEmpty()) {
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle("Open games");
+            chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Games", "*.pdn", "*.ckra"));
+            file = chooser.showOpenDialog(primaryStage);
+            if (file == null) {
+                Platform.exit();
+                return;
+            }
+        } else {
+            file = new File(args.get(0));
+        }
+
+        BorderPane root = new BorderPane();
+        root.setStyle("-fx-background-color: #333;");
+        root.setPadding(new Insets(20));
+
+        statusLabel = new Label();
+        statusLabel.setFont(Font.font("Verdana", FontWeight.BOLD, 18));
+        statusLabel.setTextFill(Color.WHITE);
+        statusLabel.setPadding(new Insets(0, 0, 15, 0));
+        BorderPane.setAlignment(statusLabel, Pos.CENTER);
+
+        boardView = new BoardView();
+        root.setTop(statusLabel);
+        root.setCenter(boardView);
+        root.setBottom(createControls());
+
+        try {
+            open(file.toPath());
+        } catch (IOException | CheckersException e) {
+            statusLabel.setText("Cannot read " + file + ": " + e.getMessage());
+        }
+
+        primaryStage.setScene(new Scene(root));
+        primaryStage.setResizable(false);
+        primaryStage.show();
+    }
+
+    @Override
+    public void stop() {
+        player.stop();
+        if (archive != null) {
+            archive.close();
+        }
+    }
+
+    private VBox createControls() {
+        scrubber = new Slider(0, 0, 0);
+        scrubber.setBlockIncrement(1);
+        scrubber.valueProperty().addListener((observable, oldValue, newValue) -> {
+            if (!updatingScrubber && timeline != null) {
+                seek((int) Math.round(newValue.doubleValue()));
+            }
+        });
+
+        Button previousGame = new Button("Previous Game");
+        previousGame.setOnAction(event -> loadGame(gameIndex - 1));
+        Button nextGame = new Button("Next Game");
+        nextGame.setOnAction(event -> loadGame(gameIndex + 1));
+        Button first = new Button("|<");
+        first.setOnAction(event -> seek(0));
+        Button back = new Button("<");
+        back.setOnAction(event -> seek(timeline.getPly() - 1));
+        playButton = new Button("Play");
+        playButton.setOnAction(event -> setPlaying(!playing));
+        Button forward = new Button(">");
+        forward.setOnAction(event -> seek(timeline.getPly() + 1));
+        Button last = new Button(">|");
+        last.setOnAction(event -> seek(timeline.getMoveCount()));
+
+        ComboBox<String> speedBox = new ComboBox<>();
+        for (double s : SPEEDS) {
+            speedBox.getItems().add(formatSpeed(s));
+        }
+        speedBox.setValue(formatSpeed(speed));
+        speedBox.setOnAction(event -> speed = SPEEDS[speedBox.getItems().indexOf(speedBox.getValue())]);
+
+        HBox buttons = new HBox(10, previousGame, nextGame, first, back, playButton, forward, last, speedBox);
+        buttons.setAlignment(Pos.CENTER);
+        VBox controls = new VBox(10, scrubber, buttons);
+        controls.setPadding(new Insets(15, 0, 0, 0));
+        return controls;
+    }
+
+    private static String formatSpeed(double movesPerSecond) {
+        return (movesPerSecond < 1 ? String.valueOf(movesPerSecond) : String.valueOf((int) movesPerSecond))
+                + " moves/s";
+    }
+
+    /**
+     * Opens a PDN file, reading all its games, or maps a game archive.
+     */
+    private void open(Path path) throws IOException, CheckersException {
+        if (path.toString().endsWith(".ckra")) {
+            archive = ArchiveReader.open(path);
+            gameCount = archive.getGameCount();
+        } else {
+            try (PdnReader reader = PdnReader.open(path)) {
+                PdnGame pdn = new PdnGame();
+                while (reader.readGame(pdn)) {
+                    pdnGames.add(pdn);
+                    pdn = new PdnGame();
+                }
+            }
+            gameCount = pdnGames.size();
+        }
+        loadGame(0);
+    }
+
+    /**
+     * Shows the start of game n, if there is such a game.
+     */
+    private void loadGame(long n) {
+        if (n < 0 || n >= gameCount) {
+            return;
+        }
+        setPlaying(false);
+        stopAnimation();
+        gameIndex = n;
+        try {
+            if (archive != null) {
+                archive.replay(n, game);
+                result = PdnGame.resultText(archive.getResult(n));
+            } else {
+                PdnGame pdn = pdnGames.get((int) n);
+                pdn.replay(game, false);
+                result = pdn.getResult();
+            }
+        } catch (CheckersException e) {
+            timeline = null;
+            statusLabel.setText("Game " + (n + 1) + " cannot be replayed: " + e.getMessage());
+            return;
+        }
+        timeline = ReplayTimeline.of(game);
+        updatingScrubber = true;
+        scrubber.setMax(timeline.getMoveCount());
+        updatingScrubber = false;
+        seek(0);
+    }
+
+    private void setPlaying(boolean play) {
+        if (play && timeline != null && timeline.getPly() == timeline.getMoveCount()) {
+            seek(0);
+        }
+        playing = play && timeline != null;
+        playButton.setText(playing ? "Pause" : "Play");
+        if (playing) {
+            playhead = timeline.getPly();
+            lastFrame = 0;
+            player.start();
+        } else {
+            player.stop();
+        }
+    }
+
+    /**
+     * Goes straight to the position after a number of moves.
+     */
+    private void seek(int ply) {
+        if (timeline == null) {
+            return;
+        }
+        stopAnimation();
+        timeline.seek(Math.max(0, Math.min(ply, timeline.getMoveCount())));
+        playhead = timeline.getPly();
+        showPosition();
+    }
+
+    /**
+     * Moves the playhead on by the time since the last frame and shows the
+     * moves that became due.
+     */
+    private void advance(long now) {
+        if (lastFrame != 0) {
+            playhead += (now - lastFrame) / 1e9 * speed;
+        }
+        lastFrame = now;
+        if (moveAnimation != null) {
+            return; // Moves that fall due meanwhile are applied with the next one
+        }
+        int target = (int) Math.min(playhead, timeline.getMoveCount());
+        if (target == timeline.getPly() + 1 && speed <= MAX_ANIMATED_SPEED) {
+            animateNextMove();
+        } else if (target > timeline.getPly()) {
+            timeline.seek(target);
+            showPosition();
+        }
+        if (timeline.getPly() == timeline.getMoveCount() && moveAnimation == null) {
+            setPlaying(false);
+        }
+    }
+
+    private void animateNextMove() {
+        Move move = timeline.getMove(timeline.getPly());
+        // Leave a little of each move's time standing still
+        double hopMillis = Math.min(MAX_HOP_MILLIS, 800 / speed / move.getPath().size());
+        moveAnimation = boardView.animateMove(move, Duration.millis(hopMillis));
+        moveAnimation.setOnFinished(event -> {
+            moveAnimation = null;
+            timeline.step();
+            boardView.movePiece(move.getFrom(), move.getTo());
+            showPosition();
+        });
+        moveAnimation.play();
+    }
+
+    private void stopAnimation() {
+        if (moveAnimation != null) {
+            moveAnimation.stop();
+            moveAnimation = null;
+            boardView.resetTranslation();
+        }
+    }
+
+    /**
+     * Shows the timeline's current position and moves the scrubber to it.
+     */
+    private void showPosition() {
+        boardView.show(timeline.getRed(), timeline.getBlack(), timeline.getKings());
+        updatingScrubber = true;
+        scrubber.setValue(timeline.getPly());
+        updatingScrubber = false;
+        statusLabel.setText(String.format("Game %d of %d   Move %d of %d   %s to move   Result %s", gameIndex + 1,
+                gameCount, timeline.getPly(), timeline.getMoveCount(),
+                timeline.getSideToMove() == PieceColor.RED ? "Red" : "Black", result));
+    }
+}
@@ -9,10 +9,17 @@ module checkers {
     // This application requires the JavaFX graphics module for drawing shapes and handling scenes.
     requires javafx.graphics;
 
+    // Flight Recorder events and the JMX view of the metrics.
+    requires jdk.jfr;
+    requires java.management;
+
     // Exports the main package to the JavaFX graphics module,
     // allowing the JavaFX framework to launch the application.
      exports checkers.view;
 
+    // The metrics MBean interface must be visible to the JMX agent.
+    exports checkers.metrics;
+
     // Replace with an existing package, for example:
     // exports checkers; // Uncomment and update if 'checkers' package exists
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package checkers.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import checkers.model.CheckersException;
+
+class EvaluationWeightsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void loadsWhatItSaves() throws IOException, CheckersException {
+        EvaluationWeights weights = new EvaluationWeights(new int[] {100, 155, -3, 11, 7});
+        Path file = directory.resolve("weights.txt");
+        weights.save(file);
+        assertEquals(weights, EvaluationWeights.load(file));
+    }
+
+    @Test
+    void keepsTheDefaultsForTermsLeftOut() throws IOException, CheckersException {
+        Path file = directory.resolve("weights.txt");
+        Files.writeString(file, "# Only the king\n\n  king = 150  \n");
+        assertEquals(new EvaluationWeights().with(EvaluationWeights.Term.KING, 150), EvaluationWeights.load(file));
+    }
+
+    @Test
+    void rejectsUnknownTermsAndBadNumbers() throws IOException {
+        for (String line : new String[] {"queen = 900", "king 150", "king = 1.5", "king = lots", "mobility ="}) {
+            Path file = directory.resolve("weights.txt");
+            Files.writeString(file, "man = 100\n" + line + "\n");
+            CheckersException e = assertThrows(CheckersException.class, () -> EvaluationWeights.load(file), line);
+            assertTrue(e.getMessage().startsWith("Line 2 of "), e.getMessage());
+        }
+    }
+}
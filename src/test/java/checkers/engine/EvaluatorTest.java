@@ -0,0 +1,64 @@
+package checkers.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import checkers.model.Board;
+import checkers.model.MoveGenerator;
+import checkers.model.PackedMove;
+import checkers.model.PieceColor;
+
+class EvaluatorTest {
+
+    @Test
+    void materialDeltaKeepsUpWithMaterialAlongRandomGames() {
+        Random random = new Random(42);
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        int promotions = 0;
+        int multiCaptures = 0;
+        for (Evaluator evaluator : new Evaluator[] {new Evaluator(),
+                new Evaluator(new EvaluationWeights(new int[] {100, 170, 13, -7, 5}))}) {
+            for (int game = 0; game < 200; game++) {
+                Board board = new Board();
+                board.initializeBoard();
+                int own = board.getPieces(PieceColor.RED);
+                int opponent = board.getPieces(PieceColor.BLACK);
+                int kings = 0;
+                boolean red = true;
+                int material = evaluator.material(own, opponent, kings, red);
+                for (int ply = 0; ply < 200; ply++) {
+                    int count = MoveGenerator.generate(own, opponent, kings, red, moves);
+                    if (count == 0) {
+                        break;
+                    }
+                    long move = moves[random.nextInt(count)];
+                    int from = 1 << PackedMove.from(move);
+                    int to = 1 << PackedMove.to(move);
+                    int captured = PackedMove.captured(move);
+                    promotions += PackedMove.isPromotion(move) ? 1 : 0;
+                    multiCaptures += Integer.bitCount(captured) > 1 ? 1 : 0;
+
+                    int delta = evaluator.materialDelta(move, kings, red);
+                    int newKings = kings & ~captured & ~from;
+                    if ((kings & from) != 0 || PackedMove.isPromotion(move)) {
+                        newKings |= to;
+                    }
+                    int moved = (own & ~from) | to;
+                    own = opponent & ~captured;
+                    opponent = moved;
+                    kings = newKings;
+                    red = !red;
+                    material = -(material + delta);
+                    assertEquals(evaluator.material(own, opponent, kings, red), material,
+                            "game " + game + " ply " + ply);
+                }
+            }
+        }
+        assertTrue(promotions > 0, "no promotions played");
+        assertTrue(multiCaptures > 0, "no multiple captures played");
+    }
+}
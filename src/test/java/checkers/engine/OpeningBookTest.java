@@ -0,0 +1,170 @@
+package checkers.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import checkers.io.PdnGame;
+import checkers.io.PdnReader;
+import checkers.io.PdnWriter;
+import checkers.model.Board;
+import checkers.model.CheckersException;
+import checkers.model.Fen;
+import checkers.model.Game;
+import checkers.model.GameState;
+import checkers.model.Move;
+import checkers.model.PackedMove;
+import checkers.model.PieceColor;
+import checkers.model.Player;
+import checkers.model.Zobrist;
+
+class OpeningBookTest {
+
+    private static final int MAX_PLIES = 10;
+    private static final String[] RESULTS = {"1-0", "0-1", "1/2-1/2", "*"};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void probesFindTheRecordedMovesAndNothingElse() throws IOException, CheckersException {
+        Path pdnFile = directory.resolve("games.pdn");
+        Random random = new Random(42);
+        try (PdnWriter writer = PdnWriter.create(pdnFile)) {
+            for (int n = 0; n < 30; n++) {
+                PdnGame pdn = PdnGame.of(play(random, 40));
+                pdn.setResult(RESULTS[random.nextInt(RESULTS.length)]);
+                writer.write(pdn);
+            }
+        }
+
+        // The book's lines worked out here, and every position the games reach
+        OpeningBookBuilder builder = new OpeningBookBuilder(MAX_PLIES);
+        Map<Long, Set<String>> lines = new HashMap<>();
+        Map<Long, String> positions = new HashMap<>();
+        Game game = newGame();
+        try (PdnReader reader = PdnReader.open(pdnFile)) {
+            PdnGame pdn = new PdnGame();
+            while (reader.readGame(pdn)) {
+                pdn.replay(game, true);
+                builder.add(game, pdn.getGameState());
+                Game replay = newGame();
+                replay.startGame();
+                List<Move> moves = game.getMoveHistory();
+                for (int ply = 0; ply < moves.size(); ply++) {
+                    long key = key(replay.getBoard(), replay.getCurrentPlayer().getColor());
+                    positions.putIfAbsent(key, Fen.format(replay.getBoard(), replay.getCurrentPlayer().getColor()));
+                    boolean lost = pdn.getGameState() == (replay.getCurrentPlayer().getColor() == PieceColor.RED
+                            ? GameState.BLACK_WINS : GameState.RED_WINS);
+                    if (ply < MAX_PLIES && !lost) {
+                        lines.computeIfAbsent(key, k -> new HashSet<>()).add(line(moves.get(ply)));
+                    }
+                    replay.makeMove(moves.get(ply), false);
+                }
+            }
+        }
+        Path bookFile = directory.resolve("games.book");
+        long records = builder.write(bookFile, 1);
+        assertEquals(lines.values().stream().mapToInt(Set::size).sum(), records);
+
+        try (OpeningBook book = OpeningBook.open(bookFile)) {
+            assertEquals(records, book.getRecordCount());
+            Random choices = new Random(7);
+            for (Map.Entry<Long, String> position : positions.entrySet()) {
+                Board board = new Board();
+                PieceColor side = Fen.parse(position.getValue(), board);
+                Set<String> expected = lines.get(position.getKey());
+                if (expected == null) {
+                    assertEquals(0, book.choose(board, side, choices));
+                    continue;
+                }
+                Set<String> chosen = new HashSet<>();
+                for (int i = 0; i < 2000; i++) {
+                    long move = book.choose(board, side, choices);
+                    assertNotEquals(0, move);
+                    chosen.add(line(PackedMove.toMove(move)));
+                }
+                assertEquals(expected, chosen);
+            }
+            assertTrue(positions.size() > lines.size(), "no positions outside the book");
+
+            // A position no game reached
+            Game other = newGame();
+            other.startGame("W:W21,22,23:B10,11,12");
+            assertNull(book.choose(other, choices));
+        }
+    }
+
+    @Test
+    void choosesMovesInProportionToTheirWeight() throws IOException, CheckersException {
+        Game opening = newGame();
+        opening.startGame();
+        List<Move> moves = opening.getPossibleMoves();
+        OpeningBookBuilder builder = new OpeningBookBuilder(MAX_PLIES);
+        for (int n = 0; n < 3; n++) {
+            builder.add(openWith(moves.get(0)), GameState.RED_WINS);
+        }
+        builder.add(openWith(moves.get(1)), GameState.DRAW);
+        builder.add(openWith(moves.get(2)), GameState.BLACK_WINS);
+        Path file = directory.resolve("weights.book");
+        assertEquals(2, builder.write(file, 1));
+
+        int[] counts = new int[moves.size()];
+        try (OpeningBook book = OpeningBook.open(file)) {
+            Random random = new Random(3);
+            for (int i = 0; i < 7000; i++) {
+                counts[moves.indexOf(book.choose(opening, random))]++;
+            }
+        }
+        // Three wins weigh 6 against the draw's 1; the loss is left out
+        assertTrue(Math.abs(counts[0] - 6000) < 200, "first move chosen " + counts[0] + " times");
+        assertEquals(7000 - counts[0], counts[1]);
+
+        assertEquals(1, builder.write(file, 2));
+        try (OpeningBook book = OpeningBook.open(file)) {
+            assertEquals(moves.get(0), book.choose(opening, new Random(3)));
+        }
+    }
+
+    private static Game newGame() {
+        return new Game(new Player("Red", PieceColor.RED), new Player("Black", PieceColor.BLACK));
+    }
+
+    private static Game play(Random random, int plies) {
+        Game game = newGame();
+        game.startGame();
+        while (!game.isGameOver() && game.getMoveCount() < plies) {
+            List<Move> moves = game.getPossibleMoves();
+            game.makeMove(moves.get(random.nextInt(moves.size())));
+        }
+        return game;
+    }
+
+    private static Game openWith(Move move) {
+        Game game = newGame();
+        game.startGame();
+        game.makeMove(move);
+        return game;
+    }
+
+    private static long key(Board board, PieceColor side) {
+        return side == PieceColor.RED ? board.getKey() : board.getKey() ^ Zobrist.SIDE;
+    }
+
+    private static String line(Move move) {
+        return move.getFrom() + "-" + move.getTo() + "x" + move.getCapturedMask();
+    }
+}
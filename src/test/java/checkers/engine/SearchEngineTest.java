@@ -0,0 +1,54 @@
+package checkers.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import checkers.model.Board;
+import checkers.model.CheckersException;
+import checkers.model.Fen;
+import checkers.model.Game;
+import checkers.model.GameState;
+import checkers.model.MoveGenerator;
+import checkers.model.PieceColor;
+import checkers.model.Player;
+import checkers.model.Zobrist;
+
+class SearchEngineTest {
+
+    @Test
+    void aMoveBackToAnEarlierPositionIsADraw() throws CheckersException {
+        // A lone king against two is lost, unless every move repeats the game
+        Board board = new Board();
+        Fen.parse("W:WK4:BK29,K30", board);
+        SearchEngine engine = new SearchEngine();
+        assertTrue(engine.search(board, PieceColor.RED, 6, 10_000).getScore() < 0);
+
+        // Put each position a move leads to four, six, ... plies before it in the game
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(board, PieceColor.RED, moves);
+        long[] history = new long[2 * count + 2];
+        for (int i = 0; i < count; i++) {
+            Board child = new Board(board);
+            child.makeMove(moves[i]);
+            history[history.length - 3 - 2 * i] = child.getKey() ^ Zobrist.SIDE;
+        }
+        engine.getTranspositionTable().clear();
+        assertEquals(0, engine.search(board, PieceColor.RED, history, 6, 10_000).getScore());
+    }
+
+    @Test
+    void makesProgressInAWonEndingInsteadOfRepeating() throws CheckersException {
+        Game game = new Game(new Player("Red", PieceColor.RED), new Player("Black", PieceColor.BLACK));
+        game.startGame("W:W22,23:BK5");
+        SearchEngine red = new SearchEngine();
+        SearchEngine black = new SearchEngine();
+        while (!game.isGameOver() && game.getMoveCount() < 100) {
+            SearchEngine engine = game.getCurrentPlayer().getColor() == PieceColor.RED ? red : black;
+            game.makeMove(engine.search(game.getBoard(), game.getCurrentPlayer().getColor(),
+                    game.getRepetitionKeys(), 12, 10_000).getMove());
+        }
+        assertEquals(GameState.RED_WINS, game.getGameState(), "after " + game.getMoveCount() + " plies");
+    }
+}
@@ -0,0 +1,187 @@
+package checkers.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import checkers.model.Bitboards;
+import checkers.model.CheckersException;
+import checkers.model.MoveGenerator;
+import checkers.model.PackedMove;
+
+class TablebaseTest {
+
+    private static final int PIECES = 4;
+
+    @TempDir
+    static Path directory;
+
+    private static Tablebase tablebase;
+
+    @BeforeAll
+    static void generate() throws IOException, InterruptedException, CheckersException {
+        new TablebaseGenerator(PIECES, Runtime.getRuntime().availableProcessors()).generate(directory);
+        tablebase = Tablebase.open(directory);
+    }
+
+    @AfterAll
+    static void close() {
+        tablebase.close();
+    }
+
+    @Test
+    void indexCountsThePlacementsInTheGeneratorsOrder() {
+        for (int redMen = 0; redMen <= PIECES; redMen++) {
+            for (int redKings = 0; redMen + redKings <= PIECES; redKings++) {
+                for (int blackMen = 0; redMen + redKings + blackMen <= PIECES; blackMen++) {
+                    for (int blackKings = 0; redMen + redKings + blackMen + blackKings <= PIECES; blackKings++) {
+                        checkIndex(redMen, redKings, blackMen, blackKings);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void checkIndex(int redMen, int redKings, int blackMen, int blackKings) {
+        String signature = "" + redMen + redKings + blackMen + blackKings;
+        int[] redMenSquares = combinations(Tablebase.MEN_SQUARES, redMen);
+        int[] redKingSquares = combinations(Tablebase.KING_SQUARES, redKings);
+        int[] blackMenSquares = combinations(Tablebase.MEN_SQUARES, blackMen);
+        int[] blackKingSquares = combinations(Tablebase.KING_SQUARES, blackKings);
+        long index = 0;
+        for (int rm : redMenSquares) {
+            for (int rk : redKingSquares) {
+                for (int bm : blackMenSquares) {
+                    for (int bk : blackKingSquares) {
+                        if (Tablebase.index(rm << 4, rk, bm, bk) != index) {
+                            assertEquals(index, Tablebase.index(rm << 4, rk, bm, bk), signature);
+                        }
+                        index++;
+                    }
+                }
+            }
+        }
+        assertEquals(Tablebase.size(redMen, redKings, blackMen, blackKings), index, signature);
+    }
+
+    /**
+     * @return The sets of k of the lowest n squares, checked to be distinct
+     *         and in the order the generator visits them.
+     */
+    private static int[] combinations(int n, int k) {
+        int[] sets = TablebaseGenerator.combinations(n, k);
+        assertEquals(Tablebase.BINOMIAL[n][k], sets.length);
+        for (int i = 0; i < sets.length; i++) {
+            assertEquals(k, Integer.bitCount(sets[i]));
+            assertEquals(0, (sets[i] & 0xFFFFFFFFL) >>> n);
+            assertEquals(i, Tablebase.rank(sets[i]));
+        }
+        return sets;
+    }
+
+    @Test
+    void everyValueFollowsFromTheValuesOneMoveOn() {
+        Random random = new Random(42);
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        for (int n = 0; n < 200_000; n++) {
+            int pieces = 2 + random.nextInt(PIECES - 1);
+            int redPieces = 1 + random.nextInt(pieces - 1);
+            int red = 0;
+            int black = 0;
+            int kings = 0;
+            for (int i = 0; i < pieces; i++) {
+                boolean isRed = i < redPieces;
+                boolean king = random.nextBoolean();
+                int sq;
+                do {
+                    sq = random.nextInt(Bitboards.SQUARES);
+                } while (((red | black) & 1 << sq) != 0
+                        || !king && ((isRed ? Bitboards.TOP_ROW : Bitboards.BOTTOM_ROW) & 1 << sq) != 0);
+                if (isRed) {
+                    red |= 1 << sq;
+                } else {
+                    black |= 1 << sq;
+                }
+                if (king) {
+                    kings |= 1 << sq;
+                }
+            }
+            boolean redToMove = random.nextBoolean();
+            int own = redToMove ? red : black;
+            int opponent = redToMove ? black : red;
+            int value = tablebase.probe(own, opponent, kings, redToMove);
+            int expected = expected(own, opponent, kings, redToMove, moves);
+            if (value != expected) {
+                assertEquals(expected, value, describe(red, black, kings, redToMove));
+            }
+        }
+    }
+
+    /**
+     * @return The value a position should have given the values of the
+     *         positions its moves lead to; a capture or crowning counts as a
+     *         move to distance 0.
+     */
+    private static int expected(int own, int opponent, int kings, boolean red, long[] moves) {
+        int count = MoveGenerator.generate(own, opponent, kings, red, moves);
+        if (count == 0) {
+            return Tablebase.loss(0);
+        }
+        int shortestLoss = Integer.MAX_VALUE;
+        int longestWin = -1;
+        boolean allWin = true;
+        for (int i = 0; i < count; i++) {
+            long move = moves[i];
+            int from = 1 << PackedMove.from(move);
+            int to = 1 << PackedMove.to(move);
+            int captured = PackedMove.captured(move);
+            int newKings = kings & ~captured & ~from;
+            if ((kings & from) != 0 || PackedMove.isPromotion(move)) {
+                newKings |= to;
+            }
+            int child = tablebase.probe(opponent & ~captured, (own & ~from) | to, newKings, !red);
+            assertNotEquals(Tablebase.UNKNOWN, child);
+            int distance = captured != 0 || PackedMove.isPromotion(move) ? 0 : Tablebase.distance(child);
+            if (Tablebase.isLoss(child)) {
+                shortestLoss = Math.min(shortestLoss, distance);
+            } else if (Tablebase.isWin(child)) {
+                longestWin = Math.max(longestWin, distance);
+            } else {
+                allWin = false;
+            }
+        }
+        if (shortestLoss != Integer.MAX_VALUE) {
+            return Tablebase.win(shortestLoss + 1);
+        }
+        return allWin ? Tablebase.loss(longestWin + 1) : Tablebase.DRAW;
+    }
+
+    private static String describe(int red, int black, int kings, boolean redToMove) {
+        StringBuilder sb = new StringBuilder(redToMove ? "W" : "B");
+        for (int side : new int[] {red, black}) {
+            sb.append(side == red ? ":W" : ":B");
+            for (int mask = side; mask != 0; mask &= mask - 1) {
+                int sq = Integer.numberOfTrailingZeros(mask);
+                sb.append((kings & 1 << sq) != 0 ? "K" : "").append(sq + 1).append(mask != Integer.lowestOneBit(mask)
+                        ? "," : "");
+            }
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void aLoneKingAgainstTwoKingsIsLost() {
+        // Red kings on 1 and 32 against a black king on 18, black to move
+        int value = tablebase.probe(1 << 17, 1 | 1 << 31, 1 | 1 << 17 | 1 << 31, false);
+        assertTrue(Tablebase.isLoss(value), "value " + value);
+    }
+}
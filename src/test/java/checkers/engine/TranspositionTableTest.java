@@ -0,0 +1,94 @@
+package checkers.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import checkers.model.PackedMove;
+
+class TranspositionTableTest {
+
+    private static final long KEY = 0x9E3779B97F4A7C15L;
+    // Falls in the same slot as KEY in a one-megabyte table
+    private static final long OTHER_KEY = KEY ^ 1L << 40;
+
+    @Test
+    void probeReturnsWhatWasStored() {
+        TranspositionTable table = new TranspositionTable(1);
+        long move = PackedMove.of(9, 18, 0, 1 << 13, false);
+        table.store(KEY, move, -1234, 9, TranspositionTable.LOWER);
+
+        long data = table.probe(KEY);
+        assertTrue(TranspositionTable.sameMove(data, move));
+        assertFalse(TranspositionTable.sameMove(data, PackedMove.of(9, 13, 0, 0, false)));
+        assertEquals(-1234, TranspositionTable.score(data));
+        assertEquals(9, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(data));
+    }
+
+    @Test
+    void anotherKeyInTheSameSlotMisses() {
+        TranspositionTable table = new TranspositionTable(1);
+        assertEquals(0, table.probe(KEY));
+        table.store(KEY, 0, 50, 3, TranspositionTable.EXACT);
+        assertEquals(0, table.probe(OTHER_KEY));
+        table.clear();
+        assertEquals(0, table.probe(KEY));
+    }
+
+    @Test
+    void keepsTheDeeperResultOfTheSameSearch() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(KEY, 0, 10, 8, TranspositionTable.EXACT);
+
+        table.store(OTHER_KEY, 0, 20, 7, TranspositionTable.EXACT);
+        assertEquals(0, table.probe(OTHER_KEY));
+        assertEquals(10, TranspositionTable.score(table.probe(KEY)));
+
+        // The same position is always replaced, however shallow
+        table.store(KEY, 0, 30, 2, TranspositionTable.UPPER);
+        assertEquals(30, TranspositionTable.score(table.probe(KEY)));
+        assertEquals(2, TranspositionTable.depth(table.probe(KEY)));
+
+        // As deep or deeper replaces
+        table.store(OTHER_KEY, 0, 40, 2, TranspositionTable.EXACT);
+        assertEquals(0, table.probe(KEY));
+        assertEquals(40, TranspositionTable.score(table.probe(OTHER_KEY)));
+    }
+
+    @Test
+    void resultsOfEarlierSearchesAreReplaced() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(KEY, 0, 10, 20, TranspositionTable.EXACT);
+        table.newSearch();
+        // Still found by the new search
+        assertEquals(10, TranspositionTable.score(table.probe(KEY)));
+        table.store(OTHER_KEY, 0, 20, 1, TranspositionTable.EXACT);
+        assertEquals(0, table.probe(KEY));
+        assertEquals(20, TranspositionTable.score(table.probe(OTHER_KEY)));
+    }
+
+    @Test
+    void winScoresMoveWithThePlyTheyAreReached() {
+        for (int ply = 0; ply < SearchEngine.MAX_PLY; ply++) {
+            for (int distance = ply; distance < SearchEngine.MAX_PLY; distance++) {
+                int win = SearchEngine.WIN - distance;
+                assertEquals(win, TranspositionTable.scoreFromTable(TranspositionTable.scoreToTable(win, ply), ply));
+                assertEquals(-win, TranspositionTable.scoreFromTable(TranspositionTable.scoreToTable(-win, ply), ply));
+            }
+        }
+        // A win six plies below a node at ply 4, found again at ply 7
+        int stored = TranspositionTable.scoreToTable(SearchEngine.WIN - 10, 4);
+        assertEquals(SearchEngine.WIN - 6, stored);
+        assertEquals(SearchEngine.WIN - 13, TranspositionTable.scoreFromTable(stored, 7));
+        assertEquals(-SearchEngine.WIN + 13, TranspositionTable.scoreFromTable(
+                TranspositionTable.scoreToTable(-SearchEngine.WIN + 10, 4), 7));
+        // Other scores are left alone
+        for (int score : new int[] {0, 250, -250, SearchEngine.TABLEBASE_WIN, -SearchEngine.TABLEBASE_WIN}) {
+            assertEquals(score, TranspositionTable.scoreToTable(score, 9));
+            assertEquals(score, TranspositionTable.scoreFromTable(score, 9));
+        }
+    }
+}
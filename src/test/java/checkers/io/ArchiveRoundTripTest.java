@@ -0,0 +1,48 @@
+package checkers.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import checkers.model.CheckersException;
+import checkers.model.Fen;
+import checkers.model.Game;
+
+class ArchiveRoundTripTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void gamesReadBackAsWritten() throws IOException, CheckersException {
+        Path file = directory.resolve("games.ckra");
+        List<Game> games = new ArrayList<>();
+        try (ArchiveWriter writer = ArchiveWriter.create(file)) {
+            for (long seed = 1; seed <= 20; seed++) {
+                Game game = RandomGames.play(seed);
+                games.add(game);
+                writer.write(game);
+            }
+        }
+
+        Game replayed = RandomGames.newGame();
+        try (ArchiveReader reader = ArchiveReader.open(file)) {
+            assertEquals(games.size(), reader.getGameCount());
+            for (int n = 0; n < games.size(); n++) {
+                Game game = games.get(n);
+                assertEquals(game.getMoveCount(), reader.getMoveCount(n));
+                assertEquals(game.getGameState(), reader.getResult(n));
+                reader.replay(n, replayed);
+                assertEquals(game.getMoveHistory(), replayed.getMoveHistory());
+                assertEquals(Fen.format(game.getBoard(), game.getCurrentPlayer().getColor()),
+                        Fen.format(replayed.getBoard(), replayed.getCurrentPlayer().getColor()));
+            }
+        }
+    }
+}
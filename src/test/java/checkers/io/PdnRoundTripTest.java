@@ -0,0 +1,50 @@
+package checkers.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import checkers.model.CheckersException;
+import checkers.model.Fen;
+import checkers.model.Game;
+
+class PdnRoundTripTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void gamesReadBackAsWritten() throws IOException, CheckersException {
+        Path file = directory.resolve("games.pdn");
+        List<Game> games = new ArrayList<>();
+        try (PdnWriter writer = PdnWriter.create(file)) {
+            for (long seed = 1; seed <= 20; seed++) {
+                Game game = RandomGames.play(seed);
+                games.add(game);
+                writer.write(game);
+            }
+        }
+
+        Game replayed = RandomGames.newGame();
+        try (PdnReader reader = PdnReader.open(file)) {
+            PdnGame pdn = new PdnGame();
+            for (Game game : games) {
+                assertTrue(reader.readGame(pdn));
+                pdn.replay(replayed, true);
+                assertEquals(game.getMoveHistory(), replayed.getMoveHistory());
+                assertEquals(Fen.format(game.getBoard(), game.getCurrentPlayer().getColor()),
+                        Fen.format(replayed.getBoard(), replayed.getCurrentPlayer().getColor()));
+                assertEquals(PdnGame.of(game).getResult(), pdn.getResult());
+            }
+            assertFalse(reader.readGame(pdn));
+        }
+    }
+}
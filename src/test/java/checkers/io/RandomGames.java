@@ -0,0 +1,35 @@
+package checkers.io;
+
+import java.util.List;
+import java.util.Random;
+
+import checkers.model.Game;
+import checkers.model.Move;
+import checkers.model.PieceColor;
+import checkers.model.Player;
+
+/**
+ * Plays seeded random games for the round-trip tests.
+ */
+final class RandomGames {
+
+    private static final int MAX_PLIES = 150;
+
+    private RandomGames() {
+    }
+
+    static Game newGame() {
+        return new Game(new Player("Red", PieceColor.RED), new Player("Black", PieceColor.BLACK));
+    }
+
+    static Game play(long seed) {
+        Random random = new Random(seed);
+        Game game = newGame();
+        game.startGame();
+        while (!game.isGameOver() && game.getMoveCount() < MAX_PLIES) {
+            List<Move> moves = game.getPossibleMoves();
+            game.makeMove(moves.get(random.nextInt(moves.size())));
+        }
+        return game;
+    }
+}
@@ -0,0 +1,44 @@
+package checkers.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BoardTest {
+
+    @Test
+    void makeMoveKeepsTheKeyAndUnmakeMoveRestoresThePosition() {
+        Random random = new Random(42);
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        for (int game = 0; game < 50; game++) {
+            Board board = new Board();
+            board.initializeBoard();
+            PieceColor side = PieceColor.RED;
+            List<UndoRecord> undos = new ArrayList<>();
+            List<String> positions = new ArrayList<>();
+            List<Long> keys = new ArrayList<>();
+            for (int ply = 0; ply < 150; ply++) {
+                int count = MoveGenerator.generate(board, side, moves);
+                if (count == 0) {
+                    break;
+                }
+                positions.add(Fen.format(board, side));
+                keys.add(board.getKey());
+                undos.add(board.makeMove(moves[random.nextInt(count)]));
+                side = side.opposite();
+                assertEquals(Zobrist.hash(board.getPieces(PieceColor.RED), board.getPieces(PieceColor.BLACK),
+                        board.getKings()), board.getKey(), "key after ply " + ply);
+            }
+            for (int ply = undos.size() - 1; ply >= 0; ply--) {
+                board.unmakeMove(undos.get(ply));
+                side = side.opposite();
+                assertEquals(positions.get(ply), Fen.format(board, side), "position before ply " + ply);
+                assertEquals(keys.get(ply), board.getKey(), "key before ply " + ply);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package checkers.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class FenTest {
+
+    @Test
+    void formatsWhatItParses() throws CheckersException {
+        Board board = new Board();
+        assertEquals(PieceColor.BLACK, Fen.parse("B:W21,22,K30:B1,K2", board));
+        assertEquals("B:W21,22,K30:B1,K2", Fen.format(board, PieceColor.BLACK));
+        assertEquals(Zobrist.hash(board.getPieces(PieceColor.RED), board.getPieces(PieceColor.BLACK),
+                board.getKings()), board.getKey());
+    }
+
+    @Test
+    void leavesTheBoardAloneWhenTheStringIsBad() {
+        Board board = new Board();
+        board.initializeBoard();
+        String opening = Fen.format(board, PieceColor.RED);
+        long key = board.getKey();
+        for (String fen : new String[] {"W:W21,22:B1,99", "W:W21,x:B1", "X:W21:B1", "W:W21:Q1", ""}) {
+            assertThrows(CheckersException.class, () -> Fen.parse(fen, board), fen);
+            assertEquals(opening, Fen.format(board, PieceColor.RED), fen);
+            assertEquals(key, board.getKey(), fen);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package checkers.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class GameTest {
+
+    @Test
+    void aBadStartPositionLeavesTheGameAsItWas() {
+        Game game = new Game(new Player("Red", PieceColor.RED), new Player("Black", PieceColor.BLACK));
+        game.startGame();
+        game.makeMove(game.getPossibleMoves().get(0));
+        String position = Fen.format(game.getBoard(), PieceColor.BLACK);
+        List<Move> moves = game.getPossibleMoves();
+        BoardSnapshot snapshot = game.getSnapshot();
+
+        assertThrows(CheckersException.class, () -> game.startGame("W:W21,22:B1,99"));
+
+        assertEquals(position, Fen.format(game.getBoard(), PieceColor.BLACK));
+        assertEquals(PieceColor.BLACK, game.getCurrentPlayer().getColor());
+        assertEquals(1, game.getMoveCount());
+        assertEquals(moves, game.getPossibleMoves());
+        assertEquals(GameState.IN_PROGRESS, game.getGameState());
+        assertEquals(snapshot, game.getSnapshot());
+    }
+
+    @Test
+    void startsFromAGivenPosition() throws CheckersException {
+        Game game = new Game(new Player("Red", PieceColor.RED), new Player("Black", PieceColor.BLACK));
+        game.startGame();
+        game.makeMove(game.getPossibleMoves().get(0));
+        game.startGame("B:W21,22:B1,K2");
+        assertEquals("B:W21,22:B1,K2", game.getStartPosition());
+        assertEquals(PieceColor.BLACK, game.getCurrentPlayer().getColor());
+        assertEquals(0, game.getMoveCount());
+        assertEquals(PieceColor.BLACK, game.getSnapshot().getSideToMove());
+        assertEquals(0, game.getSnapshot().getMoveCount());
+    }
+
+    @Test
+    void repetitionKeysGoBackToTheLastCaptureOrManMove() throws CheckersException {
+        Game game = new Game(new Player("Red", PieceColor.RED), new Player("Black", PieceColor.BLACK));
+        game.startGame("W:W30,K1:BK32");
+        long start = game.getBoard().getKey();
+        for (String move : new String[] {"1-6", "32-27", "6-1", "27-32"}) {
+            play(game, move);
+        }
+        long[] keys = game.getRepetitionKeys();
+        assertEquals(4, keys.length);
+        assertEquals(start, keys[0]);
+        assertEquals(game.getBoard().getKey(), keys[0]);
+
+        play(game, "30-26");
+        play(game, "32-27");
+        keys = game.getRepetitionKeys();
+        assertEquals(1, keys.length);
+        // Black was to move
+        assertEquals(keys[0] ^ Zobrist.SIDE, Zobrist.hash(1 << 0 | 1 << 25, 1 << 31, 1 << 0 | 1 << 31));
+    }
+
+    private static void play(Game game, String text) {
+        for (Move move : game.getPossibleMoves()) {
+            if (text.equals((Bitboards.square(move.getFrom()) + 1) + "-" + (Bitboards.square(move.getTo()) + 1))) {
+                game.makeMove(move);
+                return;
+            }
+        }
+        throw new AssertionError("No move " + text);
+    }
+}
@@ -0,0 +1,54 @@
+package checkers.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class MoveGeneratorTest {
+
+    private final long[] moves = new long[MoveGenerator.MAX_MOVES];
+
+    /** @return The 0-based square of a PDN square number. */
+    private static int sq(int number) {
+        return number - 1;
+    }
+
+    private static Board board(String fen) throws CheckersException {
+        Board board = new Board();
+        Fen.parse(fen, board);
+        return board;
+    }
+
+    @Test
+    void compoundJumpIsOneMoveTakingEveryPiece() throws CheckersException {
+        // Stopping on 18 after the first capture is not a move of its own
+        Board board = board("W:W25:B22,15");
+        assertEquals(1, MoveGenerator.generate(board, PieceColor.RED, moves));
+        long move = moves[0];
+        assertTrue(PackedMove.isJump(move));
+        assertEquals(sq(25), PackedMove.from(move));
+        assertEquals(sq(11), PackedMove.to(move));
+        assertEquals(1 << sq(22) | 1 << sq(15), PackedMove.captured(move));
+
+        board.makeMove(move);
+        assertEquals(0, board.getPieces(PieceColor.BLACK));
+        assertEquals(1 << sq(11), board.getPieces(PieceColor.RED));
+    }
+
+    @Test
+    void crowningDuringACaptureEndsTheMove() throws CheckersException {
+        // After 18x9x2 the new king could go on to take 7, but crowning ends the move
+        Board board = board("W:W18:B14,6,7");
+        assertEquals(1, MoveGenerator.generate(board, PieceColor.RED, moves));
+        long move = moves[0];
+        assertEquals(sq(18), PackedMove.from(move));
+        assertEquals(sq(2), PackedMove.to(move));
+        assertEquals(1 << sq(14) | 1 << sq(6), PackedMove.captured(move));
+        assertTrue(PackedMove.isPromotion(move));
+
+        board.makeMove(move);
+        assertTrue(board.getPiece(Bitboards.position(sq(2))).isKing());
+        assertEquals(1 << sq(7), board.getPieces(PieceColor.BLACK));
+    }
+}
@@ -0,0 +1,238 @@
+package checkers.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import checkers.io.PdnGame;
+import checkers.model.CheckersException;
+import checkers.model.Game;
+import checkers.model.Move;
+import checkers.model.PieceColor;
+import checkers.model.Player;
+
+class GameServerTest {
+
+    private static final int TIMEOUT_MILLIS = 10_000;
+
+    private GameServer server;
+    private Thread serving;
+    private final List<Client> clients = new ArrayList<>();
+
+    @BeforeEach
+    void start() throws IOException {
+        server = new GameServer(InetAddress.getLoopbackAddress(), 0);
+        serving = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                // Closed by the test
+            }
+        }, "game-server");
+        serving.start();
+    }
+
+    @AfterEach
+    void stop() throws IOException, InterruptedException {
+        for (Client client : clients) {
+            client.close();
+        }
+        server.close();
+        serving.join(TIMEOUT_MILLIS);
+    }
+
+    @Test
+    void playsAGameToTheEnd() throws IOException {
+        Client red = connect();
+        Client black = connect();
+        red.send("create W:W18:B14");
+        String id = red.expect("created")[1];
+        red.send("join " + id + " red");
+        assertEquals("joined " + id + " red W:W18:B14", red.read());
+        black.send("join " + id + " black");
+        assertEquals("joined " + id + " black W:W18:B14", black.read());
+
+        black.send("move " + id + " 14-17");
+        assertEquals("illegal " + id + " 14-17 Not your move", black.read());
+        red.send("move " + id + " 18-15");
+        assertEquals("illegal " + id + " 18-15 Not a legal move", red.read());
+        red.send("move " + id + " 18-");
+        assertTrue(red.read().startsWith("illegal " + id + " 18- "));
+
+        red.send("move " + id + " 18x9");
+        for (Client client : new Client[] {red, black}) {
+            assertEquals("moved " + id + " 1 18x9", client.read());
+            assertEquals("over " + id + " 1-0", client.read());
+        }
+        black.send("position " + id);
+        assertEquals("error " + id + " No such game", black.read());
+        red.send("stats");
+        assertEquals("0", red.expect("stats")[2]);
+        red.send("create W:W21:B99");
+        assertTrue(red.read().startsWith("error "));
+    }
+
+    @Test
+    void aGameStaysOpenUntilEveryoneHasLeft() throws IOException {
+        Client creator = connect();
+        Client red = connect();
+        Client black = connect();
+        creator.send("create");
+        String id = creator.expect("created")[1];
+        red.send("join " + id + " red");
+        red.expect("joined");
+        black.send("join " + id + " black");
+        black.expect("joined");
+        red.send("join " + id + " red");
+        red.expect("joined");
+        black.send("join " + id + " red");
+        assertEquals("error " + id + " Red is taken", black.read());
+
+        red.send("leave " + id);
+        // The creator watches the game it made
+        assertEquals("left " + id + " red", black.read());
+        assertEquals("left " + id + " red", creator.read());
+        black.send("leave " + id);
+        assertEquals("left " + id + " black", creator.read());
+        creator.send("position " + id);
+        String position = creator.read();
+        assertTrue(position.startsWith("position " + id + " 0 "), position);
+        creator.send("leave " + id);
+        creator.send("position " + id);
+        assertEquals("error " + id + " No such game", creator.read());
+    }
+
+    @Test
+    void aGameNobodyJoinedClosesWhenItsCreatorGoesAway() throws IOException, InterruptedException {
+        Client creator = connect();
+        creator.send("create");
+        creator.expect("created");
+        creator.send("create");
+        creator.expect("created");
+        assertEquals(2, server.getGameCount());
+        creator.close();
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (server.getGameCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, server.getGameCount());
+    }
+
+    @Test
+    void movesStayInOrderWhileOthersSubmitToTheSameGame() throws Exception {
+        Client player = connect();
+        Client watcher = connect();
+        player.send("create");
+        String id = player.expect("created")[1];
+        player.send("join " + id + " red");
+        String fen = player.expect("joined")[3];
+        player.send("join " + id + " black");
+        player.expect("joined");
+        watcher.send("watch " + id);
+        watcher.expect("joined");
+
+        // Others pour moves and position requests into the same game meanwhile
+        int others = 8;
+        int commands = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(others);
+        List<Future<Integer>> answers = new ArrayList<>();
+        for (int i = 0; i < others; i++) {
+            Client other = connect();
+            answers.add(pool.submit(() -> {
+                for (int n = 0; n < commands; n++) {
+                    other.send(n % 2 == 0 ? "move " + id + " 9-13" : "position " + id);
+                }
+                int illegal = 0;
+                for (int n = 0; n < commands; n++) {
+                    String line = other.read();
+                    illegal += line.startsWith("illegal " + id + " 9-13 ") ? 1 : 0;
+                    assertTrue(line.startsWith("illegal ") || line.startsWith("position "), line);
+                }
+                return illegal;
+            }));
+        }
+
+        Game game = new Game(new Player("Red", PieceColor.RED), new Player("Black", PieceColor.BLACK));
+        game.startGame(fen);
+        int plies = 0;
+        while (!game.isGameOver() && plies < 60) {
+            Move move = game.getPossibleMoves().get(0);
+            player.send("move " + id + " " + PdnGame.toText(move));
+            game.makeMove(move);
+            plies++;
+            assertEquals("moved " + id + " " + plies + " " + PdnGame.toText(move), player.read());
+        }
+        for (Future<Integer> answer : answers) {
+            assertEquals(commands / 2, answer.get());
+        }
+        pool.shutdown();
+        for (int ply = 1; ply <= plies; ply++) {
+            assertEquals(ply, Integer.parseInt(watcher.expect("moved")[2]));
+        }
+        // Every move command is timed, legal or not
+        assertEquals(plies + others * commands / 2, server.getMoveLatency().getCount());
+    }
+
+    private Client connect() throws IOException {
+        Client client = new Client(new Socket(InetAddress.getLoopbackAddress(), server.getPort()));
+        clients.add(client);
+        return client;
+    }
+
+    /**
+     * A client that reads with a timeout, so a missing answer fails the test.
+     */
+    private static final class Client implements Closeable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        Client(Socket socket) throws IOException {
+            this.socket = socket;
+            socket.setSoTimeout(TIMEOUT_MILLIS);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+        }
+
+        void send(String line) {
+            out.println(line);
+        }
+
+        String read() throws IOException {
+            return in.readLine();
+        }
+
+        /**
+         * @return The next line split into words, which must start with the given word.
+         */
+        String[] expect(String word) throws IOException {
+            String line = read();
+            String[] words = line == null ? new String[] {""} : line.split(" ");
+            assertEquals(word, words[0], line);
+            return words;
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
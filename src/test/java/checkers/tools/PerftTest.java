@@ -0,0 +1,36 @@
+package checkers.tools;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import checkers.model.Board;
+import checkers.model.PieceColor;
+
+class PerftTest {
+
+    // Leaf counts from the opening, with each multi-jump counted as one move
+    private static final long[] OPENING = {1, 7, 49, 302, 1469, 7361, 36768, 179740};
+
+    private static Perft opening() {
+        Board board = new Board();
+        board.initializeBoard();
+        return new Perft(board, PieceColor.RED);
+    }
+
+    @Test
+    void countsTheOpening() {
+        Perft perft = opening();
+        for (int depth = 1; depth < OPENING.length; depth++) {
+            assertEquals(OPENING[depth], perft.count(depth), "depth " + depth);
+        }
+    }
+
+    @Test
+    void countsTheSameWithMakeAndUnmake() {
+        Perft perft = opening();
+        for (int depth = 1; depth <= 6; depth++) {
+            assertEquals(OPENING[depth], perft.countOnBoard(depth), "depth " + depth);
+        }
+    }
+}
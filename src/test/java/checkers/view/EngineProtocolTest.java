@@ -0,0 +1,197 @@
+package checkers.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PipedReader;
+import java.io.PipedWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class EngineProtocolTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+    private static final String MOVE = "\\d+([-x]\\d+)+";
+
+    private final BlockingQueue<String> output = new LinkedBlockingQueue<>();
+    private PipedWriter input;
+    private Thread engine;
+
+    @BeforeEach
+    void start() throws IOException {
+        input = new PipedWriter();
+        BufferedReader in = new BufferedReader(new PipedReader(input));
+        PrintStream out = new PrintStream(new LineQueue(output), true, StandardCharsets.UTF_8);
+        EngineProtocol protocol = new EngineProtocol(in, out);
+        engine = new Thread(() -> {
+            try {
+                protocol.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, "engine-protocol");
+        engine.start();
+        send("setoption name Hash value 8");
+    }
+
+    @AfterEach
+    void quit() throws IOException, InterruptedException {
+        send("quit");
+        engine.join(TIMEOUT_MILLIS);
+        assertFalse(engine.isAlive());
+    }
+
+    @Test
+    void goDepthAnswersAfterThatDepth() throws IOException, InterruptedException {
+        send("position startpos moves 11-15 23-19");
+        send("go depth 4");
+        List<String> lines = untilBestMove(TIMEOUT_MILLIS);
+        assertTrue(lines.get(lines.size() - 1).matches("bestmove " + MOVE + "( ponder " + MOVE + ")?"),
+                lines.toString());
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("info depth 4 ")), lines.toString());
+        assertFalse(lines.stream().anyMatch(line -> line.startsWith("info depth 5 ")), lines.toString());
+        assertOneBestMove(lines);
+    }
+
+    @Test
+    void goInfiniteAnswersOnlyWhenStopped() throws IOException, InterruptedException {
+        send("position startpos");
+        send("go infinite");
+        assertNull(nextBestMove(300));
+        send("stop");
+        assertOneBestMove(untilBestMove(TIMEOUT_MILLIS));
+    }
+
+    @Test
+    void goInfiniteWaitsEvenWhenThereIsNothingLeftToSearch() throws IOException, InterruptedException {
+        // Only one move, which ends the game, so the search ends at once
+        send("position fen W:W32:B27");
+        send("go infinite");
+        assertNull(nextBestMove(300));
+        send("stop");
+        List<String> lines = untilBestMove(TIMEOUT_MILLIS);
+        assertEquals("bestmove 32x23", lines.get(lines.size() - 1));
+        assertOneBestMove(lines);
+    }
+
+    @Test
+    void ponderingAnswersOnTheClockAfterPonderHit() throws IOException, InterruptedException {
+        send("position startpos moves 11-15");
+        send("go ponder wtime 3000 btime 3000");
+        assertNull(nextBestMove(300));
+        send("ponderhit");
+        // A thirtieth of the clock, and a margin for slow machines
+        assertOneBestMove(untilBestMove(2_000));
+    }
+
+    @Test
+    void stopBeforeTheFirstIterationStillAnswersOnce() throws IOException, InterruptedException {
+        send("position startpos");
+        for (int i = 0; i < 20; i++) {
+            send("go infinite\nstop");
+            List<String> lines = untilBestMove(TIMEOUT_MILLIS);
+            assertTrue(lines.get(lines.size() - 1).matches("bestmove " + MOVE + ".*"), lines.toString());
+            assertOneBestMove(lines);
+        }
+    }
+
+    @Test
+    void stopWithoutASearchDoesNothing() throws IOException, InterruptedException {
+        send("stop");
+        send("ponderhit");
+        send("isready");
+        assertEquals("readyok", output.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        assertTrue(output.isEmpty(), output.toString());
+    }
+
+    private void send(String command) throws IOException {
+        input.write(command + "\n");
+        input.flush();
+    }
+
+    /**
+     * @return The lines up to and including the next {@code bestmove}.
+     */
+    private List<String> untilBestMove(long millis) throws InterruptedException {
+        List<String> lines = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + millis;
+        while (true) {
+            String line = output.poll(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            assertNotNull(line, "no bestmove after " + lines);
+            lines.add(line);
+            if (line.startsWith("bestmove")) {
+                return lines;
+            }
+        }
+    }
+
+    /**
+     * @return The next {@code bestmove} line within the time, or null if none came.
+     */
+    private String nextBestMove(long millis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + millis;
+        for (long left = millis; left > 0; left = deadline - System.currentTimeMillis()) {
+            String line = output.poll(left, TimeUnit.MILLISECONDS);
+            if (line != null && line.startsWith("bestmove")) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks that no second answer follows the one just read, by making sure
+     * nothing but {@code info} lines comes before the answer to {@code isready}.
+     */
+    private void assertOneBestMove(List<String> lines) throws IOException, InterruptedException {
+        assertEquals(1, lines.stream().filter(line -> line.startsWith("bestmove")).count(), lines.toString());
+        send("isready");
+        while (true) {
+            String line = output.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            assertNotNull(line, "no readyok");
+            if (line.equals("readyok")) {
+                return;
+            }
+            assertTrue(line.startsWith("info "), line);
+        }
+    }
+
+    /**
+     * Splits what is written to it into lines.
+     */
+    private static final class LineQueue extends OutputStream {
+        private final BlockingQueue<String> lines;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        LineQueue(BlockingQueue<String> lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            if (b == '\n') {
+                lines.add(line.toString(StandardCharsets.UTF_8).trim());
+                line.reset();
+            } else {
+                line.write(b);
+            }
+        }
+    }
+}